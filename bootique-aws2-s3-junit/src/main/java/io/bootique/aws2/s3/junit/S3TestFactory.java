@@ -21,6 +21,7 @@ package io.bootique.aws2.s3.junit;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import io.bootique.annotation.BQConfig;
 import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.client.AwsClientRegistry;
 import io.bootique.aws2.junit.AwsTester;
 import io.bootique.aws2.s3.S3ClientFactory;
 import io.bootique.aws2.s3.S3ClientFactoryFactory;
@@ -39,9 +40,20 @@ public class S3TestFactory extends S3ClientFactoryFactory {
 
     private final Injector injector;
 
-    @Inject
+    /**
+     * @deprecated in favor of {@link #S3TestFactory(AwsConfig, AwsClientRegistry, Injector)}.
+     */
+    @Deprecated(since = "4.0", forRemoval = true)
     public S3TestFactory(AwsConfig config, Injector injector) {
-        super(config);
+        this(config, null, injector);
+    }
+
+    /**
+     * @since 4.0
+     */
+    @Inject
+    public S3TestFactory(AwsConfig config, AwsClientRegistry clientRegistry, Injector injector) {
+        super(config, clientRegistry);
         this.injector = injector;
     }
 
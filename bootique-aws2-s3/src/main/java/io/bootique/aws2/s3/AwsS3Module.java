@@ -21,10 +21,12 @@ package io.bootique.aws2.s3;
 
 import io.bootique.BQModule;
 import io.bootique.ModuleCrate;
-import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsModule;
+import io.bootique.aws2.s3.nio.S3FileSystemProvider;
 import io.bootique.config.ConfigurationFactory;
 import io.bootique.di.Binder;
 import io.bootique.di.Provides;
+import io.bootique.shutdown.ShutdownManager;
 
 import jakarta.inject.Singleton;
 
@@ -42,11 +44,20 @@ public class AwsS3Module implements BQModule {
 
     @Override
     public void configure(Binder binder) {
+        AwsModule.extend(binder).addWarmupTarget(S3WarmupTarget.class);
     }
 
     @Provides
     @Singleton
-    S3ClientFactory provideS3ClientFactory(ConfigurationFactory configFactory, AwsConfig config) {
-        return configFactory.config(S3ClientFactoryFactory.class, CONFIG_PREFIX).create();
+    S3ClientFactory provideS3ClientFactory(ConfigurationFactory configFactory, ShutdownManager shutdownManager) {
+        S3ClientFactory factory = configFactory.config(S3ClientFactoryFactory.class, CONFIG_PREFIX).create();
+        shutdownManager.onShutdown(factory, S3ClientFactory::shutdown);
+        return factory;
+    }
+
+    @Provides
+    @Singleton
+    S3FileSystemProvider provideS3FileSystemProvider(ConfigurationFactory configFactory, S3ClientFactory clientFactory) {
+        return configFactory.config(S3ClientFactoryFactory.class, CONFIG_PREFIX).createFileSystemProvider(clientFactory);
     }
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-capacity pool of equally-sized (by default off-heap) buffers used for S3 object parts. Reusing part buffers
+ * avoids allocating a multi-megabyte array per part, which in G1 is a "humongous" allocation that causes extra GC
+ * work and pauses. Buffers are allocated lazily, up to "maxBuffers", and are never freed until the pool is shut down.
+ * When all the buffers are taken, {@link #acquire()} blocks until one is released, so the pool also caps the total
+ * memory used by all the S3 streams of the app.
+ * <p>
+ * A buffer must be released by closing the {@link PooledBuffer} handle. A handle that is garbage-collected without
+ * being closed is reported as a leak (with the stack of the code that acquired it), and its capacity is returned to
+ * the pool. The leaked buffer itself is not reused, as the code that leaked it may still hold a reference to it.
+ *
+ * @since 4.0
+ */
+public class S3BufferPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3BufferPool.class);
+    private static final Cleaner LEAK_DETECTOR = Cleaner.create();
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final boolean direct;
+
+    // each permit is a buffer that can be acquired, either already allocated, or not yet
+    private final Semaphore permits;
+    private final Queue<ByteBuffer> freeBuffers;
+    private final AtomicInteger allocated;
+    private final AtomicInteger leaked;
+
+    public S3BufferPool(int bufferSize, int maxBuffers, boolean direct) {
+
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("'bufferSize' must be positive: " + bufferSize);
+        }
+
+        if (maxBuffers < 1) {
+            throw new IllegalArgumentException("'maxBuffers' must be positive: " + maxBuffers);
+        }
+
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.direct = direct;
+        this.permits = new Semaphore(maxBuffers, true);
+        this.freeBuffers = new ConcurrentLinkedQueue<>();
+        this.allocated = new AtomicInteger();
+        this.leaked = new AtomicInteger();
+    }
+
+    /**
+     * Returns a cleared buffer of {@link #getBufferSize()} capacity, blocking if all the pool buffers are taken.
+     */
+    public PooledBuffer acquire() throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an S3 buffer");
+        }
+
+        return take();
+    }
+
+    /**
+     * Returns a cleared buffer of {@link #getBufferSize()} capacity, or null if all the pool buffers are taken.
+     */
+    public PooledBuffer tryAcquire() {
+        return permits.tryAcquire() ? take() : null;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Returns the number of buffers that can be acquired without blocking.
+     */
+    public int getAvailableBuffers() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of buffers currently allocated by the pool, both acquired and free.
+     */
+    public int getAllocatedBuffers() {
+        return allocated.get();
+    }
+
+    /**
+     * Returns the number of buffers that were garbage-collected without being released since the pool creation.
+     */
+    public int getLeakedBuffers() {
+        return leaked.get();
+    }
+
+    /**
+     * Drops the free buffers, so that their memory can be reclaimed. Invoked on runtime shutdown.
+     */
+    public void shutdown() {
+        ByteBuffer b;
+        while ((b = freeBuffers.poll()) != null) {
+            allocated.decrementAndGet();
+        }
+    }
+
+    private PooledBuffer take() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+            allocated.incrementAndGet();
+        }
+
+        return new PooledBuffer(this, buffer.clear());
+    }
+
+    private void release(ByteBuffer buffer) {
+        freeBuffers.offer(buffer);
+        permits.release();
+    }
+
+    private void onLeak(Throwable acquiredAt) {
+        leaked.incrementAndGet();
+        allocated.decrementAndGet();
+        permits.release();
+        LOGGER.error("S3 buffer was not released before being garbage-collected. Acquired at:", acquiredAt);
+    }
+
+    /**
+     * A handle of a buffer acquired from the pool. Closing it returns the buffer to the pool, after which the buffer
+     * must not be used.
+     */
+    public static final class PooledBuffer implements AutoCloseable {
+
+        private final ByteBuffer buffer;
+        private final Release release;
+        private final Cleaner.Cleanable cleanable;
+
+        private PooledBuffer(S3BufferPool pool, ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.release = new Release(pool, buffer, new Throwable("S3 buffer acquired"));
+            this.cleanable = LEAK_DETECTOR.register(this, release);
+        }
+
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            release.released = true;
+            cleanable.clean();
+        }
+    }
+
+    // must not reference the PooledBuffer, as otherwise the handle would never become unreachable
+    private static final class Release implements Runnable {
+
+        private final S3BufferPool pool;
+        private final ByteBuffer buffer;
+        private final Throwable acquiredAt;
+        private volatile boolean released;
+
+        Release(S3BufferPool pool, ByteBuffer buffer, Throwable acquiredAt) {
+            this.pool = pool;
+            this.buffer = buffer;
+            this.acquiredAt = acquiredAt;
+        }
+
+        // called exactly once, either on close, or by the Cleaner when the handle is garbage-collected
+        @Override
+        public void run() {
+            if (released) {
+                pool.release(buffer);
+            } else {
+                pool.onLeak(acquiredAt);
+            }
+        }
+    }
+}
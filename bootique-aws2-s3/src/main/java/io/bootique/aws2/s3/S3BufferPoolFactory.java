@@ -0,0 +1,72 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Bytes;
+
+/**
+ * Configures {@link S3BufferPool} shared by the S3 streams created via {@link S3ClientFactory}.
+ *
+ * @since 4.0
+ */
+@BQConfig("A pool of reusable buffers for S3 object parts")
+public class S3BufferPoolFactory {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_MAX_BUFFERS = 16;
+
+    private Bytes bufferSize;
+    private Integer maxBuffers;
+    private Boolean direct;
+
+    @BQConfigProperty("Size of each buffer, which is also the part size of the streaming multipart uploads. " +
+            "The default is 8MB.")
+    public S3BufferPoolFactory setBufferSize(Bytes bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of buffers in the pool. The memory used by the pool is capped at " +
+            "'bufferSize * maxBuffers'. Should be at least the sum of the buffers of the concurrently open streams: " +
+            "'awss3.multipartUpload.maxInFlightParts' per multipart upload stream, and " +
+            "'awss3.seekableChannel.blockSize * maxCachedBlocks / bufferSize' (rounded up) per seekable channel. When " +
+            "all the buffers are taken, multipart upload streams block until some are released, and seekable channels " +
+            "fall back to reusing their own blocks or to heap memory. The default is 16.")
+    public S3BufferPoolFactory setMaxBuffers(Integer maxBuffers) {
+        this.maxBuffers = maxBuffers;
+        return this;
+    }
+
+    @BQConfigProperty("Whether to allocate the buffers off-heap. Off-heap memory is limited by the " +
+            "'-XX:MaxDirectMemorySize' JVM option. The default is true.")
+    public S3BufferPoolFactory setDirect(Boolean direct) {
+        this.direct = direct;
+        return this;
+    }
+
+    public S3BufferPool create() {
+        return new S3BufferPool(
+                bufferSize != null ? Math.toIntExact(bufferSize.getBytes()) : DEFAULT_BUFFER_SIZE,
+                maxBuffers != null ? maxBuffers : DEFAULT_MAX_BUFFERS,
+                direct != null ? direct : true);
+    }
+}
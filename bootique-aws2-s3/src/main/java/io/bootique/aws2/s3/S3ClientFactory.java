@@ -19,15 +19,46 @@
 package io.bootique.aws2.s3;
 
 import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.client.AwsClientKey;
+import io.bootique.aws2.client.AwsClientLease;
+import io.bootique.aws2.client.AwsClientRegistry;
+import io.bootique.aws2.hedging.AwsHedging;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 /**
- * An injectable object that allows to create {@link S3Client} instances with minimal configuration.
+ * An injectable object that allows to create {@link S3Client} and {@link S3AsyncClient} instances with minimal
+ * configuration.
  *
  * @since 3.0
  */
@@ -35,13 +66,73 @@ public class S3ClientFactory {
 
     private final AwsConfig config;
     private final URI endpointOverride;
+    private final SdkHttpClient httpClient;
+    private final RetryStrategy retryStrategy;
+    private final List<ExecutionInterceptor> executionInterceptors;
+    private final AwsClientRegistry clientRegistry;
+    private final AwsHedging hedging;
+    private final S3TransferManagerFactory transferManagerFactory;
+    private final S3MultipartUploadFactory multipartUploadFactory;
+    private final S3SeekableChannelFactory seekableChannelFactory;
+    private final S3BufferPool bufferPool;
 
-    // TODO: close the client on shutdown?
     private volatile S3Client defaultClient;
+    private volatile S3AsyncClient defaultAsyncClient;
+    private volatile S3AsyncClient transferClient;
+    private volatile S3TransferManager transferManager;
 
+    /**
+     * @deprecated in favor of the constructors taking the HTTP client and other settings explicitly.
+     */
+    @Deprecated(since = "4.0", forRemoval = true)
     public S3ClientFactory(AwsConfig config, URI endpointOverride) {
+        this(config, endpointOverride, config.getHttpClient());
+    }
+
+    /**
+     * @since 4.0
+     */
+    public S3ClientFactory(AwsConfig config, URI endpointOverride, SdkHttpClient httpClient) {
+        this(config, endpointOverride, httpClient, null, List.of(), null, AwsHedging.none(), new S3TransferManagerFactory(), new S3MultipartUploadFactory(), new S3SeekableChannelFactory(), new S3BufferPoolFactory().create());
+    }
+
+    /**
+     * @param retryStrategy          an optional retry strategy shared by all the clients created by this factory
+     * @param executionInterceptors  S3-specific interceptors (such as bulkheads) applied to all the clients created by
+     *                               this factory after the interceptors from AwsConfig
+     * @param clientRegistry         an optional registry caching the clients returned by the builders "buildShared()"
+     *                               method. If null, each "buildShared()" call creates a new client
+     * @param hedging                a helper for hedged calls with the clients of this factory
+     * @param transferManagerFactory settings of the transfer manager created by this factory
+     * @param multipartUploadFactory settings of the multipart upload streams created by this factory
+     * @param seekableChannelFactory settings of the random-access channels created by this factory
+     * @param bufferPool             a pool of part buffers shared by the streams created by this factory
+     * @since 4.0
+     */
+    public S3ClientFactory(
+            AwsConfig config,
+            URI endpointOverride,
+            SdkHttpClient httpClient,
+            RetryStrategy retryStrategy,
+            List<ExecutionInterceptor> executionInterceptors,
+            AwsClientRegistry clientRegistry,
+            AwsHedging hedging,
+            S3TransferManagerFactory transferManagerFactory,
+            S3MultipartUploadFactory multipartUploadFactory,
+            S3SeekableChannelFactory seekableChannelFactory,
+            S3BufferPool bufferPool) {
+
         this.config = config;
         this.endpointOverride = endpointOverride;
+        this.httpClient = httpClient;
+        this.retryStrategy = retryStrategy;
+        this.executionInterceptors = Objects.requireNonNull(executionInterceptors);
+        this.clientRegistry = clientRegistry;
+        this.hedging = Objects.requireNonNull(hedging);
+        this.transferManagerFactory = Objects.requireNonNull(transferManagerFactory);
+        this.multipartUploadFactory = Objects.requireNonNull(multipartUploadFactory);
+        this.seekableChannelFactory = Objects.requireNonNull(seekableChannelFactory);
+        this.bufferPool = Objects.requireNonNull(bufferPool);
     }
 
     public S3Client client() {
@@ -58,55 +149,429 @@ public class S3ClientFactory {
         return defaultClient;
     }
 
+    /**
+     * Returns an async S3 client running on the shared non-blocking HTTP client.
+     *
+     * @since 4.0
+     */
+    public S3AsyncClient asyncClient() {
+
+        // can cache the client created with default settings
+        if (defaultAsyncClient == null) {
+            synchronized (this) {
+                if (defaultAsyncClient == null) {
+                    this.defaultAsyncClient = asyncBuilder().build();
+                }
+            }
+        }
+
+        return defaultAsyncClient;
+    }
+
+    /**
+     * Returns a shared transfer manager for parallel multipart uploads, ranged downloads and directory transfers of
+     * large objects. The transfer manager runs on its own async S3 client, configured via "awss3.transferManager".
+     * It is owned by the factory and must not be closed by the caller.
+     *
+     * @since 4.0
+     */
+    public S3TransferManager transferManager() {
+
+        if (transferManager == null) {
+            synchronized (this) {
+                if (transferManager == null) {
+                    this.transferClient = transferManagerFactory.createClient(this);
+                    this.transferManager = transferManagerFactory.create(transferClient);
+                }
+            }
+        }
+
+        return transferManager;
+    }
+
+    /**
+     * Returns a stream that uploads its contents to the S3 object in parts, without buffering the entire object in
+     * memory or in a temp file. The object is created when the stream is closed. Part buffers are taken from the
+     * shared {@link #bufferPool()}. Memory limits are configured via "awss3.multipartUpload" and "awss3.bufferPool".
+     *
+     * @since 4.0
+     */
+    public S3MultipartOutputStream multipartOutputStream(String bucket, String key) {
+        return multipartOutputStream(CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    /**
+     * Returns a stream that uploads its contents to the S3 object in parts. The request allows to specify the object
+     * content type, metadata, encryption, etc.
+     *
+     * @since 4.0
+     */
+    public S3MultipartOutputStream multipartOutputStream(CreateMultipartUploadRequest request) {
+        return multipartUploadFactory.create(client(), request, bufferPool);
+    }
+
+    /**
+     * Returns a read-only channel providing random access to the S3 object. Instead of a GET per read, the object is
+     * read in large blocks that are cached by the channel, with read-ahead for sequential reads. Block size and cache
+     * limits are configured via "awss3.seekableChannel". The channel must be closed to return its buffers to
+     * the {@link #bufferPool()}.
+     *
+     * @since 4.0
+     */
+    public S3SeekableByteChannel seekableChannel(String bucket, String key) {
+        return seekableChannelFactory.create(client(), bucket, key, bufferPool);
+    }
+
+    /**
+     * Returns a shared pool of part buffers configured via "awss3.bufferPool". S3 streams of this factory borrow
+     * their buffers from it. Custom code doing its own part-based S3 I/O can use it as well, provided it closes each
+     * acquired buffer.
+     *
+     * @since 4.0
+     */
+    public S3BufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Runs a blocking S3 call for each of the inputs, each call on its own virtual thread, with at most
+     * "maxConcurrency" calls in progress at any given moment. Blocks until all the calls are finished, and returns
+     * the results in the order of inputs. If any of the calls fails, no more calls are started, the calls in progress
+     * are cancelled (interrupted), and the first failure is rethrown right away. As an interrupt may not unblock a
+     * call stuck in a socket read, the cancelled calls may keep running in the background until their I/O times out.
+     *
+     * @since 4.0
+     */
+    public <T, R> List<R> fanOut(
+            Collection<? extends T> inputs,
+            int maxConcurrency,
+            BiFunction<S3Client, ? super T, ? extends R> call) {
+
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("'maxConcurrency' must be positive: " + maxConcurrency);
+        }
+
+        S3Client client = client();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<? extends R>> futures = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("bq-aws-s3-fanout-", 0).factory());
+
+        try {
+            for (T input : inputs) {
+
+                // acquire in the calling thread to avoid starting more threads than the concurrency limit
+                permits.acquire();
+                if (failure.get() != null) {
+                    break;
+                }
+
+                futures.add(executor.submit(() -> {
+                    try {
+                        return call.apply(client, input);
+                    } catch (RuntimeException | Error e) {
+
+                        // cancel the other calls right away, instead of waiting for the caller to get to this one
+                        if (failure.compareAndSet(null, e)) {
+                            futures.forEach(f -> f.cancel(true));
+                        }
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<? extends R> f : futures) {
+                results.add(f.get());
+            }
+
+            return results;
+
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for S3 calls", e);
+        } catch (ExecutionException | CancellationException e) {
+
+            // the calls submitted after the failure was recorded are not cancelled yet
+            futures.forEach(f -> f.cancel(true));
+
+            Throwable cause = failure.get() != null ? failure.get() : e.getCause();
+            throw cause instanceof RuntimeException re
+                    ? re
+                    : new RuntimeException("S3 call failed", cause);
+        } finally {
+
+            // not waiting for the cancelled calls to exit. All the other calls are done at this point
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a helper to make hedged idempotent calls (such as small GetObject calls) with S3 clients. Calls S3
+     * directly, unless "awss3.hedging" is configured. E.g.:
+     *
+     * <pre>
+     * ResponseBytes&lt;GetObjectResponse&gt; r = factory.hedging().call(request, q -> factory.client().getObject(q, ResponseTransformer.toBytes()));
+     * </pre>
+     *
+     * @since 4.0
+     */
+    public AwsHedging hedging() {
+        return hedging;
+    }
+
+    SdkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Waits for the calls in progress to complete (for up to the configured grace period), and then closes the
+     * default clients. Invoked on runtime shutdown. Shared clients created by the builders are closed by the client
+     * registry.
+     *
+     * @since 4.0
+     */
+    public void shutdown() {
+        config.awaitInFlightCalls();
+
+        if (defaultClient != null) {
+            defaultClient.close();
+        }
+
+        if (defaultAsyncClient != null) {
+            defaultAsyncClient.close();
+        }
+
+        // closing the transfer manager doesn't close the client it was created with
+        if (transferManager != null) {
+            transferManager.close();
+            transferClient.close();
+        }
+
+        bufferPool.shutdown();
+    }
+
+    /**
+     * Returns a builder of a customized client.
+     */
     public Builder builder() {
-        return new Builder(config, endpointOverride);
+        Builder builder = new Builder(config, endpointOverride, httpClient)
+                .retryStrategy(retryStrategy)
+                .executionInterceptors(executionInterceptors);
+
+        builder.clientRegistry = clientRegistry;
+        return builder;
+    }
+
+    /**
+     * Returns a builder of a customized async client.
+     *
+     * @since 4.0
+     */
+    public AsyncBuilder asyncBuilder() {
+        AsyncBuilder builder = new AsyncBuilder(config, endpointOverride)
+                .retryStrategy(retryStrategy)
+                .executionInterceptors(executionInterceptors);
+
+        builder.clientRegistry = clientRegistry;
+        return builder;
     }
 
-    public static class Builder {
+    /**
+     * @since 4.0
+     */
+    public static abstract class BaseBuilder<T extends BaseBuilder<T>> {
 
-        private final AwsConfig config;
-        private Region region;
-        private URI endpointOverride;
+        protected final AwsConfig config;
+        protected Region region;
+        protected URI endpointOverride;
+        protected RetryStrategy retryStrategy;
+        protected List<ExecutionInterceptor> executionInterceptors;
+        protected AwsCredentialsProvider credentialsProvider;
+        protected AwsClientRegistry clientRegistry;
 
-        protected Builder(AwsConfig config, URI endpointOverride) {
+        protected BaseBuilder(AwsConfig config, URI endpointOverride) {
             this.config = config;
             this.endpointOverride = endpointOverride;
+            this.executionInterceptors = List.of();
+            this.credentialsProvider = config.getCredentialsProvider();
         }
 
-        public Builder endpointOverride(String endpointOverride) {
+        public T endpointOverride(String endpointOverride) {
             Objects.requireNonNull(endpointOverride);
             return endpointOverride(URI.create(endpointOverride));
         }
 
-        public Builder endpointOverride(URI endpointOverride) {
+        public T endpointOverride(URI endpointOverride) {
             this.endpointOverride = Objects.requireNonNull(endpointOverride);
-            return this;
+            return self();
+        }
+
+        /**
+         * Sets a retry strategy for the client. Passing the same strategy instance to multiple clients makes them
+         * share the retry quota and the adaptive rate limiter. Null resets the strategy to the SDK default.
+         */
+        public T retryStrategy(RetryStrategy retryStrategy) {
+            this.retryStrategy = retryStrategy;
+            return self();
+        }
+
+        /**
+         * Sets interceptors to add to the client after the interceptors from AwsConfig.
+         */
+        public T executionInterceptors(List<ExecutionInterceptor> executionInterceptors) {
+            this.executionInterceptors = Objects.requireNonNull(executionInterceptors);
+            return self();
+        }
+
+        /**
+         * Sets a credentials provider for the client, e.g. to access a bucket in another account. By default, the
+         * client uses the credentials from AwsConfig.
+         */
+        public T credentialsProvider(AwsCredentialsProvider credentialsProvider) {
+            this.credentialsProvider = Objects.requireNonNull(credentialsProvider);
+            return self();
         }
 
-        public Builder region(String region) {
+        public T region(String region) {
             return region(Region.of(region));
         }
 
-        public Builder region(Region region) {
+        public T region(Region region) {
             this.region = Objects.requireNonNull(region);
-            return this;
+            return self();
         }
 
-        public S3Client build() {
-            S3ClientBuilder awsBuilder = S3Client.builder();
+        @SuppressWarnings("unchecked")
+        protected T self() {
+            return (T) this;
+        }
+
+        protected <C extends SdkAutoCloseable> AwsClientLease<C> buildShared(Class<C> clientType, Object settings, Supplier<C> factory) {
+
+            if (clientRegistry == null) {
+                return AwsClientLease.of(factory.get());
+            }
+
+            AwsClientKey<C> key = new AwsClientKey<>(clientType, resolveRegion(), endpointOverride, credentialsProvider, settings);
+            return clientRegistry.lease(key, factory);
+        }
+
+        protected Region resolveRegion() {
+            return this.region != null ? this.region : config.getDefaultRegion().orElse(null);
+        }
+
+        protected <B extends AwsClientBuilder<B, ?>> B configure(B awsBuilder) {
+
+            awsBuilder.credentialsProvider(credentialsProvider);
+
+            ClientOverrideConfiguration.Builder overrideConfiguration = config.createOverrideConfiguration();
+            if (retryStrategy != null) {
+                overrideConfiguration.retryStrategy(retryStrategy);
+            }
+
+            executionInterceptors.forEach(overrideConfiguration::addExecutionInterceptor);
 
-            awsBuilder.credentialsProvider(config.getCredentialsProvider());
+            awsBuilder.overrideConfiguration(overrideConfiguration.build());
 
             // use service-specific endpoint config if set explicitly, otherwise use region from the common config
             if (endpointOverride != null) {
                 awsBuilder.endpointOverride(endpointOverride);
             }
 
-            Region region = this.region != null ? this.region : config.getDefaultRegion().orElse(null);
+            Region region = resolveRegion();
             if (region != null) {
                 awsBuilder.region(region);
             }
 
+            return awsBuilder;
+        }
+    }
+
+    public static class Builder extends BaseBuilder<Builder> {
+
+        private final SdkHttpClient httpClient;
+
+        protected Builder(AwsConfig config, URI endpointOverride, SdkHttpClient httpClient) {
+            super(config, endpointOverride);
+            this.httpClient = httpClient;
+        }
+
+        /**
+         * Returns a lease of a client for the builder settings, reusing a client cached in the client registry for
+         * the same region, endpoint and credentials if possible. The lease must be closed when the caller is done
+         * with the client, while the client itself must not be closed.
+         *
+         * @since 4.0
+         */
+        public AwsClientLease<S3Client> buildShared() {
+            return buildShared(S3Client.class, Arrays.asList(httpClient, retryStrategy, executionInterceptors), this::build);
+        }
+
+        /**
+         * Creates a new client. The caller is responsible for closing it.
+         */
+        public S3Client build() {
+            S3ClientBuilder awsBuilder = configure(S3Client.builder());
+
+            // share a single connection pool between all the clients
+            awsBuilder.httpClient(httpClient);
+
+            return awsBuilder.build();
+        }
+    }
+
+    /**
+     * @since 4.0
+     */
+    public static class AsyncBuilder extends BaseBuilder<AsyncBuilder> {
+
+        protected MultipartConfiguration multipartConfiguration;
+
+        protected AsyncBuilder(AwsConfig config, URI endpointOverride) {
+            super(config, endpointOverride);
+        }
+
+        /**
+         * Enables automatic multipart uploads and parallel ranged downloads of large objects, splitting them into
+         * parts that are transferred concurrently.
+         *
+         * @since 4.0
+         */
+        public AsyncBuilder multipartConfiguration(MultipartConfiguration multipartConfiguration) {
+            this.multipartConfiguration = Objects.requireNonNull(multipartConfiguration);
+            return this;
+        }
+
+        /**
+         * Returns a lease of a client for the builder settings, reusing a client cached in the client registry for
+         * the same region, endpoint and credentials if possible. The lease must be closed when the caller is done
+         * with the client, while the client itself must not be closed.
+         */
+        public AwsClientLease<S3AsyncClient> buildShared() {
+            return buildShared(S3AsyncClient.class, Arrays.asList(retryStrategy, executionInterceptors, multipartConfiguration), this::build);
+        }
+
+        /**
+         * Creates a new client. The caller is responsible for closing it.
+         */
+        public S3AsyncClient build() {
+            S3AsyncClientBuilder awsBuilder = configure(S3AsyncClient.builder());
+
+            // share a single event loop and connection pool between all the async clients
+            awsBuilder.httpClient(config.getAsyncHttpClient());
+            awsBuilder.asyncConfiguration(config.createAsyncConfiguration());
+
+            if (multipartConfiguration != null) {
+                awsBuilder.multipartEnabled(true);
+                awsBuilder.multipartConfiguration(multipartConfiguration);
+            }
+
             return awsBuilder.build();
         }
     }
@@ -24,10 +24,26 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import io.bootique.annotation.BQConfig;
 import io.bootique.annotation.BQConfigProperty;
 import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.bulkhead.AwsBulkhead;
+import io.bootique.aws2.bulkhead.AwsBulkheadFactory;
+import io.bootique.aws2.bulkhead.AwsBulkheadInterceptor;
+import io.bootique.aws2.client.AwsClientRegistry;
+import io.bootique.aws2.hedging.AwsHedging;
+import io.bootique.aws2.hedging.AwsHedgingFactory;
+import io.bootique.aws2.http.AwsHttpClientFactory;
+import io.bootique.aws2.retry.AwsRetryStrategyFactory;
+import io.bootique.aws2.s3.nio.S3FileSystemProvider;
+import io.bootique.aws2.s3.nio.S3FileSystemProviderFactory;
 import io.bootique.config.PolymorphicConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.retries.api.RetryStrategy;
 
 import jakarta.inject.Inject;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @BQConfig
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = S3ClientFactoryFactory.class)
@@ -35,15 +51,94 @@ import java.net.URI;
 public class S3ClientFactoryFactory implements PolymorphicConfiguration {
 
     private final AwsConfig config;
+    private final AwsClientRegistry clientRegistry;
     private URI endpointOverride;
+    private AwsHttpClientFactory http;
+    private AwsRetryStrategyFactory retry;
+    private AwsBulkheadFactory bulkhead;
+    private Map<String, AwsBulkheadFactory> bucketBulkheads;
+    private AwsHedgingFactory hedging;
+    private S3TransferManagerFactory transferManager;
+    private S3MultipartUploadFactory multipartUpload;
+    private S3SeekableChannelFactory seekableChannel;
+    private S3BufferPoolFactory bufferPool;
+    private S3FileSystemProviderFactory fileSystem;
 
-    @Inject
+    /**
+     * @deprecated in favor of {@link #S3ClientFactoryFactory(AwsConfig, AwsClientRegistry)}. Factories created with
+     * this constructor don't cache the shared clients.
+     */
+    @Deprecated(since = "4.0", forRemoval = true)
     public S3ClientFactoryFactory(AwsConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @since 4.0
+     */
+    @Inject
+    public S3ClientFactoryFactory(AwsConfig config, AwsClientRegistry clientRegistry) {
         this.config = config;
+        this.clientRegistry = clientRegistry;
     }
 
     public S3ClientFactory create() {
-        return new S3ClientFactory(config, endpointOverride);
+        return new S3ClientFactory(
+                config,
+                endpointOverride,
+                createHttpClient(),
+                createRetryStrategy(),
+                createExecutionInterceptors(),
+                clientRegistry,
+                createHedging(),
+                transferManager != null ? transferManager : new S3TransferManagerFactory(),
+                multipartUpload != null ? multipartUpload : new S3MultipartUploadFactory(),
+                seekableChannel != null ? seekableChannel : new S3SeekableChannelFactory(),
+                (bufferPool != null ? bufferPool : new S3BufferPoolFactory()).create());
+    }
+
+    /**
+     * @since 4.0
+     */
+    public S3FileSystemProvider createFileSystemProvider(S3ClientFactory clientFactory) {
+        return (fileSystem != null ? fileSystem : new S3FileSystemProviderFactory()).create(clientFactory);
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected List<ExecutionInterceptor> createExecutionInterceptors() {
+
+        if (bulkhead == null && (bucketBulkheads == null || bucketBulkheads.isEmpty())) {
+            return List.of();
+        }
+
+        AwsBulkhead defaultBulkhead = bulkhead != null ? bulkhead.create("S3", config) : null;
+
+        Map<String, AwsBulkhead> bucketBulkheads = new HashMap<>();
+        if (this.bucketBulkheads != null) {
+            this.bucketBulkheads.forEach((b, f) -> bucketBulkheads.put(b, f.create("S3/" + b, config)));
+        }
+
+        return List.of(AwsBulkheadInterceptor.ofBuckets(defaultBulkhead, bucketBulkheads));
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected RetryStrategy createRetryStrategy() {
+        return retry != null ? retry.create() : null;
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected AwsHedging createHedging() {
+        return hedging != null ? hedging.create(config) : AwsHedging.none();
+    }
+
+    protected SdkHttpClient createHttpClient() {
+        return http != null ? config.createHttpClient(http) : config.getHttpClient();
     }
 
     @BQConfigProperty("Specific service endpoint, overriding the default endpoint derived from the configuration region. Useful local tests.")
@@ -51,4 +146,102 @@ public class S3ClientFactoryFactory implements PolymorphicConfiguration {
         this.endpointOverride = endpointOverride;
         return this;
     }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional S3-specific HTTP client settings. Any settings not specified here are taken from " +
+            "'aws.http'. If set, S3 clients get their own connection pool instead of the shared one.")
+    public S3ClientFactoryFactory setHttp(AwsHttpClientFactory http) {
+        this.http = http;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional S3 retry settings. The retry strategy (including its retry quota and the adaptive " +
+            "rate limiter) is shared by all S3 clients. If not set, SDK defaults are used.")
+    public S3ClientFactoryFactory setRetry(AwsRetryStrategyFactory retry) {
+        this.retry = retry;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional limit of concurrent calls to S3, shared by all S3 clients. Calls to the buckets " +
+            "listed in 'bucketBulkheads' are not counted against this limit.")
+    public S3ClientFactoryFactory setBulkhead(AwsBulkheadFactory bulkhead) {
+        this.bulkhead = bulkhead;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional per-bucket limits of concurrent calls, keyed by bucket name. Each bucket gets its " +
+            "own bulkhead, isolating it from the calls to other buckets.")
+    public S3ClientFactoryFactory setBucketBulkheads(Map<String, AwsBulkheadFactory> bucketBulkheads) {
+        this.bucketBulkheads = bucketBulkheads;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional hedging of idempotent S3 calls made via S3ClientFactory.hedging(). If a call has not " +
+            "responded within a percentile of the recent latency, a second call is started, and the first response wins.")
+    public S3ClientFactoryFactory setHedging(AwsHedgingFactory hedging) {
+        this.hedging = hedging;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional settings of the transfer manager returned by S3ClientFactory.transferManager()")
+    public S3ClientFactoryFactory setTransferManager(S3TransferManagerFactory transferManager) {
+        this.transferManager = transferManager;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional settings of the streaming uploads returned by S3ClientFactory.multipartOutputStream(..)")
+    public S3ClientFactoryFactory setMultipartUpload(S3MultipartUploadFactory multipartUpload) {
+        this.multipartUpload = multipartUpload;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional settings of the random-access channels returned by S3ClientFactory.seekableChannel(..)")
+    public S3ClientFactoryFactory setSeekableChannel(S3SeekableChannelFactory seekableChannel) {
+        this.seekableChannel = seekableChannel;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional settings of the pool of part buffers shared by the S3 streams. By default, the pool " +
+            "holds up to 16 off-heap buffers of 8MB. It should be sized for the max number of streams open at once, " +
+            "e.g. with the defaults, each multipart upload stream takes up to 4 buffers, and each seekable channel " +
+            "up to 2.")
+    public S3ClientFactoryFactory setBufferPool(S3BufferPoolFactory bufferPool) {
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional settings of the java.nio file system provider for 's3://' paths")
+    public S3ClientFactoryFactory setFileSystem(S3FileSystemProviderFactory fileSystem) {
+        this.fileSystem = fileSystem;
+        return this;
+    }
 }
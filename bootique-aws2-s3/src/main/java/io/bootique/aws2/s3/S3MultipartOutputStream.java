@@ -0,0 +1,448 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.core.SdkField;
+import software.amazon.awssdk.core.SdkPojo;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A stream (and a channel) that uploads its contents to S3 as a multipart upload. The data is cut into parts that are
+ * uploaded concurrently on virtual threads while the producer keeps writing. Part buffers are borrowed from the
+ * shared {@link S3BufferPool}, and their size is the part size. Memory use of the stream is bounded by
+ * "bufferSize * maxInFlightParts", as each part buffer takes a permit that is only returned when the part upload
+ * completes. When all the buffers are taken (either by this stream or by the entire pool), writes block until a part
+ * upload completes.
+ * <p>
+ * The object only appears in S3 when the stream is closed successfully. If any of the part uploads fails, the
+ * subsequent writes and {@link #close()} throw an IOException, and the multipart upload is aborted. A producer that
+ * fails on its own should call {@link #abort()} instead of {@link #close()} to discard the upload. If the stream is
+ * closed before the first part is full, the object is uploaded with a single PutObject instead of a multipart upload.
+ * Instances are not thread-safe and are created via {@link S3ClientFactory#multipartOutputStream(String, String)}.
+ *
+ * @since 4.0
+ */
+public class S3MultipartOutputStream extends OutputStream implements WritableByteChannel {
+
+    // S3 limits
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    public static final int MAX_PARTS = 10_000;
+
+    private final S3Client client;
+    private final CreateMultipartUploadRequest createRequest;
+    private final S3BufferPool bufferPool;
+    private final int maxInFlightParts;
+
+    // each permit is a part buffer, either being filled or being uploaded
+    private final Semaphore bufferPermits;
+    private final List<CompletedPart> completedParts;
+
+    private String uploadId;
+    private int partNumber;
+    private S3BufferPool.PooledBuffer pooledBuffer;
+    private ByteBuffer buffer;
+    private boolean closed;
+    private volatile Throwable failure;
+
+    public S3MultipartOutputStream(
+            S3Client client,
+            CreateMultipartUploadRequest createRequest,
+            S3BufferPool bufferPool,
+            int maxInFlightParts) {
+
+        if (bufferPool.getBufferSize() < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("S3 buffer size must be at least " + MIN_PART_SIZE
+                    + " bytes to be used as a part size: " + bufferPool.getBufferSize());
+        }
+
+        if (maxInFlightParts < 1) {
+            throw new IllegalArgumentException("'maxInFlightParts' must be positive: " + maxInFlightParts);
+        }
+
+        this.client = Objects.requireNonNull(client);
+        this.createRequest = Objects.requireNonNull(createRequest);
+        this.bufferPool = bufferPool;
+        this.maxInFlightParts = maxInFlightParts;
+        this.bufferPermits = new Semaphore(maxInFlightParts);
+        this.completedParts = new ArrayList<>();
+    }
+
+    public String getBucket() {
+        return createRequest.bucket();
+    }
+
+    public String getKey() {
+        return createRequest.key();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureWritable();
+        buffer.put((byte) b);
+        uploadPartIfFull();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+
+        while (len > 0) {
+            ensureWritable();
+            int chunk = Math.min(len, buffer.remaining());
+            buffer.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+            uploadPartIfFull();
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = src.remaining();
+
+        while (src.hasRemaining()) {
+            ensureWritable();
+            int chunk = Math.min(src.remaining(), buffer.remaining());
+            buffer.put(buffer.position(), src, src.position(), chunk);
+            buffer.position(buffer.position() + chunk);
+            src.position(src.position() + chunk);
+            uploadPartIfFull();
+        }
+
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Uploads the remaining data, waits for all the parts to be uploaded, and completes the multipart upload. If
+     * anything fails, the multipart upload is aborted and an exception is thrown.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            checkFailure();
+
+            // an object that fits in a single part (including an empty object) is uploaded with a single PutObject,
+            // skipping the multipart upload overhead
+            if (uploadId == null) {
+                if (buffer == null) {
+                    acquireBuffer();
+                }
+
+                putObject();
+                return;
+            }
+
+            if (buffer != null && buffer.position() > 0) {
+                uploadPart();
+            }
+
+            awaitUploads();
+            checkFailure();
+            completeUpload();
+        } catch (IOException | RuntimeException e) {
+            abortUpload(e);
+            throw e instanceof IOException ioe ? ioe : new IOException("S3 multipart upload failed", e);
+        }
+    }
+
+    /**
+     * Discards the data written so far, aborting the multipart upload. Should be called instead of {@link #close()}
+     * if the producer fails.
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        abortUpload(null);
+    }
+
+    private void ensureWritable() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+
+        checkFailure();
+
+        if (buffer == null) {
+            acquireBuffer();
+        }
+    }
+
+    private void acquireBuffer() throws IOException {
+
+        // blocks the producer if all the buffers are taken by the part uploads
+        try {
+            bufferPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for S3 part uploads");
+        }
+
+        try {
+            this.pooledBuffer = bufferPool.acquire();
+        } catch (IOException e) {
+            bufferPermits.release();
+            throw e;
+        }
+
+        this.buffer = pooledBuffer.buffer();
+    }
+
+    private void uploadPartIfFull() throws IOException {
+        if (!buffer.hasRemaining()) {
+            uploadPart();
+        }
+    }
+
+    private void uploadPart() throws IOException {
+
+        if (partNumber == MAX_PARTS) {
+            throw new IOException("Too many parts in S3 multipart upload of '" + getKey() + "'. Increase 'awss3.bufferPool.bufferSize'");
+        }
+
+        if (uploadId == null) {
+            try {
+                uploadId = client.createMultipartUpload(createRequest).uploadId();
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to start S3 multipart upload of '" + getKey() + "'", e);
+            }
+        }
+
+        int number = ++partNumber;
+        S3BufferPool.PooledBuffer pooled = this.pooledBuffer;
+        ByteBuffer data = this.buffer.flip();
+        int length = data.remaining();
+        this.pooledBuffer = null;
+        this.buffer = null;
+
+        UploadPartRequest request = withUploadSettings(UploadPartRequest.builder())
+                .uploadId(uploadId)
+                .partNumber(number)
+                .contentLength((long) length)
+                .build();
+
+        // the body stream is re-created on retries, so the buffer is not copied
+        RequestBody body = RequestBody.fromContentProvider(
+                () -> new ByteBufferInputStream(data.duplicate()),
+                length,
+                "application/octet-stream");
+
+        Thread.ofVirtual().name("bq-aws-s3-part-" + number).start(() -> {
+            try {
+                UploadPartResponse response = client.uploadPart(request, body);
+                onPartUploaded(number, response);
+            } catch (Throwable e) {
+                onPartFailed(e);
+            } finally {
+                pooled.close();
+                bufferPermits.release();
+            }
+        });
+    }
+
+    private void putObject() {
+        ByteBuffer data = buffer.flip();
+
+        PutObjectRequest request = withUploadSettings(PutObjectRequest.builder()).build();
+
+        try {
+            client.putObject(request, RequestBody.fromContentProvider(
+                    () -> new ByteBufferInputStream(data.duplicate()),
+                    data.remaining(),
+                    createRequest.contentType() != null ? createRequest.contentType() : "application/octet-stream"));
+        } finally {
+            awaitUploads();
+        }
+    }
+
+    // copies the settings of the upload to a request of the upload. For PutObject these are all the object settings
+    // (content type, metadata, encryption, etc.), for the other requests - bucket, key, SSE-C key, requester pays,
+    // expected bucket owner, checksum algorithm, etc., whichever are applicable
+    private <B extends AwsRequest.Builder & SdkPojo> B withUploadSettings(B request) {
+        copyFields(createRequest, request);
+        createRequest.overrideConfiguration().ifPresent(request::overrideConfiguration);
+        return request;
+    }
+
+    // copies the fields that have the same name in both requests
+    private static void copyFields(SdkPojo from, SdkPojo to) {
+        for (SdkField<?> toField : to.sdkFields()) {
+            for (SdkField<?> fromField : from.sdkFields()) {
+                if (fromField.memberName().equals(toField.memberName())) {
+                    Object value = fromField.getValueOrDefault(from);
+                    if (value != null) {
+                        toField.set(to, value);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void onPartUploaded(int number, UploadPartResponse response) {
+        CompletedPart part = CompletedPart.builder()
+                .partNumber(number)
+                .eTag(response.eTag())
+                .checksumCRC32(response.checksumCRC32())
+                .checksumCRC32C(response.checksumCRC32C())
+                .checksumCRC64NVME(response.checksumCRC64NVME())
+                .checksumSHA1(response.checksumSHA1())
+                .checksumSHA256(response.checksumSHA256())
+                .build();
+
+        synchronized (completedParts) {
+            completedParts.add(part);
+        }
+    }
+
+    private void onPartFailed(Throwable e) {
+        synchronized (completedParts) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable e = this.failure;
+        if (e != null) {
+            throw new IOException("S3 part upload failed for '" + getKey() + "'", e);
+        }
+    }
+
+    private void awaitUploads() {
+
+        // a part buffer that was never uploaded is still holding a permit
+        if (pooledBuffer != null) {
+            pooledBuffer.close();
+            pooledBuffer = null;
+            buffer = null;
+            bufferPermits.release();
+        }
+
+        bufferPermits.acquireUninterruptibly(maxInFlightParts);
+        bufferPermits.release(maxInFlightParts);
+    }
+
+    private void completeUpload() {
+        List<CompletedPart> parts;
+        synchronized (completedParts) {
+            parts = new ArrayList<>(completedParts);
+        }
+
+        parts.sort(Comparator.comparing(CompletedPart::partNumber));
+        client.completeMultipartUpload(withUploadSettings(CompleteMultipartUploadRequest.builder())
+                .uploadId(uploadId)
+                .multipartUpload(u -> u.parts(parts))
+                .build());
+    }
+
+    private void abortUpload(Exception cause) {
+
+        // abort after the part uploads in progress are finished, as otherwise the parts may outlive the upload
+        awaitUploads();
+
+        if (uploadId != null) {
+            try {
+                client.abortMultipartUpload(withUploadSettings(AbortMultipartUploadRequest.builder())
+                        .uploadId(uploadId)
+                        .build());
+            } catch (RuntimeException e) {
+                if (cause != null) {
+                    cause.addSuppressed(e);
+                }
+            }
+        }
+    }
+
+    // reads a part buffer without copying it to the heap. Each upload attempt reads its own duplicate of the buffer
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int chunk = Math.min(len, buffer.remaining());
+            buffer.get(b, off, chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
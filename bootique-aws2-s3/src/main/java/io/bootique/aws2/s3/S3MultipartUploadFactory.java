@@ -0,0 +1,58 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+
+/**
+ * Configures streaming multipart uploads created via {@link S3ClientFactory#multipartOutputStream(String, String)}.
+ *
+ * @since 4.0
+ */
+@BQConfig("Streaming multipart uploads to S3 with bounded memory")
+public class S3MultipartUploadFactory {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT_PARTS = 4;
+
+    private Integer maxInFlightParts;
+
+    @BQConfigProperty("Max number of part buffers per stream, either being filled or being uploaded. Writes block " +
+            "when all the buffers are taken. Memory use of each stream is capped at 'awss3.bufferPool.bufferSize * maxInFlightParts'. " +
+            "The default is 4.")
+    public S3MultipartUploadFactory setMaxInFlightParts(Integer maxInFlightParts) {
+        this.maxInFlightParts = maxInFlightParts;
+        return this;
+    }
+
+    /**
+     * Creates a stream that takes its part buffers from the provided pool. The pool buffer size is the part size, so
+     * it must be at least 5MB, and objects larger than "10000 * bufferSize" can't be uploaded.
+     */
+    public S3MultipartOutputStream create(S3Client client, CreateMultipartUploadRequest request, S3BufferPool bufferPool) {
+        return new S3MultipartOutputStream(
+                client,
+                request,
+                bufferPool,
+                maxInFlightParts != null ? maxInFlightParts : DEFAULT_MAX_IN_FLIGHT_PARTS);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A read-only channel providing random access to an S3 object. The object is read in blocks of a fixed size with
+ * ranged GET requests, and the blocks are kept in an LRU cache, so that small reads close to each other (e.g. of a
+ * Parquet footer or a zip central directory) are served from memory. Adjacent missing blocks are fetched with a
+ * single request. When the reads are sequential, each request also fetches a growing number of the following blocks
+ * ("read-ahead"), up to "maxReadAheadBlocks". A seek elsewhere resets the read-ahead.
+ * <p>
+ * Cached blocks are slices of the buffers borrowed from the shared {@link S3BufferPool}, so the channel holds at most
+ * "maxCachedBlocks * blockSize" bytes (rounded up to the pool buffer size). The channel never waits for the pool: if
+ * all the pool buffers are taken, it reuses its own least recently used blocks, skips the read-ahead, or, if it has no
+ * blocks yet, reads into a heap buffer. The buffers are returned to the pool when the channel is closed, so the
+ * channel must always be closed. All the requests after the first one are conditional
+ * on the object ETag, so if the object is overwritten while being read, the reads fail instead of returning a mix of
+ * two versions. Instances are thread-safe and are created via {@link S3ClientFactory#seekableChannel(String, String)}.
+ *
+ * @since 4.0
+ */
+public class S3SeekableByteChannel implements SeekableByteChannel {
+
+    private final S3Client client;
+    private final String bucket;
+    private final String key;
+    private final S3BufferPool bufferPool;
+    private final int blockSize;
+    private final int maxCachedBlocks;
+    private final int maxReadAheadBlocks;
+
+    // LRU cache of blocks by block index
+    private final LinkedHashMap<Long, Block> cache;
+    private final Deque<ByteBuffer> freeSlots;
+    private final List<S3BufferPool.PooledBuffer> pooledBuffers;
+    private ByteBuffer slotSource;
+    private int slots;
+
+    private long size = -1;
+    private String eTag;
+    private long position;
+    private long nextSequentialBlock;
+    private int readAheadBlocks;
+    private boolean closed;
+
+    public S3SeekableByteChannel(
+            S3Client client,
+            String bucket,
+            String key,
+            S3BufferPool bufferPool,
+            int blockSize,
+            int maxCachedBlocks,
+            int maxReadAheadBlocks) {
+
+        if (blockSize < 1 || blockSize > bufferPool.getBufferSize()) {
+            throw new IllegalArgumentException("'blockSize' must be positive and must not exceed the S3 buffer size of "
+                    + bufferPool.getBufferSize() + " bytes: " + blockSize);
+        }
+
+        if (maxReadAheadBlocks < 0) {
+            throw new IllegalArgumentException("'maxReadAheadBlocks' must not be negative: " + maxReadAheadBlocks);
+        }
+
+        if (maxCachedBlocks <= maxReadAheadBlocks) {
+            throw new IllegalArgumentException("'maxCachedBlocks' must be greater than 'maxReadAheadBlocks': "
+                    + maxCachedBlocks + " vs. " + maxReadAheadBlocks);
+        }
+
+        this.client = Objects.requireNonNull(client);
+        this.bucket = Objects.requireNonNull(bucket);
+        this.key = Objects.requireNonNull(key);
+        this.bufferPool = bufferPool;
+        this.blockSize = blockSize;
+        this.maxCachedBlocks = maxCachedBlocks;
+        this.maxReadAheadBlocks = maxReadAheadBlocks;
+
+        this.cache = new LinkedHashMap<>(maxCachedBlocks * 2, 0.75f, true);
+        this.freeSlots = new ArrayDeque<>();
+        this.pooledBuffers = new ArrayList<>();
+        this.nextSequentialBlock = -1;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+
+        long size = size();
+        if (position >= size) {
+            return -1;
+        }
+
+        int read = 0;
+        while (dst.hasRemaining() && position < size) {
+
+            long index = position / blockSize;
+            Block block = cache.get(index);
+            if (block == null) {
+                block = fetch(index, size);
+            }
+
+            int offset = (int) (position - index * blockSize);
+            int len = Math.min(dst.remaining(), block.length - offset);
+            dst.put(dst.position(), block.data, offset, len);
+            dst.position(dst.position() + len);
+
+            position += len;
+            read += len;
+        }
+
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized S3SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * Returns the object size. The first call reads the object metadata from S3.
+     */
+    @Override
+    public synchronized long size() throws IOException {
+        ensureOpen();
+
+        if (size < 0) {
+            HeadObjectResponse response;
+            try {
+                response = client.headObject(b -> b.bucket(bucket).key(key));
+            } catch (SdkException e) {
+                throw toIOException(e);
+            }
+
+            this.size = response.contentLength();
+            this.eTag = response.eTag();
+        }
+
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Drops the cached blocks, returning their buffers to the pool.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        cache.clear();
+        freeSlots.clear();
+        slotSource = null;
+        pooledBuffers.forEach(S3BufferPool.PooledBuffer::close);
+        pooledBuffers.clear();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Fetches the block with a single ranged GET, together with the following missing blocks if the reads are
+     * sequential.
+     */
+    private Block fetch(long index, long size) throws IOException {
+
+        // grow the read-ahead exponentially while the reads are sequential, and reset it on a seek
+        readAheadBlocks = index == nextSequentialBlock
+                ? Math.min(Math.max(1, readAheadBlocks * 2), maxReadAheadBlocks)
+                : 0;
+
+        long lastBlock = (size - 1) / blockSize;
+        int count = 1;
+        while (count <= readAheadBlocks && index + count <= lastBlock && !cache.containsKey(index + count)) {
+            count++;
+        }
+
+        long start = index * blockSize;
+        List<Block> blocks = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                ByteBuffer slot = allocateSlot(i > 0);
+
+                // no memory for the read-ahead
+                if (slot == null) {
+                    break;
+                }
+
+                long blockStart = start + (long) i * blockSize;
+                blocks.add(new Block(slot, (int) (Math.min(blockStart + blockSize, size) - blockStart)));
+            }
+
+            readRange(start, Math.min(start + (long) blocks.size() * blockSize, size), blocks);
+        } catch (IOException | RuntimeException e) {
+            blocks.forEach(b -> freeSlots.push(b.data));
+            throw e;
+        }
+
+        for (int i = 0; i < blocks.size(); i++) {
+            cache.put(index + i, blocks.get(i));
+        }
+
+        this.nextSequentialBlock = index + blocks.size();
+        return blocks.get(0);
+    }
+
+    private void readRange(long start, long end, List<Block> blocks) throws IOException {
+
+        try (ResponseInputStream<GetObjectResponse> in = client.getObject(b -> b
+                .bucket(bucket)
+                .key(key)
+                .ifMatch(eTag)
+                .range("bytes=" + start + "-" + (end - 1)))) {
+
+            ReadableByteChannel channel = Channels.newChannel(in);
+            for (Block block : blocks) {
+                ByteBuffer data = block.data.duplicate().limit(block.length);
+                while (data.hasRemaining()) {
+                    if (channel.read(data) < 0) {
+                        throw new EOFException("Unexpected end of S3 object '" + bucket + "/" + key + "'");
+                    }
+                }
+            }
+        } catch (SdkException e) {
+            throw toIOException(e);
+        }
+    }
+
+    /**
+     * Returns a slot for a new block, or null if this is a read-ahead block and there's no memory for it.
+     */
+    private ByteBuffer allocateSlot(boolean readAhead) {
+
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+
+        if (slots < maxCachedBlocks) {
+            ByteBuffer slot = newPooledSlot();
+            if (slot != null) {
+                return slot;
+            }
+        }
+
+        // evict the least recently used block
+        if (!cache.isEmpty()) {
+            Iterator<Block> it = cache.values().iterator();
+            ByteBuffer slot = it.next().data;
+            it.remove();
+            return slot;
+        }
+
+        if (readAhead) {
+            return null;
+        }
+
+        // all the pool buffers are taken by other streams, and the channel has nothing to reuse. Not waiting for
+        // the pool, as the streams holding the buffers may be waiting on this thread
+        slots++;
+        return ByteBuffer.allocate(blockSize);
+    }
+
+    private ByteBuffer newPooledSlot() {
+
+        // carve the slots out of the pool buffers, so that a small block size doesn't waste the pooled memory
+        if (slotSource == null || slotSource.remaining() < blockSize) {
+            S3BufferPool.PooledBuffer pooled = bufferPool.tryAcquire();
+            if (pooled == null) {
+                return null;
+            }
+
+            pooledBuffers.add(pooled);
+            slotSource = pooled.buffer();
+        }
+
+        ByteBuffer slot = slotSource.slice(slotSource.position(), blockSize);
+        slotSource.position(slotSource.position() + blockSize);
+        slots++;
+        return slot;
+    }
+
+    private IOException toIOException(SdkException e) {
+
+        if (e instanceof S3Exception s3e) {
+            switch (s3e.statusCode()) {
+                case 404:
+                    NoSuchFileException nsfe = new NoSuchFileException("s3://" + bucket + "/" + key);
+                    nsfe.initCause(e);
+                    return nsfe;
+                case 412:
+                    return new IOException("S3 object '" + bucket + "/" + key + "' was changed while being read", e);
+            }
+        }
+
+        return new IOException("Failed to read S3 object '" + bucket + "/" + key + "'", e);
+    }
+
+    private record Block(ByteBuffer data, int length) {
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Bytes;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Configures random-access channels created via {@link S3ClientFactory#seekableChannel(String, String)}.
+ *
+ * @since 4.0
+ */
+@BQConfig("Random-access reads of S3 objects with block caching and read-ahead")
+public class S3SeekableChannelFactory {
+
+    private static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    private static final int DEFAULT_MAX_CACHED_BLOCKS = 16;
+    private static final int DEFAULT_MAX_READ_AHEAD_BLOCKS = 8;
+
+    private Bytes blockSize;
+    private Integer maxCachedBlocks;
+    private Integer maxReadAheadBlocks;
+
+    @BQConfigProperty("Size of the blocks read from S3 with a single ranged GET. Must not exceed " +
+            "'awss3.bufferPool.bufferSize'. The default is 1MB.")
+    public S3SeekableChannelFactory setBlockSize(Bytes blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of blocks cached by each channel. Memory use of each channel is capped at " +
+            "'blockSize * maxCachedBlocks'. The default is 16.")
+    public S3SeekableChannelFactory setMaxCachedBlocks(Integer maxCachedBlocks) {
+        this.maxCachedBlocks = maxCachedBlocks;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of blocks following the requested one that are fetched with the same request " +
+            "when the reads are sequential. Zero disables read-ahead. The default is 8.")
+    public S3SeekableChannelFactory setMaxReadAheadBlocks(Integer maxReadAheadBlocks) {
+        this.maxReadAheadBlocks = maxReadAheadBlocks;
+        return this;
+    }
+
+    public S3SeekableByteChannel create(S3Client client, String bucket, String key, S3BufferPool bufferPool) {
+        return new S3SeekableByteChannel(
+                client,
+                bucket,
+                key,
+                bufferPool,
+                blockSize != null ? Math.toIntExact(blockSize.getBytes()) : DEFAULT_BLOCK_SIZE,
+                maxCachedBlocks != null ? maxCachedBlocks : DEFAULT_MAX_CACHED_BLOCKS,
+                maxReadAheadBlocks != null ? maxReadAheadBlocks : DEFAULT_MAX_READ_AHEAD_BLOCKS);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Bytes;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3CrtAsyncClientBuilder;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.s3.multipart.ParallelConfiguration;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+
+/**
+ * Configures the S3 Transfer Manager used for parallel multipart uploads, ranged downloads and directory transfers.
+ *
+ * @since 4.0
+ */
+@BQConfig("S3 Transfer Manager for parallel transfers of large objects and directories")
+public class S3TransferManagerFactory {
+
+    private String client;
+    private Bytes partSize;
+    private Bytes multipartThreshold;
+    private Double targetThroughput;
+    private Integer maxConcurrency;
+
+    @BQConfigProperty("S3 client implementation used for transfers. Either 'java' (default), that reuses the shared " +
+            "non-blocking HTTP client, or 'crt', that uses the native AWS CRT client and requires the " +
+            "'software.amazon.awssdk:aws-crt-client' dependency. The 'crt' client usually gives higher throughput, " +
+            "but bypasses Bootique interceptors, retry and metrics settings.")
+    public S3TransferManagerFactory setClient(String client) {
+        this.client = client;
+        return this;
+    }
+
+    @BQConfigProperty("Size of each part of multipart uploads and ranged downloads. The default is 8MB.")
+    public S3TransferManagerFactory setPartSize(Bytes partSize) {
+        this.partSize = partSize;
+        return this;
+    }
+
+    @BQConfigProperty("Object size starting from which uploads are split into parts. The default is 8MB.")
+    public S3TransferManagerFactory setMultipartThreshold(Bytes multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
+        return this;
+    }
+
+    @BQConfigProperty("Target throughput in gigabits per second used by the 'crt' client to decide how many " +
+            "connections to open. The default is 10. Ignored by the 'java' client.")
+    public S3TransferManagerFactory setTargetThroughput(Double targetThroughput) {
+        this.targetThroughput = targetThroughput;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of parts transferred concurrently. For the 'java' client this is a per-download " +
+            "limit, while the total number of connections is capped by 'aws.asyncHttp'. For the 'crt' client this " +
+            "is the max number of connections.")
+    public S3TransferManagerFactory setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Creates a transfer manager on top of the provided client. Closing the transfer manager does not close the
+     * client.
+     */
+    public S3TransferManager create(S3AsyncClient client) {
+        return S3TransferManager.builder().s3Client(client).build();
+    }
+
+    /**
+     * Creates a new S3 client tuned for parallel transfers. The caller is responsible for closing it.
+     */
+    public S3AsyncClient createClient(S3ClientFactory clientFactory) {
+        return "crt".equals(this.client) ? createCrtClient(clientFactory) : createJavaClient(clientFactory);
+    }
+
+    protected S3AsyncClient createJavaClient(S3ClientFactory clientFactory) {
+
+        MultipartConfiguration.Builder multipart = MultipartConfiguration.builder();
+
+        if (partSize != null) {
+            multipart.minimumPartSizeInBytes(partSize.getBytes());
+        }
+
+        if (multipartThreshold != null) {
+            multipart.thresholdInBytes(multipartThreshold.getBytes());
+        }
+
+        if (maxConcurrency != null) {
+            multipart.parallelConfiguration(ParallelConfiguration.builder().maxInFlightParts(maxConcurrency).build());
+        }
+
+        return clientFactory.asyncBuilder().multipartConfiguration(multipart.build()).build();
+    }
+
+    protected S3AsyncClient createCrtClient(S3ClientFactory clientFactory) {
+
+        // reuse the builder to resolve the default settings
+        S3ClientFactory.AsyncBuilder settings = clientFactory.asyncBuilder();
+
+        S3CrtAsyncClientBuilder builder = S3AsyncClient.crtBuilder()
+                .credentialsProvider(settings.credentialsProvider)
+                .region(settings.resolveRegion())
+                .endpointOverride(settings.endpointOverride)
+                .minimumPartSizeInBytes(partSize != null ? partSize.getBytes() : null)
+                .thresholdInBytes(multipartThreshold != null ? multipartThreshold.getBytes() : null)
+                .targetThroughputInGbps(targetThroughput)
+                .maxConcurrency(maxConcurrency);
+
+        return builder.build();
+    }
+}
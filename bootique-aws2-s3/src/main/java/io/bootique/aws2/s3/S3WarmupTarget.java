@@ -0,0 +1,56 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.aws2.warmup.AwsWarmupEndpoint;
+import io.bootique.aws2.warmup.AwsWarmupTarget;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.List;
+
+/**
+ * Warms up the default S3 client of the {@link S3ClientFactory}.
+ *
+ * @since 4.0
+ */
+public class S3WarmupTarget implements AwsWarmupTarget {
+
+    private final S3ClientFactory clientFactory;
+
+    @Inject
+    public S3WarmupTarget(S3ClientFactory clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    @Override
+    public String getName() {
+        return "s3";
+    }
+
+    @Override
+    public List<AwsWarmupEndpoint> createClients() {
+        S3Client client = clientFactory.client();
+        return List.of(AwsWarmupEndpoint.of(
+                client.serviceClientConfiguration(),
+                S3Client.serviceMetadata(),
+                clientFactory.getHttpClient()));
+    }
+}
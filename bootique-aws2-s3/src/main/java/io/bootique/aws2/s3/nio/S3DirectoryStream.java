@@ -0,0 +1,144 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A directory stream that lists the directory lazily, one page of S3 keys at a time, so that huge directories can be
+ * iterated in constant memory. Attributes of the listed entries are cached, so that the subsequent attribute reads
+ * (e.g. by {@link java.nio.file.Files#walk(Path, java.nio.file.FileVisitOption...)}) don't require extra requests.
+ */
+class S3DirectoryStream implements DirectoryStream<Path> {
+
+    private final S3Client client;
+    private final S3Path dir;
+    private final Filter<? super Path> filter;
+    private boolean iterated;
+    private volatile boolean closed;
+
+    S3DirectoryStream(S3Client client, S3Path dir, Filter<? super Path> filter) {
+        this.client = client;
+        this.dir = dir;
+        this.filter = filter;
+    }
+
+    @Override
+    public synchronized Iterator<Path> iterator() {
+        if (closed) {
+            throw new IllegalStateException("Directory stream is closed");
+        }
+
+        if (iterated) {
+            throw new IllegalStateException("Directory stream can only be iterated once");
+        }
+
+        iterated = true;
+        return new PageIterator();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private class PageIterator implements Iterator<Path> {
+
+        private final String prefix;
+        private final Iterator<ListObjectsV2Response> pages;
+        private final Deque<Path> entries;
+
+        PageIterator() {
+            this.prefix = dir.getDirectoryPrefix();
+            this.pages = client
+                    .listObjectsV2Paginator(b -> b.bucket(dir.getBucket()).prefix(prefix).delimiter("/"))
+                    .iterator();
+            this.entries = new ArrayDeque<>();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (entries.isEmpty() && !closed && pages.hasNext()) {
+                    readPage(pages.next());
+                }
+            } catch (SdkException e) {
+                throw new DirectoryIteratorException(new IOException("Failed to list S3 directory: " + dir.toUri(), e));
+            }
+
+            return !closed && !entries.isEmpty();
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return entries.poll();
+        }
+
+        private void readPage(ListObjectsV2Response page) {
+            S3FileAttributesCache cache = dir.getFileSystem().getAttributesCache();
+
+            for (CommonPrefix p : page.commonPrefixes()) {
+                String name = p.prefix().substring(prefix.length(), p.prefix().length() - 1);
+                if (!name.isEmpty()) {
+                    S3Path entry = dir.resolve(name);
+                    cache.put(entry.getKey(), S3FileAttributes.directory());
+                    accept(entry);
+                }
+            }
+
+            for (S3Object o : page.contents()) {
+
+                // skip the directory marker object of the listed directory itself
+                if (o.key().length() > prefix.length()) {
+                    S3Path entry = dir.resolve(o.key().substring(prefix.length()));
+                    cache.put(entry.getKey(), S3FileAttributes.file(o.size(), o.lastModified(), o.eTag()));
+                    accept(entry);
+                }
+            }
+        }
+
+        private void accept(S3Path entry) {
+            try {
+                if (filter == null || filter.accept(entry)) {
+                    entries.add(entry);
+                }
+            } catch (IOException e) {
+                throw new DirectoryIteratorException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Attributes of an S3 object or a "directory". Directories have no size or timestamps of their own.
+ *
+ * @since 4.0
+ */
+public class S3FileAttributes implements BasicFileAttributes {
+
+    private static final FileTime EPOCH = FileTime.fromMillis(0);
+    private static final S3FileAttributes DIRECTORY = new S3FileAttributes(true, 0, EPOCH, null);
+
+    private final boolean directory;
+    private final long size;
+    private final FileTime lastModified;
+    private final String eTag;
+
+    public static S3FileAttributes directory() {
+        return DIRECTORY;
+    }
+
+    public static S3FileAttributes file(long size, Instant lastModified, String eTag) {
+        return new S3FileAttributes(false, size, lastModified != null ? FileTime.from(lastModified) : EPOCH, eTag);
+    }
+
+    private S3FileAttributes(boolean directory, long size, FileTime lastModified, String eTag) {
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = Objects.requireNonNull(lastModified);
+        this.eTag = eTag;
+    }
+
+    /**
+     * Returns the object ETag, or null for a directory.
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    @Override
+    public FileTime lastModifiedTime() {
+        return lastModified;
+    }
+
+    // S3 only tracks the last modification time
+
+    @Override
+    public FileTime lastAccessTime() {
+        return lastModified;
+    }
+
+    @Override
+    public FileTime creationTime() {
+        return lastModified;
+    }
+
+    @Override
+    public boolean isRegularFile() {
+        return !directory;
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean isSymbolicLink() {
+        return false;
+    }
+
+    @Override
+    public boolean isOther() {
+        return false;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public Object fileKey() {
+        return eTag;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-limited cache of file attributes with a time-to-live, populated by directory listings and metadata requests,
+ * so that walking a file tree doesn't require a HEAD request per file. Entries are invalidated when the provider
+ * modifies the corresponding objects.
+ */
+class S3FileAttributesCache {
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    S3FileAttributesCache(long ttlNanos, int maxSize) {
+        this.ttlNanos = ttlNanos;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized S3FileAttributes get(String key) {
+        Entry e = entries.get(key);
+        if (e == null) {
+            return null;
+        }
+
+        if (e.expiresAt - System.nanoTime() < 0) {
+            entries.remove(key);
+            return null;
+        }
+
+        return e.attributes;
+    }
+
+    synchronized void put(String key, S3FileAttributes attributes) {
+        if (ttlNanos > 0) {
+            entries.put(key, new Entry(attributes, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Removes the key and all its parent "directories", as their existence may depend on the key.
+     */
+    synchronized void invalidate(String key) {
+        entries.remove(key);
+
+        for (int i = key.lastIndexOf('/'); i > 0; i = key.lastIndexOf('/', i - 1)) {
+            entries.remove(key.substring(0, i));
+        }
+    }
+
+    private record Entry(S3FileAttributes attributes, long expiresAt) {
+    }
+}
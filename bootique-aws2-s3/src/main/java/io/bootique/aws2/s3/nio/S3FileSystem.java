@@ -0,0 +1,219 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A file system over a single S3 bucket. Object keys are treated as paths, with "/" as the separator, so that common
+ * key prefixes act as directories. Created and cached by {@link S3FileSystemProvider}.
+ *
+ * @since 4.0
+ */
+public class S3FileSystem extends FileSystem {
+
+    private final S3FileSystemProvider provider;
+    private final String bucket;
+    private final S3Path root;
+    private final S3FileAttributesCache attributesCache;
+    private volatile boolean open;
+
+    S3FileSystem(S3FileSystemProvider provider, String bucket, S3FileAttributesCache attributesCache) {
+        this.provider = provider;
+        this.bucket = bucket;
+        this.root = new S3Path(this, "/");
+        this.attributesCache = attributesCache;
+        this.open = true;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    S3Path getRoot() {
+        return root;
+    }
+
+    S3FileAttributesCache getAttributesCache() {
+        return attributesCache;
+    }
+
+    @Override
+    public S3FileSystemProvider provider() {
+        return provider;
+    }
+
+    @Override
+    public void close() {
+        if (open) {
+            open = false;
+            provider.onClose(this);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public String getSeparator() {
+        return "/";
+    }
+
+    @Override
+    public Iterable<Path> getRootDirectories() {
+        return List.of(root);
+    }
+
+    @Override
+    public Iterable<FileStore> getFileStores() {
+        return List.of();
+    }
+
+    @Override
+    public Set<String> supportedFileAttributeViews() {
+        return Set.of("basic");
+    }
+
+    @Override
+    public S3Path getPath(String first, String... more) {
+        if (more.length == 0) {
+            return new S3Path(this, first);
+        }
+
+        StringBuilder path = new StringBuilder(first);
+        for (String m : more) {
+            if (!m.isEmpty()) {
+                if (!path.isEmpty()) {
+                    path.append('/');
+                }
+                path.append(m);
+            }
+        }
+
+        return new S3Path(this, path.toString());
+    }
+
+    @Override
+    public PathMatcher getPathMatcher(String syntaxAndPattern) {
+        int colon = syntaxAndPattern.indexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Expected 'syntax:pattern', got: " + syntaxAndPattern);
+        }
+
+        String syntax = syntaxAndPattern.substring(0, colon);
+        String pattern = syntaxAndPattern.substring(colon + 1);
+
+        Pattern regex = switch (syntax) {
+            case "glob" -> Pattern.compile(globToRegex(pattern));
+            case "regex" -> Pattern.compile(pattern);
+            default -> throw new UnsupportedOperationException("Unsupported path matcher syntax: " + syntax);
+        };
+
+        return path -> regex.matcher(path.toString()).matches();
+    }
+
+    @Override
+    public UserPrincipalLookupService getUserPrincipalLookupService() {
+        throw new UnsupportedOperationException("S3 file system has no user principals");
+    }
+
+    @Override
+    public WatchService newWatchService() {
+        throw new UnsupportedOperationException("S3 file system can't be watched");
+    }
+
+    void ensureOpen() {
+        if (!open) {
+            throw new ClosedFileSystemException();
+        }
+    }
+
+    // supports "*", "**", "?", "[...]" and "{a,b}" glob constructs
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        regex.append(".*");
+                        i++;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '{':
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    regex.append(inGroup ? ")" : "\\}");
+                    inGroup = false;
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '[':
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String chars = glob.substring(i + 1, end).replace("\\", "\\\\").replace("[", "\\[");
+                        regex.append('[').append(chars.startsWith("!") ? "^" + chars.substring(1) : chars).append(']');
+                        i = end;
+                    }
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                    break;
+                default:
+                    if (!Character.isLetterOrDigit(c)) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+
+        return regex.toString();
+    }
+}
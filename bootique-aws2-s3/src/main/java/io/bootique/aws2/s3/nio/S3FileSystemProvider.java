@@ -0,0 +1,558 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import io.bootique.aws2.s3.S3ClientFactory;
+import io.bootique.aws2.s3.S3MultipartOutputStream;
+import io.bootique.aws2.s3.S3SeekableByteChannel;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AccessMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.spi.FileSystemProvider;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A java.nio file system provider for "s3://bucket/key" URIs, that allows to work with S3 via the standard
+ * {@link java.nio.file.Files} API. It is an injectable singleton that takes its S3 clients, buffers and transfer manager
+ * from {@link S3ClientFactory}, and is not installed as a JVM-wide provider. So S3 paths must be obtained from it
+ * (e.g. via {@link #getPath(URI)}) instead of {@link Path#of(URI)}. The paths can then be used with the usual
+ * {@link java.nio.file.Files} methods:
+ * <ul>
+ * <li>reads are done via {@link S3SeekableByteChannel} with block caching and read-ahead</li>
+ * <li>writes are streamed as multipart uploads with bounded memory</li>
+ * <li>copies within S3 are done on the server side by the transfer manager, in parallel parts for large objects</li>
+ * <li>directories are listed page by page, and the listed attributes are cached</li>
+ * </ul>
+ * Directories are key prefixes. Creating a directory creates an empty "dir/" marker object. Move is not atomic, as it
+ * is a copy followed by a delete.
+ *
+ * @since 4.0
+ */
+public class S3FileSystemProvider extends FileSystemProvider {
+
+    public static final String SCHEME = "s3";
+
+    private static final Set<OpenOption> DEFAULT_WRITE_OPTIONS = Set.of(
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+
+    private static final List<String> BASIC_ATTRIBUTES = List.of(
+            "lastModifiedTime",
+            "lastAccessTime",
+            "creationTime",
+            "size",
+            "isRegularFile",
+            "isDirectory",
+            "isSymbolicLink",
+            "isOther",
+            "fileKey");
+
+    private final S3ClientFactory clientFactory;
+    private final Duration attributesCacheTtl;
+    private final int attributesCacheSize;
+    private final ConcurrentMap<String, S3FileSystem> fileSystems;
+
+    public S3FileSystemProvider(S3ClientFactory clientFactory, Duration attributesCacheTtl, int attributesCacheSize) {
+        this.clientFactory = Objects.requireNonNull(clientFactory);
+        this.attributesCacheTtl = Objects.requireNonNull(attributesCacheTtl);
+        this.attributesCacheSize = attributesCacheSize;
+        this.fileSystems = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getScheme() {
+        return SCHEME;
+    }
+
+    /**
+     * Returns a file system for the bucket, creating it if needed.
+     */
+    public S3FileSystem getFileSystem(String bucket) {
+        return fileSystems.computeIfAbsent(bucket, this::createFileSystem);
+    }
+
+    @Override
+    public S3FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+        String bucket = bucket(uri);
+        S3FileSystem fs = createFileSystem(bucket);
+        if (fileSystems.putIfAbsent(bucket, fs) != null) {
+            throw new FileSystemAlreadyExistsException("S3 file system already exists: " + bucket);
+        }
+
+        return fs;
+    }
+
+    /**
+     * Returns a file system for the bucket of the URI, creating it if needed.
+     */
+    @Override
+    public S3FileSystem getFileSystem(URI uri) {
+        return getFileSystem(bucket(uri));
+    }
+
+    @Override
+    public S3Path getPath(URI uri) {
+        String path = uri.getPath();
+        return getFileSystem(uri).getPath(path == null || path.isEmpty() ? "/" : path);
+    }
+
+    @Override
+    public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+
+        if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)) {
+            return new S3WriteChannel(newUploadStream(toS3Path(path), options));
+        }
+
+        S3Path s3Path = toS3Path(path);
+        S3SeekableByteChannel channel = clientFactory.seekableChannel(s3Path.getBucket(), s3Path.getKey());
+
+        // check that the object exists on open, as NIO code expects
+        try {
+            channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return channel;
+    }
+
+    @Override
+    public OutputStream newOutputStream(Path path, OpenOption... options) throws IOException {
+        return newUploadStream(
+                toS3Path(path),
+                options.length > 0 ? new HashSet<>(Arrays.asList(options)) : DEFAULT_WRITE_OPTIONS);
+    }
+
+    @Override
+    public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+        S3Path s3Dir = toS3Path(dir);
+        if (!readS3Attributes(s3Dir).isDirectory()) {
+            throw new NotDirectoryException(dir.toString());
+        }
+
+        return new S3DirectoryStream(clientFactory.client(), s3Dir, filter);
+    }
+
+    @Override
+    public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+        S3Path s3Dir = toS3Path(dir);
+        if (getS3Attributes(s3Dir) != null) {
+            throw new FileAlreadyExistsException(dir.toString());
+        }
+
+        try {
+            clientFactory.client().putObject(
+                    b -> b.bucket(s3Dir.getBucket()).key(s3Dir.getDirectoryPrefix()),
+                    RequestBody.empty());
+        } catch (SdkException e) {
+            throw toIOException(s3Dir, e);
+        } finally {
+            s3Dir.getFileSystem().getAttributesCache().invalidate(s3Dir.getKey());
+        }
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        S3Path s3Path = toS3Path(path);
+        if (s3Path.getKey().isEmpty()) {
+            throw new FileSystemException(path.toString(), null, "S3 bucket root can't be deleted");
+        }
+
+        boolean directory = readS3Attributes(s3Path).isDirectory();
+        if (directory && hasChildren(s3Path)) {
+            throw new DirectoryNotEmptyException(path.toString());
+        }
+
+        try {
+            clientFactory.client().deleteObject(b -> b
+                    .bucket(s3Path.getBucket())
+                    .key(directory ? s3Path.getDirectoryPrefix() : s3Path.getKey()));
+        } catch (SdkException e) {
+            throw toIOException(s3Path, e);
+        } finally {
+            s3Path.getFileSystem().getAttributesCache().invalidate(s3Path.getKey());
+        }
+    }
+
+    @Override
+    public void copy(Path source, Path target, CopyOption... options) throws IOException {
+        S3Path s3Source = toS3Path(source);
+        S3Path s3Target = toS3Path(target);
+
+        Set<CopyOption> optionSet = Set.of(options);
+        if (optionSet.contains(StandardCopyOption.ATOMIC_MOVE)) {
+            throw new UnsupportedOperationException("Atomic copy is not supported by S3");
+        }
+
+        if (isSameFile(s3Source, s3Target)) {
+            return;
+        }
+
+        S3FileAttributes sourceAttributes = readS3Attributes(s3Source);
+        prepareTarget(s3Target, optionSet.contains(StandardCopyOption.REPLACE_EXISTING));
+
+        // per Files.copy contract, copying a directory creates an empty directory
+        if (sourceAttributes.isDirectory()) {
+            createDirectory(s3Target);
+            return;
+        }
+
+        try {
+            clientFactory.transferManager()
+                    .copy(b -> b.copyObjectRequest(r -> r
+                            .sourceBucket(s3Source.getBucket())
+                            .sourceKey(s3Source.getKey())
+                            .destinationBucket(s3Target.getBucket())
+                            .destinationKey(s3Target.getKey())))
+                    .completionFuture()
+                    .join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof SdkException se
+                    ? toIOException(s3Source, se)
+                    : new IOException("Failed to copy " + source.toUri() + " to " + target.toUri(), e.getCause());
+        } finally {
+            s3Target.getFileSystem().getAttributesCache().invalidate(s3Target.getKey());
+        }
+    }
+
+    @Override
+    public void move(Path source, Path target, CopyOption... options) throws IOException {
+        if (Arrays.asList(options).contains(StandardCopyOption.ATOMIC_MOVE)) {
+            throw new AtomicMoveNotSupportedException(source.toString(), target.toString(), "S3 has no atomic moves");
+        }
+
+        S3Path s3Source = toS3Path(source);
+        if (isSameFile(s3Source, toS3Path(target))) {
+            return;
+        }
+
+        // moving a non-empty directory would require moving each object
+        if (readS3Attributes(s3Source).isDirectory() && hasChildren(s3Source)) {
+            throw new DirectoryNotEmptyException(source.toString());
+        }
+
+        copy(source, target, options);
+        delete(source);
+    }
+
+    @Override
+    public boolean isSameFile(Path path, Path path2) {
+        return toS3Path(path).toAbsolutePath().normalize().equals(toS3Path(path2).toAbsolutePath().normalize());
+    }
+
+    @Override
+    public boolean isHidden(Path path) {
+        return false;
+    }
+
+    @Override
+    public FileStore getFileStore(Path path) {
+        throw new UnsupportedOperationException("S3 file system has no file stores");
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
+        readS3Attributes(toS3Path(path));
+
+        if (Arrays.asList(modes).contains(AccessMode.EXECUTE)) {
+            throw new AccessDeniedException(path.toString(), null, "S3 objects are not executable");
+        }
+    }
+
+    @Override
+    public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type, LinkOption... options) {
+        if (type != BasicFileAttributeView.class) {
+            return null;
+        }
+
+        S3Path s3Path = toS3Path(path);
+        return type.cast(new BasicFileAttributeView() {
+            @Override
+            public String name() {
+                return "basic";
+            }
+
+            @Override
+            public BasicFileAttributes readAttributes() throws IOException {
+                return readS3Attributes(s3Path);
+            }
+
+            @Override
+            public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) {
+                throw new UnsupportedOperationException("S3 object times can't be changed");
+            }
+        });
+    }
+
+    @Override
+    public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
+        if (type != BasicFileAttributes.class && type != S3FileAttributes.class) {
+            throw new UnsupportedOperationException("Unsupported S3 attributes type: " + type.getName());
+        }
+
+        return type.cast(readS3Attributes(toS3Path(path)));
+    }
+
+    @Override
+    public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+        int colon = attributes.indexOf(':');
+        if (colon >= 0 && !attributes.substring(0, colon).equals("basic")) {
+            throw new UnsupportedOperationException("Unsupported S3 attributes view: " + attributes.substring(0, colon));
+        }
+
+        String names = colon >= 0 ? attributes.substring(colon + 1) : attributes;
+        S3FileAttributes s3Attributes = readS3Attributes(toS3Path(path));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String name : names.equals("*") ? BASIC_ATTRIBUTES : List.of(names.split(","))) {
+            values.put(name, switch (name) {
+                case "lastModifiedTime" -> s3Attributes.lastModifiedTime();
+                case "lastAccessTime" -> s3Attributes.lastAccessTime();
+                case "creationTime" -> s3Attributes.creationTime();
+                case "size" -> s3Attributes.size();
+                case "isRegularFile" -> s3Attributes.isRegularFile();
+                case "isDirectory" -> s3Attributes.isDirectory();
+                case "isSymbolicLink" -> s3Attributes.isSymbolicLink();
+                case "isOther" -> s3Attributes.isOther();
+                case "fileKey" -> s3Attributes.fileKey();
+                default -> throw new IllegalArgumentException("Unknown S3 attribute: " + name);
+            });
+        }
+
+        return values;
+    }
+
+    @Override
+    public void setAttribute(Path path, String attribute, Object value, LinkOption... options) {
+        throw new UnsupportedOperationException("S3 attributes can't be changed");
+    }
+
+    void onClose(S3FileSystem fs) {
+        fileSystems.remove(fs.getBucket(), fs);
+    }
+
+    private S3FileSystem createFileSystem(String bucket) {
+        return new S3FileSystem(this, bucket, new S3FileAttributesCache(attributesCacheTtl.toNanos(), attributesCacheSize));
+    }
+
+    private S3Path toS3Path(Path path) {
+        if (!(path instanceof S3Path s3Path) || s3Path.getFileSystem().provider() != this) {
+            throw new ProviderMismatchException("Not a path of this S3 provider: " + path);
+        }
+
+        s3Path.getFileSystem().ensureOpen();
+        return s3Path;
+    }
+
+    private S3FileAttributes readS3Attributes(S3Path path) throws IOException {
+        S3FileAttributes attributes = getS3Attributes(path);
+        if (attributes == null) {
+            throw new NoSuchFileException(path.toUri().toString());
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Returns cached attributes, or reads them from S3, returning null if neither an object nor a directory exists at
+     * the path.
+     */
+    private S3FileAttributes getS3Attributes(S3Path path) throws IOException {
+        String key = path.getKey();
+        if (key.isEmpty()) {
+            return S3FileAttributes.directory();
+        }
+
+        S3FileAttributesCache cache = path.getFileSystem().getAttributesCache();
+        S3FileAttributes cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        S3FileAttributes attributes = headObject(path);
+
+        // no object with this key, but it may still be a "directory"
+        if (attributes == null) {
+            attributes = !listDirectory(path, 1).contents().isEmpty() ? S3FileAttributes.directory() : null;
+        }
+
+        if (attributes != null) {
+            cache.put(key, attributes);
+        }
+
+        return attributes;
+    }
+
+    private S3FileAttributes headObject(S3Path path) throws IOException {
+        try {
+            HeadObjectResponse response = clientFactory.client().headObject(b -> b.bucket(path.getBucket()).key(path.getKey()));
+            return S3FileAttributes.file(response.contentLength(), response.lastModified(), response.eTag());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+
+            throw toIOException(path, e);
+        } catch (SdkException e) {
+            throw toIOException(path, e);
+        }
+    }
+
+    private boolean hasChildren(S3Path dir) throws IOException {
+        String prefix = dir.getDirectoryPrefix();
+
+        // the listing may include the directory marker object, so request one extra key
+        return listDirectory(dir, 2).contents().stream().anyMatch(o -> !o.key().equals(prefix));
+    }
+
+    private ListObjectsV2Response listDirectory(S3Path dir, int maxKeys) throws IOException {
+        try {
+            return clientFactory.client().listObjectsV2(b -> b
+                    .bucket(dir.getBucket())
+                    .prefix(dir.getDirectoryPrefix())
+                    .maxKeys(maxKeys));
+        } catch (SdkException e) {
+            throw toIOException(dir, e);
+        }
+    }
+
+    private S3MultipartOutputStream newUploadStream(S3Path path, Set<? extends OpenOption> options) throws IOException {
+
+        if (options.contains(StandardOpenOption.APPEND)) {
+            throw new UnsupportedOperationException("S3 objects can't be appended to");
+        }
+
+        if (options.contains(StandardOpenOption.READ)) {
+            throw new IllegalArgumentException("S3 objects can't be opened for both reading and writing");
+        }
+
+        if (path.getKey().isEmpty()) {
+            throw new FileSystemException(path.toString(), null, "S3 bucket root can't be written to");
+        }
+
+        S3FileAttributes existing = getS3Attributes(path);
+        if (existing != null && existing.isDirectory()) {
+            throw new FileSystemException(path.toString(), null, "Is a directory");
+        }
+
+        if (options.contains(StandardOpenOption.CREATE_NEW)) {
+            if (existing != null) {
+                throw new FileAlreadyExistsException(path.toString());
+            }
+        } else if (!options.contains(StandardOpenOption.CREATE) && existing == null) {
+            throw new NoSuchFileException(path.toUri().toString());
+        }
+
+        path.getFileSystem().getAttributesCache().invalidate(path.getKey());
+        return clientFactory.multipartOutputStream(path.getBucket(), path.getKey());
+    }
+
+    private void prepareTarget(S3Path target, boolean replaceExisting) throws IOException {
+        S3FileAttributes existing = getS3Attributes(target);
+        if (existing == null) {
+            return;
+        }
+
+        if (!replaceExisting) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+
+        if (existing.isDirectory()) {
+            if (hasChildren(target)) {
+                throw new DirectoryNotEmptyException(target.toString());
+            }
+
+            delete(target);
+        }
+    }
+
+    private static String bucket(URI uri) {
+        if (!SCHEME.equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("Not an S3 URI: " + uri);
+        }
+
+        // bucket names may contain chars that are not valid in host names, so using the authority instead of host
+        String bucket = uri.getAuthority();
+        if (bucket == null || bucket.isEmpty()) {
+            throw new IllegalArgumentException("No bucket in S3 URI: " + uri);
+        }
+
+        return bucket;
+    }
+
+    private static IOException toIOException(S3Path path, SdkException e) {
+        if (e instanceof S3Exception s3e) {
+            switch (s3e.statusCode()) {
+                case 403:
+                    AccessDeniedException ade = new AccessDeniedException(path.toUri().toString());
+                    ade.initCause(e);
+                    return ade;
+                case 404:
+                    NoSuchFileException nsfe = new NoSuchFileException(path.toUri().toString());
+                    nsfe.initCause(e);
+                    return nsfe;
+            }
+        }
+
+        return new IOException("S3 request failed for " + path.toUri(), e);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.s3.S3ClientFactory;
+import io.bootique.value.Duration;
+
+/**
+ * Configures {@link S3FileSystemProvider}.
+ *
+ * @since 4.0
+ */
+@BQConfig("java.nio file system over S3")
+public class S3FileSystemProviderFactory {
+
+    private static final java.time.Duration DEFAULT_ATTRIBUTES_CACHE_TTL = java.time.Duration.ofSeconds(10);
+    private static final int DEFAULT_ATTRIBUTES_CACHE_SIZE = 10_000;
+
+    private Duration attributesCacheTtl;
+    private Integer attributesCacheSize;
+
+    @BQConfigProperty("How long the file attributes (existence, size, last modified time) read from S3 are cached " +
+            "in each file system. Attributes of the objects modified via the file system are invalidated immediately, " +
+            "while changes made by other clients are only noticed after this period. Zero disables caching. " +
+            "The default is 10s.")
+    public S3FileSystemProviderFactory setAttributesCacheTtl(Duration attributesCacheTtl) {
+        this.attributesCacheTtl = attributesCacheTtl;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of cached file attributes in each file system. The default is 10000.")
+    public S3FileSystemProviderFactory setAttributesCacheSize(Integer attributesCacheSize) {
+        this.attributesCacheSize = attributesCacheSize;
+        return this;
+    }
+
+    public S3FileSystemProvider create(S3ClientFactory clientFactory) {
+        return new S3FileSystemProvider(
+                clientFactory,
+                attributesCacheTtl != null ? attributesCacheTtl.getDuration() : DEFAULT_ATTRIBUTES_CACHE_TTL,
+                attributesCacheSize != null ? attributesCacheSize : DEFAULT_ATTRIBUTES_CACHE_SIZE);
+    }
+}
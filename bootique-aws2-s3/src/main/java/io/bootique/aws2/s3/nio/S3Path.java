@@ -0,0 +1,314 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A path of an S3 object or a "directory" (a common key prefix) within a bucket. The bucket is identified by the
+ * path {@link S3FileSystem}, and the path string is the object key, e.g. "/dir/file.csv" for the
+ * "s3://bucket/dir/file.csv" URI.
+ *
+ * @since 4.0
+ */
+public final class S3Path implements Path {
+
+    private static final String SEPARATOR = "/";
+
+    private final S3FileSystem fileSystem;
+    private final String path;
+    private final String[] names;
+
+    S3Path(S3FileSystem fileSystem, String path) {
+        this.fileSystem = Objects.requireNonNull(fileSystem);
+        this.path = normalizeSeparators(path);
+        this.names = this.path.isEmpty() || this.path.equals(SEPARATOR)
+                ? new String[0]
+                : (isAbsolute() ? this.path.substring(1) : this.path).split(SEPARATOR);
+    }
+
+    private static String normalizeSeparators(String path) {
+        String normalized = path.replaceAll("/{2,}", SEPARATOR);
+        return normalized.length() > 1 && normalized.endsWith(SEPARATOR)
+                ? normalized.substring(0, normalized.length() - 1)
+                : normalized;
+    }
+
+    public String getBucket() {
+        return fileSystem.getBucket();
+    }
+
+    /**
+     * Returns the S3 object key of this path, i.e. the absolute normalized path without the leading slash. The key of
+     * the root path is an empty string.
+     */
+    public String getKey() {
+        return toAbsolutePath().normalize().path.substring(1);
+    }
+
+    /**
+     * Returns a prefix of the keys of the objects "inside" this path, if the path is a directory.
+     */
+    String getDirectoryPrefix() {
+        String key = getKey();
+        return key.isEmpty() ? key : key + SEPARATOR;
+    }
+
+    @Override
+    public S3FileSystem getFileSystem() {
+        return fileSystem;
+    }
+
+    @Override
+    public boolean isAbsolute() {
+        return path.startsWith(SEPARATOR);
+    }
+
+    @Override
+    public S3Path getRoot() {
+        return isAbsolute() ? fileSystem.getRoot() : null;
+    }
+
+    @Override
+    public S3Path getFileName() {
+        return names.length > 0 ? new S3Path(fileSystem, names[names.length - 1]) : null;
+    }
+
+    @Override
+    public S3Path getParent() {
+        if (names.length == 0) {
+            return null;
+        }
+
+        if (names.length == 1) {
+            return getRoot();
+        }
+
+        return new S3Path(fileSystem, (isAbsolute() ? SEPARATOR : "") + join(0, names.length - 1));
+    }
+
+    @Override
+    public int getNameCount() {
+        return names.length;
+    }
+
+    @Override
+    public S3Path getName(int index) {
+        if (index < 0 || index >= names.length) {
+            throw new IllegalArgumentException("Invalid name index: " + index);
+        }
+
+        return new S3Path(fileSystem, names[index]);
+    }
+
+    @Override
+    public S3Path subpath(int beginIndex, int endIndex) {
+        if (beginIndex < 0 || beginIndex >= endIndex || endIndex > names.length) {
+            throw new IllegalArgumentException("Invalid subpath range: " + beginIndex + ".." + endIndex);
+        }
+
+        return new S3Path(fileSystem, join(beginIndex, endIndex));
+    }
+
+    @Override
+    public boolean startsWith(Path other) {
+        S3Path s3Other = toS3Path(other);
+        if (!fileSystem.equals(s3Other.fileSystem) || isAbsolute() != s3Other.isAbsolute() || s3Other.names.length > names.length) {
+            return false;
+        }
+
+        for (int i = 0; i < s3Other.names.length; i++) {
+            if (!names[i].equals(s3Other.names[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean endsWith(Path other) {
+        S3Path s3Other = toS3Path(other);
+        if (!fileSystem.equals(s3Other.fileSystem)) {
+            return false;
+        }
+
+        if (s3Other.isAbsolute()) {
+            return equals(s3Other);
+        }
+
+        int offset = names.length - s3Other.names.length;
+        if (offset < 0) {
+            return false;
+        }
+
+        for (int i = 0; i < s3Other.names.length; i++) {
+            if (!names[offset + i].equals(s3Other.names[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public S3Path normalize() {
+        List<String> normalized = new ArrayList<>(names.length);
+        for (String name : names) {
+            switch (name) {
+                case ".":
+                    break;
+                case "..":
+                    if (!normalized.isEmpty() && !normalized.get(normalized.size() - 1).equals("..")) {
+                        normalized.remove(normalized.size() - 1);
+                    } else if (!isAbsolute()) {
+                        normalized.add(name);
+                    }
+                    break;
+                default:
+                    normalized.add(name);
+            }
+        }
+
+        return new S3Path(fileSystem, (isAbsolute() ? SEPARATOR : "") + String.join(SEPARATOR, normalized));
+    }
+
+    @Override
+    public S3Path resolve(Path other) {
+        S3Path s3Other = toS3Path(other);
+        if (s3Other.isAbsolute()) {
+            return s3Other;
+        }
+
+        if (s3Other.path.isEmpty()) {
+            return this;
+        }
+
+        if (path.isEmpty()) {
+            return s3Other;
+        }
+
+        return new S3Path(fileSystem, path + SEPARATOR + s3Other.path);
+    }
+
+    @Override
+    public S3Path resolve(String other) {
+        return resolve(fileSystem.getPath(other));
+    }
+
+    @Override
+    public S3Path relativize(Path other) {
+        S3Path s3Other = toS3Path(other);
+        if (isAbsolute() != s3Other.isAbsolute()) {
+            throw new IllegalArgumentException("Can't relativize absolute and relative paths: " + this + ", " + other);
+        }
+
+        int common = 0;
+        while (common < names.length && common < s3Other.names.length && names[common].equals(s3Other.names[common])) {
+            common++;
+        }
+
+        List<String> relative = new ArrayList<>();
+        for (int i = common; i < names.length; i++) {
+            relative.add("..");
+        }
+
+        relative.addAll(Arrays.asList(s3Other.names).subList(common, s3Other.names.length));
+        return new S3Path(fileSystem, String.join(SEPARATOR, relative));
+    }
+
+    @Override
+    public URI toUri() {
+        try {
+            return new URI(S3FileSystemProvider.SCHEME, getBucket(), SEPARATOR + getKey(), null);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid S3 URI for path: " + this, e);
+        }
+    }
+
+    @Override
+    public S3Path toAbsolutePath() {
+        return isAbsolute() ? this : new S3Path(fileSystem, SEPARATOR + path);
+    }
+
+    @Override
+    public S3Path toRealPath(LinkOption... options) throws IOException {
+        S3Path real = toAbsolutePath().normalize();
+        fileSystem.provider().checkAccess(real);
+        return real;
+    }
+
+    @Override
+    public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) {
+        throw new UnsupportedOperationException("S3 paths can't be watched");
+    }
+
+    @Override
+    public int compareTo(Path other) {
+        return path.compareTo(toS3Path(other).path);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof S3Path other)) {
+            return false;
+        }
+
+        return fileSystem.equals(other.fileSystem) && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileSystem, path);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private String join(int from, int to) {
+        return String.join(SEPARATOR, Arrays.asList(names).subList(from, to));
+    }
+
+    private static S3Path toS3Path(Path path) {
+        if (path instanceof S3Path s3Path) {
+            return s3Path;
+        }
+
+        throw new ProviderMismatchException("Not an S3 path: " + path);
+    }
+}
@@ -21,6 +21,7 @@ package io.bootique.aws2.s3;
 import io.bootique.BQCoreModule;
 import io.bootique.BQRuntime;
 import io.bootique.Bootique;
+import io.bootique.aws2.s3.nio.S3FileSystemProvider;
 import io.bootique.junit.BQApp;
 import io.bootique.junit.BQTest;
 import org.junit.jupiter.api.Test;
@@ -38,8 +39,15 @@ import software.amazon.awssdk.services.s3.model.S3Object;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Testcontainers
@@ -60,6 +68,67 @@ public class AwsS3IT {
             .module(b -> BQCoreModule.extend(b).setProperty("bq.awss3.endpointOverride", localstack.getEndpoint().toString()))
             .createRuntime();
 
+    @Test
+    public void transferManager() throws IOException {
+        S3ClientFactory factory = app.getInstance(S3ClientFactory.class);
+        factory.client().createBucket(b -> b.bucket("transfer-bucket"));
+
+        // larger than the default multipart threshold to trigger a multipart upload
+        byte[] data = new byte[12 * 1024 * 1024];
+        new Random(1).nextBytes(data);
+
+        Path source = Files.createTempFile("bq-s3-", ".bin");
+        Path target = Files.createTempFile("bq-s3-", ".bin");
+        try {
+            Files.write(source, data);
+
+            factory.transferManager()
+                    .uploadFile(b -> b.source(source).putObjectRequest(r -> r.bucket("transfer-bucket").key("big")))
+                    .completionFuture()
+                    .join();
+
+            assertEquals(data.length, factory.client().headObject(b -> b.bucket("transfer-bucket").key("big")).contentLength());
+
+            Files.delete(target);
+            factory.transferManager()
+                    .downloadFile(b -> b.destination(target).getObjectRequest(r -> r.bucket("transfer-bucket").key("big")))
+                    .completionFuture()
+                    .join();
+
+            assertArrayEquals(data, Files.readAllBytes(target));
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    public void fileSystem() throws IOException {
+        app.getInstance(S3ClientFactory.class).client().createBucket(b -> b.bucket("fs-bucket"));
+        S3FileSystemProvider provider = app.getInstance(S3FileSystemProvider.class);
+
+        // larger than a single buffer to trigger a multipart upload
+        byte[] data = new byte[12 * 1024 * 1024];
+        new Random(1).nextBytes(data);
+
+        Path big = provider.getPath(URI.create("s3://fs-bucket/in/big.bin"));
+        Files.write(big, data);
+        Files.writeString(big.resolveSibling("small.txt"), "small");
+
+        Path copy = provider.getPath(URI.create("s3://fs-bucket/out/big.bin"));
+        Files.copy(big, copy);
+        Files.move(big.resolveSibling("small.txt"), copy.resolveSibling("small.txt"));
+
+        assertArrayEquals(data, Files.readAllBytes(copy));
+        assertEquals("small", Files.readString(copy.resolveSibling("small.txt")));
+
+        try (Stream<Path> files = Files.walk(provider.getPath(URI.create("s3://fs-bucket/")))) {
+            assertEquals(
+                    List.of("/in/big.bin", "/out/big.bin", "/out/small.txt"),
+                    files.filter(Files::isRegularFile).map(Path::toString).sorted().toList());
+        }
+    }
+
     @Test
     public void bucketOperations() throws IOException {
         S3Client s3 = app.getInstance(S3ClientFactory.class).client();
@@ -0,0 +1,285 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.bootique.aws2.s3;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory S3 client for unit tests, storing the objects of a single bucket (bucket names are ignored). Supports
+ * the object reads (including ranges and "If-Match"), writes, multipart uploads, deletes and paginated listings, and
+ * records the calls, so that the tests could verify them. Tests may override its methods to inject failures.
+ */
+public class InMemoryS3Client implements S3Client {
+
+    public final AtomicInteger headCalls = new AtomicInteger();
+    public final AtomicInteger listCalls = new AtomicInteger();
+    public final AtomicInteger uploads = new AtomicInteger();
+    public final AtomicBoolean aborted = new AtomicBoolean();
+    public final List<String> ranges = new CopyOnWriteArrayList<>();
+    public final List<UploadPartRequest> uploadRequests = new CopyOnWriteArrayList<>();
+
+    public volatile PutObjectRequest putRequest;
+    public volatile List<CompletedPart> completedParts;
+    public volatile CompleteMultipartUploadRequest completeRequest;
+    public volatile AbortMultipartUploadRequest abortRequest;
+
+    private final int pageSize;
+    private final NavigableMap<String, StoredObject> objects;
+    private final Map<String, Map<Integer, byte[]>> parts;
+    private final AtomicInteger versions;
+
+    public InMemoryS3Client() {
+        this(1000);
+    }
+
+    /**
+     * @param pageSize max number of entries returned by each listing call
+     */
+    public InMemoryS3Client(int pageSize) {
+        this.pageSize = pageSize;
+        this.objects = new ConcurrentSkipListMap<>();
+        this.parts = new ConcurrentHashMap<>();
+        this.versions = new AtomicInteger();
+    }
+
+    public void put(String key, byte[] data) {
+        objects.put(key, new StoredObject(data, "etag-" + versions.incrementAndGet()));
+    }
+
+    public void put(String key, String content) {
+        put(key, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stores an object of the given size filled with random bytes, returning the object contents.
+     */
+    public byte[] putRandom(String key, int size) {
+        byte[] data = new byte[size];
+        new Random(1).nextBytes(data);
+        put(key, data);
+        return data;
+    }
+
+    /**
+     * Returns the object contents, or null if there's no such object.
+     */
+    public byte[] get(String key) {
+        StoredObject o = objects.get(key);
+        return o != null ? o.data : null;
+    }
+
+    public String eTag(String key) {
+        return find(key).eTag;
+    }
+
+    /**
+     * Returns the objects as strings by key.
+     */
+    public Map<String, String> contents() {
+        Map<String, String> contents = new TreeMap<>();
+        objects.forEach((k, v) -> contents.put(k, new String(v.data, StandardCharsets.UTF_8)));
+        return contents;
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        headCalls.incrementAndGet();
+        StoredObject o = find(request.key());
+        return HeadObjectResponse.builder()
+                .contentLength((long) o.data.length)
+                .eTag(o.eTag)
+                .lastModified(Instant.EPOCH)
+                .build();
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        StoredObject o = find(request.key());
+        if (request.ifMatch() != null && !request.ifMatch().equals(o.eTag)) {
+            throw S3Exception.builder().statusCode(412).build();
+        }
+
+        int from = 0;
+        int to = o.data.length - 1;
+
+        if (request.range() != null) {
+            ranges.add(request.range());
+            String[] range = request.range().substring("bytes=".length()).split("-");
+            from = Integer.parseInt(range[0]);
+            to = Math.min(Integer.parseInt(range[1]), to);
+        }
+
+        return new ResponseInputStream<>(
+                GetObjectResponse.builder().contentLength((long) to - from + 1).eTag(o.eTag).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(o.data, from, to - from + 1)));
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        put(request.key(), read(body));
+        this.putRequest = request;
+        return PutObjectResponse.builder().build();
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        objects.remove(request.key());
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = "u" + uploads.incrementAndGet();
+        parts.put(uploadId, new ConcurrentHashMap<>());
+        return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        parts.get(request.uploadId()).put(request.partNumber(), read(body));
+        uploadRequests.add(request);
+        return UploadPartResponse.builder().eTag("e" + request.partNumber()).build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Map<Integer, byte[]> uploadParts = parts.remove(request.uploadId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        request.multipartUpload().parts().forEach(p -> out.writeBytes(uploadParts.get(p.partNumber())));
+        put(request.key(), out.toByteArray());
+
+        this.completedParts = request.multipartUpload().parts();
+        this.completeRequest = request;
+        return CompleteMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        parts.remove(request.uploadId());
+        aborted.set(true);
+        this.abortRequest = request;
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        listCalls.incrementAndGet();
+
+        String prefix = request.prefix() != null ? request.prefix() : "";
+        int maxKeys = Math.min(request.maxKeys() != null ? request.maxKeys() : 1000, pageSize);
+        String start = request.continuationToken() != null ? request.continuationToken() : prefix;
+
+        List<S3Object> contents = new ArrayList<>();
+        List<CommonPrefix> prefixes = new ArrayList<>();
+        String next = null;
+
+        for (Map.Entry<String, StoredObject> e : objects.tailMap(start, true).entrySet()) {
+            String key = e.getKey();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+
+            // keys rolled up into the last common prefix are not counted as separate entries
+            int slash = request.delimiter() != null ? key.indexOf('/', prefix.length()) : -1;
+            String commonPrefix = slash >= 0 ? key.substring(0, slash + 1) : null;
+            if (commonPrefix != null && !prefixes.isEmpty() && prefixes.get(prefixes.size() - 1).prefix().equals(commonPrefix)) {
+                continue;
+            }
+
+            if (contents.size() + prefixes.size() == maxKeys) {
+                next = key;
+                break;
+            }
+
+            if (commonPrefix != null) {
+                prefixes.add(CommonPrefix.builder().prefix(commonPrefix).build());
+            } else {
+                contents.add(S3Object.builder()
+                        .key(key)
+                        .size((long) e.getValue().data.length)
+                        .eTag(e.getValue().eTag)
+                        .lastModified(Instant.EPOCH)
+                        .build());
+            }
+        }
+
+        return ListObjectsV2Response.builder()
+                .contents(contents)
+                .commonPrefixes(prefixes)
+                .keyCount(contents.size() + prefixes.size())
+                .isTruncated(next != null)
+                .nextContinuationToken(next)
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return "s3";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private StoredObject find(String key) {
+        StoredObject o = objects.get(key);
+        if (o == null) {
+            throw NoSuchKeyException.builder().statusCode(404).build();
+        }
+
+        return o;
+    }
+
+    private static byte[] read(RequestBody body) {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record StoredObject(byte[] data, String eTag) {
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3BufferPoolTest {
+
+    @Test
+    public void acquire_Reuse() throws IOException {
+        S3BufferPool pool = new S3BufferPool(1024, 2, true);
+
+        ByteBuffer b1;
+        try (S3BufferPool.PooledBuffer pb = pool.acquire()) {
+            b1 = pb.buffer();
+            assertTrue(b1.isDirect());
+            assertEquals(1024, b1.capacity());
+            b1.put((byte) 1);
+        }
+
+        try (S3BufferPool.PooledBuffer pb = pool.acquire()) {
+            assertSame(b1, pb.buffer());
+            assertEquals(0, pb.buffer().position());
+            assertEquals(1024, pb.buffer().limit());
+        }
+
+        assertEquals(1, pool.getAllocatedBuffers());
+        assertEquals(2, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void acquire_Heap() throws IOException {
+        S3BufferPool pool = new S3BufferPool(1024, 2, false);
+        try (S3BufferPool.PooledBuffer pb = pool.acquire()) {
+            assertFalse(pb.buffer().isDirect());
+        }
+    }
+
+    @Test
+    public void acquire_Blocks() throws Exception {
+        S3BufferPool pool = new S3BufferPool(1024, 1, true);
+        S3BufferPool.PooledBuffer pb1 = pool.acquire();
+        assertNull(pool.tryAcquire());
+
+        AtomicReference<S3BufferPool.PooledBuffer> pb2 = new AtomicReference<>();
+        Thread t = Thread.ofVirtual().start(() -> {
+            try {
+                pb2.set(pool.acquire());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        t.join(200);
+        assertNull(pb2.get());
+
+        pb1.close();
+
+        // double close must not release the buffer twice
+        pb1.close();
+
+        t.join(5000);
+        assertNotNull(pb2.get());
+        assertEquals(0, pool.getAvailableBuffers());
+
+        pb2.get().close();
+        assertEquals(1, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void leak() throws Exception {
+        S3BufferPool pool = new S3BufferPool(1024, 1, true);
+
+        leakBuffer(pool);
+        assertEquals(0, pool.getAvailableBuffers());
+
+        for (int i = 0; i < 100 && pool.getLeakedBuffers() == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, pool.getLeakedBuffers());
+        assertEquals(0, pool.getAllocatedBuffers());
+        assertEquals(1, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void shutdown() throws IOException {
+        S3BufferPool pool = new S3BufferPool(1024, 2, true);
+        pool.acquire().close();
+        assertEquals(1, pool.getAllocatedBuffers());
+
+        pool.shutdown();
+        assertEquals(0, pool.getAllocatedBuffers());
+    }
+
+    private static void leakBuffer(S3BufferPool pool) throws IOException {
+        pool.acquire().buffer().put((byte) 1);
+    }
+}
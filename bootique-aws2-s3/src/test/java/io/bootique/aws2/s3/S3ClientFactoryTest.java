@@ -0,0 +1,288 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsExecutionMode;
+import io.bootique.aws2.bulkhead.AwsBulkhead;
+import io.bootique.aws2.bulkhead.AwsBulkheadFullException;
+import io.bootique.aws2.bulkhead.AwsBulkheadInterceptor;
+import io.bootique.aws2.client.AwsClientLease;
+import io.bootique.aws2.client.AwsClientRegistry;
+import io.bootique.aws2.hedging.AwsHedgeBudget;
+import io.bootique.aws2.hedging.AwsHedging;
+import io.bootique.aws2.http.ApacheHttpClientFactory;
+import io.bootique.aws2.metrics.AwsBulkheadMetrics;
+import io.bootique.aws2.http.AwsAsyncHttpClientFactory;
+import io.bootique.aws2.retry.AwsRetryStrategyFactory;
+import io.bootique.value.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3ClientFactoryTest {
+
+    private AwsConfig config;
+    private S3ClientFactory factory;
+
+    @BeforeEach
+    void createFactory() {
+        this.config = new AwsConfig(
+                Region.US_EAST_1,
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("xyz", "abc")),
+                new ApacheHttpClientFactory(),
+                new AwsAsyncHttpClientFactory(),
+                AwsExecutionMode.PLATFORM,
+                null,
+                List.of(),
+                Duration.ofSeconds(1),
+                new AwsHedgeBudget(0.05));
+
+        this.factory = new S3ClientFactory(config, null, config.getHttpClient());
+    }
+
+    @AfterEach
+    void shutdown() {
+        config.shutdown();
+    }
+
+    @Test
+    public void fanOut() {
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        List<String> results = factory.fanOut(List.of(1, 2, 3, 4, 5, 6, 7, 8), 3, (c, i) -> {
+            maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            inProgress.decrementAndGet();
+            return "r" + i;
+        });
+
+        assertEquals(List.of("r1", "r2", "r3", "r4", "r5", "r6", "r7", "r8"), results);
+        assertTrue(maxInProgress.get() <= 3, "Concurrency limit exceeded: " + maxInProgress.get());
+    }
+
+    @Test
+    public void fanOut_Failure() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> factory.fanOut(List.of(1, 2, 3), 2, (c, i) -> {
+            if (i == 2) {
+                throw new IllegalStateException("failed " + i);
+            }
+            return i;
+        }));
+
+        assertEquals("failed 2", e.getMessage());
+    }
+
+    @Test
+    public void fanOut_FailureCancelsOtherCalls() throws InterruptedException {
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> factory.fanOut(List.of(1, 2, 3, 4, 5, 6), 2, (c, i) -> {
+            started.incrementAndGet();
+
+            try {
+                if (i == 2) {
+                    firstStarted.await();
+                    throw new IllegalStateException("failed " + i);
+                }
+
+                firstStarted.countDown();
+                Thread.sleep(10_000);
+            } catch (InterruptedException ie) {
+                interrupted.countDown();
+            }
+            return i;
+        }));
+
+        assertEquals("failed 2", e.getMessage());
+        assertEquals(2, started.get());
+
+        // fanOut doesn't wait for the cancelled calls to exit, so the interrupt may be handled a bit later
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void fanOut_FailureDoesNotWaitForStuckCalls() {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuckStarted = new CountDownLatch(1);
+
+        try {
+            IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(IllegalStateException.class, () -> factory.fanOut(List.of(1, 2), 2, (c, i) -> {
+                if (i == 2) {
+                    awaitUninterruptibly(stuckStarted);
+                    throw new IllegalStateException("failed " + i);
+                }
+
+                // emulate a call that ignores interrupts, like a blocking socket read
+                stuckStarted.countDown();
+                awaitUninterruptibly(release);
+                return i;
+            })));
+
+            assertEquals("failed 2", e.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Test
+    public void retryStrategy_Shared() {
+        RetryStrategy strategy = new AwsRetryStrategyFactory().setMode("adaptive").setMaxAttempts(4).create();
+        S3ClientFactory factory = new S3ClientFactory(config, null, config.getHttpClient(), strategy, List.of(), null, AwsHedging.none(), new S3TransferManagerFactory(), new S3MultipartUploadFactory(), new S3SeekableChannelFactory(), new S3BufferPoolFactory().create());
+
+        try (S3Client c1 = factory.builder().build(); S3Client c2 = factory.builder().region("us-west-2").build()) {
+            assertSame(strategy, c1.serviceClientConfiguration().overrideConfiguration().retryStrategy().orElseThrow());
+            assertSame(strategy, c2.serviceClientConfiguration().overrideConfiguration().retryStrategy().orElseThrow());
+        }
+    }
+
+    @Test
+    public void builder_Shared() {
+        AwsClientRegistry registry = new AwsClientRegistry(10);
+        S3ClientFactory factory = new S3ClientFactory(config, null, config.getHttpClient(), null, List.of(), registry, AwsHedging.none(), new S3TransferManagerFactory(), new S3MultipartUploadFactory(), new S3SeekableChannelFactory(), new S3BufferPoolFactory().create());
+
+        try (AwsClientLease<S3Client> l1 = factory.builder().region("us-west-2").buildShared();
+             AwsClientLease<S3Client> l2 = factory.builder().region("us-west-2").buildShared();
+             AwsClientLease<S3Client> l3 = factory.builder().region("eu-west-1").buildShared();
+             AwsClientLease<S3Client> l4 = factory.builder().region("us-west-2").endpointOverride("http://localhost:4566").buildShared()) {
+
+            assertSame(l1.client(), l2.client());
+            assertNotSame(l1.client(), l3.client());
+            assertNotSame(l1.client(), l4.client());
+            assertEquals(3, registry.size());
+
+            // default client is not managed by the registry
+            try (AwsClientLease<S3Client> d1 = factory.builder().buildShared();
+                 AwsClientLease<S3Client> d2 = factory.builder().region("us-east-1").buildShared()) {
+                assertNotSame(factory.client(), d1.client());
+                assertSame(d1.client(), d2.client());
+            }
+        } finally {
+            factory.shutdown();
+            registry.close();
+        }
+    }
+
+    @Test
+    public void builder_NotShared() {
+        AwsClientRegistry registry = new AwsClientRegistry(10);
+        S3ClientFactory factory = new S3ClientFactory(config, null, config.getHttpClient(), null, List.of(), registry, AwsHedging.none(), new S3TransferManagerFactory(), new S3MultipartUploadFactory(), new S3SeekableChannelFactory(), new S3BufferPoolFactory().create());
+
+        try (S3Client c1 = factory.builder().region("us-west-2").build();
+             S3Client c2 = factory.builder().region("us-west-2").build()) {
+
+            // build() creates a new client owned by the caller
+            assertNotSame(c1, c2);
+            assertEquals(0, registry.size());
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test
+    public void httpClient_Dedicated() {
+        S3ClientFactory shared = new S3ClientFactoryFactory(config, new AwsClientRegistry(10)).create();
+        S3ClientFactory dedicated = new S3ClientFactoryFactory(config, new AwsClientRegistry(10))
+                .setHttp(new ApacheHttpClientFactory().setMaxConnections(5))
+                .create();
+
+        try {
+            assertSame(config.getHttpClient(), shared.getHttpClient());
+            assertNotNull(dedicated.getHttpClient());
+            assertNotSame(config.getHttpClient(), dedicated.getHttpClient());
+        } finally {
+            shared.shutdown();
+            dedicated.shutdown();
+        }
+    }
+
+    @Test
+    public void transferManager() {
+        S3TransferManagerFactory transferManagerFactory = new S3TransferManagerFactory()
+                .setPartSize(new Bytes("16mb"))
+                .setMultipartThreshold(new Bytes("32mb"))
+                .setMaxConcurrency(4);
+
+        S3ClientFactory factory = new S3ClientFactory(config, null, config.getHttpClient(), null, List.of(), null, AwsHedging.none(), transferManagerFactory, new S3MultipartUploadFactory(), new S3SeekableChannelFactory(), new S3BufferPoolFactory().create());
+
+        try {
+            S3TransferManager tm = factory.transferManager();
+            assertNotNull(tm);
+            assertSame(tm, factory.transferManager());
+        } finally {
+            factory.shutdown();
+        }
+    }
+
+    @Test
+    public void bucketBulkheads() {
+        AwsBulkhead defaultBulkhead = new AwsBulkhead("S3", 1, Duration.ZERO, new AwsBulkheadMetrics("S3"));
+        AwsBulkhead batchBulkhead = new AwsBulkhead("S3/batch", 1, Duration.ZERO, new AwsBulkheadMetrics("S3/batch"));
+        AwsBulkheadInterceptor interceptor = AwsBulkheadInterceptor.ofBuckets(defaultBulkhead, Map.of("batch", batchBulkhead));
+
+        interceptor.beforeTransmission(context("batch"), new ExecutionAttributes());
+        assertEquals(1, batchBulkhead.getActiveCalls());
+        assertThrows(AwsBulkheadFullException.class, () -> interceptor.beforeTransmission(context("batch"), new ExecutionAttributes()));
+
+        // a full batch bucket must not affect other buckets
+        interceptor.beforeTransmission(context("reads"), new ExecutionAttributes());
+        assertEquals(1, defaultBulkhead.getActiveCalls());
+    }
+
+    private static InterceptorContext context(String bucket) {
+        return InterceptorContext.builder().request(GetObjectRequest.builder().bucket(bucket).key("k").build()).build();
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3MultipartOutputStreamTest {
+
+    static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+    static final CreateMultipartUploadRequest REQUEST = CreateMultipartUploadRequest.builder().bucket("b").key("k").build();
+
+    final S3BufferPool pool = new S3BufferPool(PART_SIZE, 4, true);
+
+    @Test
+    public void upload() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        byte[] data = new byte[PART_SIZE * 2 + 1000];
+        new Random(1).nextBytes(data);
+
+        try (S3MultipartOutputStream out = new S3MultipartOutputStream(s3, REQUEST, pool, 2)) {
+            out.write(data[0]);
+            out.write(data, 1, 100);
+            out.write(ByteBuffer.wrap(data, 101, PART_SIZE));
+            out.write(data, PART_SIZE + 101, data.length - PART_SIZE - 101);
+        }
+
+        assertEquals(3, s3.completedParts.size());
+        assertArrayEquals(data, s3.get("k"));
+        assertFalse(s3.aborted.get());
+
+        // at most 2 buffers per stream, and all of them are back in the pool
+        assertEquals(2, pool.getAllocatedBuffers());
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void upload_Empty() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        new S3MultipartOutputStream(s3, REQUEST, pool, 2).close();
+
+        assertArrayEquals(new byte[0], s3.get("k"));
+        assertEquals(0, s3.uploads.get());
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void upload_SinglePart() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        CreateMultipartUploadRequest request = REQUEST.toBuilder()
+                .contentType("text/csv")
+                .metadata(Map.of("a", "b"))
+                .build();
+
+        try (S3MultipartOutputStream out = new S3MultipartOutputStream(s3, request, pool, 2)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+
+        assertArrayEquals(new byte[]{1, 2, 3}, s3.get("k"));
+        assertEquals("text/csv", s3.putRequest.contentType());
+        assertEquals(Map.of("a", "b"), s3.putRequest.metadata());
+        assertEquals("k", s3.putRequest.key());
+        assertEquals(0, s3.uploads.get());
+        assertNull(s3.completedParts);
+    }
+
+    @Test
+    public void upload_RequestSettings() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        CreateMultipartUploadRequest request = REQUEST.toBuilder()
+                .sseCustomerAlgorithm("AES256")
+                .sseCustomerKey("key")
+                .sseCustomerKeyMD5("md5")
+                .requestPayer(RequestPayer.REQUESTER)
+                .expectedBucketOwner("owner")
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                .build();
+
+        try (S3MultipartOutputStream out = new S3MultipartOutputStream(s3, request, pool, 2)) {
+            out.write(new byte[PART_SIZE + 1]);
+        }
+
+        assertEquals(2, s3.uploadRequests.size());
+        for (UploadPartRequest r : s3.uploadRequests) {
+            assertEquals("AES256", r.sseCustomerAlgorithm());
+            assertEquals("key", r.sseCustomerKey());
+            assertEquals("md5", r.sseCustomerKeyMD5());
+            assertEquals(RequestPayer.REQUESTER, r.requestPayer());
+            assertEquals("owner", r.expectedBucketOwner());
+            assertEquals(ChecksumAlgorithm.CRC32, r.checksumAlgorithm());
+        }
+
+        CompleteMultipartUploadRequest complete = s3.completeRequest;
+        assertEquals("AES256", complete.sseCustomerAlgorithm());
+        assertEquals("key", complete.sseCustomerKey());
+        assertEquals("md5", complete.sseCustomerKeyMD5());
+        assertEquals(RequestPayer.REQUESTER, complete.requestPayer());
+        assertEquals("owner", complete.expectedBucketOwner());
+    }
+
+    @Test
+    public void abort_RequestSettings() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        CreateMultipartUploadRequest request = REQUEST.toBuilder()
+                .requestPayer(RequestPayer.REQUESTER)
+                .expectedBucketOwner("owner")
+                .build();
+
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, request, pool, 2);
+        out.write(new byte[PART_SIZE + 1]);
+        out.abort();
+
+        assertEquals("b", s3.abortRequest.bucket());
+        assertEquals("k", s3.abortRequest.key());
+        assertEquals("u1", s3.abortRequest.uploadId());
+        assertEquals(RequestPayer.REQUESTER, s3.abortRequest.requestPayer());
+        assertEquals("owner", s3.abortRequest.expectedBucketOwner());
+    }
+
+    @Test
+    public void upload_Backpressure() throws Exception {
+        CountDownLatch uploadsBlocked = new CountDownLatch(1);
+        InMemoryS3Client s3 = new InMemoryS3Client() {
+            @Override
+            public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+                try {
+                    uploadsBlocked.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.uploadPart(request, body);
+            }
+        };
+
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, REQUEST, pool, 2);
+
+        // two buffers are filled and are being uploaded, so the third write must block
+        out.write(new byte[PART_SIZE * 2]);
+
+        AtomicBoolean written = new AtomicBoolean();
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                out.write(1);
+                written.set(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.join(200);
+        assertFalse(written.get());
+
+        uploadsBlocked.countDown();
+        writer.join(5000);
+        assertTrue(written.get());
+
+        out.close();
+        assertEquals(3, s3.completedParts.size());
+    }
+
+    @Test
+    public void upload_PartFailure() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client() {
+            @Override
+            public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+                if (request.partNumber() == 2) {
+                    throw SdkClientException.create("part failed");
+                }
+                return super.uploadPart(request, body);
+            }
+        };
+
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, REQUEST, pool, 2);
+
+        // depending on timing, the failure is reported either by one of the writes or by "close"
+        IOException e = assertThrows(IOException.class, () -> {
+            try (out) {
+                out.write(new byte[PART_SIZE * 2 + 1]);
+            }
+        });
+
+        assertInstanceOf(SdkClientException.class, e.getCause());
+        assertTrue(s3.aborted.get());
+        assertNull(s3.completedParts);
+        assertFalse(out.isOpen());
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void abort() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, REQUEST, pool, 2);
+        out.write(new byte[PART_SIZE + 1]);
+        out.abort();
+
+        assertTrue(s3.aborted.get());
+        assertNull(s3.completedParts);
+        assertEquals(4, pool.getAvailableBuffers());
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    public void partSizeTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> new S3MultipartOutputStream(new InMemoryS3Client(), REQUEST, new S3BufferPool(1024, 2, true), 2));
+    }
+}
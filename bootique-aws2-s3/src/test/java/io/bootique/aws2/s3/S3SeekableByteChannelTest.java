@@ -0,0 +1,217 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3SeekableByteChannelTest {
+
+    static final int BLOCK_SIZE = 1024;
+
+    final S3BufferPool pool = new S3BufferPool(BLOCK_SIZE * 4, 4, true);
+
+    @Test
+    public void read_Sequential() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        byte[] data = s3.putRandom("k", BLOCK_SIZE * 10 + 300);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            ByteBuffer buffer = ByteBuffer.allocate(100);
+            while (channel.read(buffer.clear()) > 0) {
+                out.write(buffer.array(), 0, buffer.position());
+            }
+        }
+
+        assertArrayEquals(data, out.toByteArray());
+
+        // read-ahead grows with each request: 1 block, then 2, 3 and the remaining 5
+        assertEquals(1, s3.headCalls.get());
+        assertEquals(List.of("bytes=0-1023", "bytes=1024-3071", "bytes=3072-6143", "bytes=6144-10539"), s3.ranges);
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void read_Footer() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        byte[] data = s3.putRandom("k", BLOCK_SIZE * 10);
+
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            long size = channel.size();
+
+            ByteBuffer tail = ByteBuffer.allocate(8);
+            channel.position(size - 8).read(tail);
+            assertArrayEquals(slice(data, size - 8, 8), tail.array());
+
+            ByteBuffer footer = ByteBuffer.allocate(50);
+            channel.position(size - 100).read(footer);
+            assertArrayEquals(slice(data, size - 100, 50), footer.array());
+        }
+
+        assertEquals(List.of("bytes=9216-10239"), s3.ranges);
+    }
+
+    @Test
+    public void read_SpanningBlocks() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        byte[] data = s3.putRandom("k", BLOCK_SIZE * 10);
+
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE + 200);
+            assertEquals(BLOCK_SIZE + 200, channel.position(BLOCK_SIZE * 5 - 100).read(buffer));
+
+            byte[] bytes = new byte[buffer.flip().remaining()];
+            buffer.get(bytes);
+            assertArrayEquals(slice(data, BLOCK_SIZE * 5 - 100, BLOCK_SIZE + 200), bytes);
+            assertEquals(BLOCK_SIZE * 6 + 100, channel.position());
+        }
+
+        // the second block is read ahead, as the read continues where the previous request ended
+        assertEquals(List.of("bytes=4096-5119", "bytes=5120-7167"), s3.ranges);
+    }
+
+    @Test
+    public void read_Eviction() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        s3.putRandom("k", BLOCK_SIZE * 10);
+
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 2, 0)) {
+            readByte(channel, 0);
+            readByte(channel, BLOCK_SIZE * 5);
+            readByte(channel, 1);
+            readByte(channel, BLOCK_SIZE * 9);
+
+            // block 5 is the least recently used, so it was evicted
+            readByte(channel, 2);
+            readByte(channel, BLOCK_SIZE * 5 + 1);
+
+            // the blocks are carved out of a single pool buffer
+            assertEquals(3, pool.getAvailableBuffers());
+        }
+
+        assertEquals(List.of("bytes=0-1023", "bytes=5120-6143", "bytes=9216-10239", "bytes=5120-6143"), s3.ranges);
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void read_PoolExhausted() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        byte[] data = s3.putRandom("k", BLOCK_SIZE * 10);
+
+        List<S3BufferPool.PooledBuffer> taken = new ArrayList<>();
+        for (int i = 0; i < pool.getMaxBuffers(); i++) {
+            taken.add(pool.tryAcquire());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            ByteBuffer buffer = ByteBuffer.allocate(100);
+            while (channel.read(buffer.clear()) > 0) {
+                out.write(buffer.array(), 0, buffer.position());
+            }
+        } finally {
+            taken.forEach(S3BufferPool.PooledBuffer::close);
+        }
+
+        // the channel doesn't wait for the pool, and, having a single heap block, reads without read-ahead
+        assertArrayEquals(data, out.toByteArray());
+        assertEquals(10, s3.ranges.size());
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void read_EOF() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        s3.putRandom("k", 100);
+
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            assertEquals(100, channel.size());
+            assertEquals(-1, channel.position(100).read(ByteBuffer.allocate(10)));
+            assertEquals(-1, channel.position(1000).read(ByteBuffer.allocate(10)));
+            assertEquals(10, channel.position(90).read(ByteBuffer.allocate(20)));
+        }
+    }
+
+    @Test
+    public void read_NoSuchKey() {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+
+        S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4);
+        assertThrows(NoSuchFileException.class, () -> channel.read(ByteBuffer.allocate(10)));
+    }
+
+    @Test
+    public void read_ObjectChanged() throws IOException {
+        InMemoryS3Client s3 = new InMemoryS3Client();
+        s3.putRandom("k", 100);
+
+        try (S3SeekableByteChannel channel = new S3SeekableByteChannel(s3, "b", "k", pool, BLOCK_SIZE, 8, 4)) {
+            channel.size();
+            s3.put("k", new byte[100]);
+
+            IOException e = assertThrows(IOException.class, () -> channel.read(ByteBuffer.allocate(10)));
+            assertTrue(e.getMessage().contains("was changed"), e.getMessage());
+        }
+
+        assertEquals(4, pool.getAvailableBuffers());
+    }
+
+    @Test
+    public void readOnly() {
+        S3SeekableByteChannel channel = new S3SeekableByteChannel(new InMemoryS3Client(), "b", "k", pool, BLOCK_SIZE, 8, 4);
+        assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        assertThrows(NonWritableChannelException.class, () -> channel.truncate(1));
+    }
+
+    @Test
+    public void closed() {
+        S3SeekableByteChannel channel = new S3SeekableByteChannel(new InMemoryS3Client(), "b", "k", pool, BLOCK_SIZE, 8, 4);
+        channel.close();
+        assertFalse(channel.isOpen());
+        assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    public void blockSizeTooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new S3SeekableByteChannel(new InMemoryS3Client(), "b", "k", pool, BLOCK_SIZE * 8, 8, 4));
+    }
+
+    private static void readByte(S3SeekableByteChannel channel, long position) throws IOException {
+        assertEquals(1, channel.position(position).read(ByteBuffer.allocate(1)));
+    }
+
+    private static byte[] slice(byte[] data, long from, int len) {
+        byte[] slice = new byte[len];
+        System.arraycopy(data, (int) from, slice, 0, len);
+        return slice;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsExecutionMode;
+import io.bootique.aws2.hedging.AwsHedgeBudget;
+import io.bootique.aws2.http.ApacheHttpClientFactory;
+import io.bootique.aws2.http.AwsAsyncHttpClientFactory;
+import io.bootique.aws2.s3.InMemoryS3Client;
+import io.bootique.aws2.s3.S3ClientFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3FileSystemProviderTest {
+
+    private AwsConfig config;
+    private InMemoryS3Client s3;
+    private S3FileSystemProvider provider;
+
+    @BeforeEach
+    void createProvider() {
+        this.config = new AwsConfig(
+                Region.US_EAST_1,
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("xyz", "abc")),
+                new ApacheHttpClientFactory(),
+                new AwsAsyncHttpClientFactory(),
+                AwsExecutionMode.PLATFORM,
+                null,
+                List.of(),
+                Duration.ofSeconds(1),
+                new AwsHedgeBudget(0.05));
+
+        this.s3 = new InMemoryS3Client(2);
+        S3ClientFactory clientFactory = new S3ClientFactory(config, null, null) {
+            @Override
+            public S3Client client() {
+                return s3;
+            }
+        };
+
+        this.provider = new S3FileSystemProvider(clientFactory, Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    void shutdown() {
+        config.shutdown();
+    }
+
+    @Test
+    public void getPath() {
+        Path p = provider.getPath(URI.create("s3://my.bucket/a/b.txt"));
+        assertEquals("/a/b.txt", p.toString());
+        assertEquals("my.bucket", ((S3Path) p).getBucket());
+        assertSame(p.getFileSystem(), provider.getFileSystem("my.bucket"));
+        assertEquals(URI.create("s3://my.bucket/a/b.txt"), p.toUri());
+    }
+
+    @Test
+    public void writeRead() throws IOException {
+        Path p = provider.getPath(URI.create("s3://b/a/b.txt"));
+        assertFalse(Files.exists(p));
+
+        Files.writeString(p, "hello\nworld");
+
+        assertTrue(Files.exists(p));
+        assertTrue(Files.isRegularFile(p));
+        assertTrue(Files.isDirectory(p.getParent()));
+        assertEquals(11, Files.size(p));
+        assertEquals(List.of("hello", "world"), Files.readAllLines(p));
+
+        try (InputStream in = Files.newInputStream(p)) {
+            assertEquals(6, in.skip(6));
+            assertEquals("world", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void write_Options() throws IOException {
+        Path p = provider.getPath(URI.create("s3://b/a.txt"));
+
+        assertThrows(NoSuchFileException.class, () -> Files.newOutputStream(p, StandardOpenOption.WRITE));
+        assertThrows(UnsupportedOperationException.class, () -> Files.newOutputStream(p, StandardOpenOption.APPEND));
+
+        Files.writeString(p, "a");
+        assertThrows(FileAlreadyExistsException.class, () -> Files.newOutputStream(p, StandardOpenOption.CREATE_NEW));
+
+        Files.writeString(p, "b", StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        assertEquals("b", Files.readString(p));
+    }
+
+    @Test
+    public void read_Missing() {
+        Path p = provider.getPath(URI.create("s3://b/missing.txt"));
+        assertThrows(NoSuchFileException.class, () -> Files.readAllBytes(p));
+        assertThrows(NoSuchFileException.class, () -> Files.size(p));
+    }
+
+    @Test
+    public void list() throws IOException {
+        S3FileSystem fs = provider.getFileSystem("b");
+        Files.writeString(fs.getPath("/a/1.txt"), "1");
+        Files.writeString(fs.getPath("/a/2.csv"), "22");
+        Files.writeString(fs.getPath("/a/b/3.txt"), "333");
+        Files.createDirectory(fs.getPath("/a/c"));
+        Files.writeString(fs.getPath("/x.txt"), "x");
+
+        try (Stream<Path> s = Files.list(fs.getPath("/a"))) {
+            assertEquals(List.of("/a/1.txt", "/a/2.csv", "/a/b", "/a/c"), s.map(Path::toString).sorted().toList());
+        }
+
+        // listed in pages of 2 keys
+        assertTrue(s3.listCalls.get() > 1);
+
+        try (DirectoryStream<Path> s = Files.newDirectoryStream(fs.getPath("/a"), "*.csv")) {
+            List<Path> csvs = new ArrayList<>();
+            s.forEach(csvs::add);
+            assertEquals(List.of(fs.getPath("/a/2.csv")), csvs);
+        }
+
+        assertThrows(java.nio.file.NotDirectoryException.class, () -> Files.list(fs.getPath("/x.txt")).close());
+    }
+
+    @Test
+    public void walk_CachedAttributes() throws IOException {
+        s3.put("a/1.txt", "1");
+        s3.put("a/b/2.txt", "22");
+        s3.put("a/b/c/3.txt", "333");
+
+        S3FileSystem fs = provider.getFileSystem("b");
+        long size;
+        try (Stream<Path> s = Files.walk(fs.getPath("/"))) {
+            size = s.filter(Files::isRegularFile).mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        }
+
+        assertEquals(6, size);
+
+        // all the attributes came from the listings
+        assertEquals(0, s3.headCalls.get());
+    }
+
+    @Test
+    public void delete() throws IOException {
+        S3FileSystem fs = provider.getFileSystem("b");
+        Path file = fs.getPath("/a/b/1.txt");
+        Files.writeString(file, "1");
+
+        assertThrows(DirectoryNotEmptyException.class, () -> Files.delete(fs.getPath("/a/b")));
+
+        Files.delete(file);
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(fs.getPath("/a/b")));
+        assertFalse(Files.deleteIfExists(file));
+
+        // parent directories are implicit, so only the leaf directory marker is created
+        Files.createDirectories(fs.getPath("/x/y"));
+        assertTrue(Files.isDirectory(fs.getPath("/x/y")));
+        assertTrue(Files.isDirectory(fs.getPath("/x")));
+        assertEquals(Map.of("x/y/", ""), s3.contents());
+
+        Files.delete(fs.getPath("/x/y"));
+        assertFalse(Files.exists(fs.getPath("/x")));
+        assertEquals(Map.of(), s3.contents());
+    }
+
+    @Test
+    public void readAttributes() throws IOException {
+        s3.put("a.txt", "abc");
+        Path p = provider.getPath(URI.create("s3://b/a.txt"));
+
+        Map<String, Object> attributes = Files.readAttributes(p, "size,isDirectory");
+        assertEquals(Map.of("size", 3L, "isDirectory", false), attributes);
+
+        S3FileAttributes s3Attributes = Files.readAttributes(p, S3FileAttributes.class);
+        assertEquals(s3.eTag("a.txt"), s3Attributes.getETag());
+    }
+
+    @Test
+    public void closedFileSystem() throws IOException {
+        S3FileSystem fs = provider.getFileSystem("b");
+        Path p = fs.getPath("/a.txt");
+        fs.close();
+
+        assertThrows(java.nio.file.ClosedFileSystemException.class, () -> Files.exists(p));
+        assertNotSame(fs, provider.getFileSystem("b"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.s3.nio;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S3PathTest {
+
+    // paths never access S3, so no provider is needed
+    static final S3FileSystem fs = new S3FileSystem(null, "b", new S3FileAttributesCache(Duration.ofSeconds(1).toNanos(), 10));
+
+    @Test
+    public void normalizeSeparators() {
+        assertEquals("/a/b", fs.getPath("//a///b/").toString());
+        assertEquals("/", fs.getPath("/").toString());
+        assertEquals("a/b/c", fs.getPath("a", "b/", "", "c").toString());
+    }
+
+    @Test
+    public void names() {
+        S3Path p = fs.getPath("/a/b/c.txt");
+        assertTrue(p.isAbsolute());
+        assertEquals(3, p.getNameCount());
+        assertEquals(fs.getPath("b"), p.getName(1));
+        assertEquals(fs.getPath("c.txt"), p.getFileName());
+        assertEquals(fs.getPath("/a/b"), p.getParent());
+        assertEquals(fs.getPath("/"), p.getParent().getParent().getParent());
+        assertNull(fs.getPath("/").getParent());
+        assertNull(fs.getPath("/").getFileName());
+        assertEquals(fs.getPath("b/c.txt"), p.subpath(1, 3));
+        assertEquals(fs.getPath("/"), p.getRoot());
+        assertNull(fs.getPath("a").getRoot());
+        assertNull(fs.getPath("a").getParent());
+    }
+
+    @Test
+    public void key() {
+        assertEquals("a/b/c.txt", fs.getPath("/a/b/c.txt").getKey());
+        assertEquals("a/c.txt", fs.getPath("a/./b/../c.txt").getKey());
+        assertEquals("", fs.getPath("/").getKey());
+        assertEquals("a/b/", fs.getPath("/a/b").getDirectoryPrefix());
+        assertEquals("", fs.getPath("/").getDirectoryPrefix());
+    }
+
+    @Test
+    public void resolve_Relativize() {
+        S3Path dir = fs.getPath("/a/b");
+        assertEquals(fs.getPath("/a/b/c/d"), dir.resolve("c/d"));
+        assertEquals(fs.getPath("/x"), dir.resolve("/x"));
+        assertEquals(fs.getPath("/c"), fs.getPath("/").resolve("c"));
+        assertEquals(fs.getPath("c/d"), dir.relativize(fs.getPath("/a/b/c/d")));
+        assertEquals(fs.getPath("../../x"), dir.relativize(fs.getPath("/x")));
+        assertEquals(fs.getPath("/a/x"), dir.resolve("../x").normalize());
+        assertEquals(fs.getPath("../x"), fs.getPath("a/../../x").normalize());
+    }
+
+    @Test
+    public void startsWith_EndsWith() {
+        S3Path p = fs.getPath("/a/b/c");
+        assertTrue(p.startsWith(fs.getPath("/a/b")));
+        assertTrue(p.startsWith("/a"));
+        assertFalse(p.startsWith(fs.getPath("a/b")));
+        assertFalse(p.startsWith(fs.getPath("/a/bc")));
+        assertTrue(p.endsWith(fs.getPath("b/c")));
+        assertTrue(p.endsWith("/a/b/c"));
+        assertFalse(p.endsWith(fs.getPath("/b/c")));
+    }
+
+    @Test
+    public void toUri() {
+        assertEquals(URI.create("s3://b/a/b%20c.txt"), fs.getPath("a/b c.txt").toUri());
+        assertEquals(URI.create("s3://b/"), fs.getPath("/").toUri());
+    }
+
+    @Test
+    public void pathMatcher() {
+        PathMatcher csv = fs.getPathMatcher("glob:*.{csv,tsv}");
+        assertTrue(csv.matches(fs.getPath("a.csv")));
+        assertTrue(csv.matches(fs.getPath("a.tsv")));
+        assertFalse(csv.matches(fs.getPath("a.txt")));
+        assertFalse(csv.matches(fs.getPath("x/a.csv")));
+
+        PathMatcher deep = fs.getPathMatcher("glob:/data/**/part-?[0-9].parquet");
+        assertTrue(deep.matches(fs.getPath("/data/2024/01/part-a1.parquet")));
+        assertFalse(deep.matches(fs.getPath("/data/2024/01/part-ab.parquet")));
+
+        PathMatcher regex = fs.getPathMatcher("regex:.*\\.log");
+        assertTrue(regex.matches(Path.of("x.log")));
+    }
+}
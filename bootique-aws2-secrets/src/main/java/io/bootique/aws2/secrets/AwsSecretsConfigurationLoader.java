@@ -80,7 +80,12 @@ public class AwsSecretsConfigurationLoader implements JsonConfigurationLoader {
             return mutableInput;
         }
 
+        // this AwsConfig is not shared with the rest of the app, so must close its HTTP clients after loading secrets
         AwsConfig config = configFactory.config(AwsConfigFactory.class, "aws").createConfig(injector);
-        return secretsFactory.updateConfiguration(mutableInput, config, jsonMapper, transformers, bootLogger);
+        try {
+            return secretsFactory.updateConfiguration(mutableInput, config, jsonMapper, transformers, bootLogger);
+        } finally {
+            config.shutdown();
+        }
     }
 }
@@ -25,6 +25,7 @@ import io.bootique.annotation.BQConfigProperty;
 import io.bootique.aws2.AwsConfig;
 import io.bootique.aws2.AwsServiceFactory;
 import io.bootique.log.BootLogger;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import java.util.Map;
@@ -55,6 +56,18 @@ public class AwsSecretsFactory extends AwsServiceFactory {
         return configure(SecretsManagerClient.builder(), config).build();
     }
 
+    SdkHttpClient getHttpClient(AwsConfig config) {
+        return resolveHttpClient(config);
+    }
+
+    /**
+     * @since 4.0
+     */
+    @Override
+    protected String getBulkheadName() {
+        return "SecretsManager";
+    }
+
     public JsonNode updateConfiguration(
             JsonNode mutableInput,
             AwsConfig config,
@@ -64,12 +77,14 @@ public class AwsSecretsFactory extends AwsServiceFactory {
 
         if (!isEmpty()) {
             // note that we are not using singleton AWSSecretsManager. Since "updateConfiguration" is intended to be
-            // called from JsonConfigurationLoader, it needs to create most of its AWS machinery right on the spot.
-            SecretsManagerClient secretsManager = createSecretsManager(config);
+            // called from JsonConfigurationLoader, it needs to create most of its AWS machinery right on the spot,
+            // and then dispose of it
+            try (SecretsManagerClient secretsManager = createSecretsManager(config)) {
 
-            // ignoring secret key names... They are used purely for reference when overriding configuration.
-            for (AwsSecretFactory configFactory : secrets.values()) {
-                mutableInput = configFactory.updateConfiguration(bootLogger, secretsManager, jsonMapper, transformers, mutableInput);
+                // ignoring secret key names... They are used purely for reference when overriding configuration.
+                for (AwsSecretFactory configFactory : secrets.values()) {
+                    mutableInput = configFactory.updateConfiguration(bootLogger, secretsManager, jsonMapper, transformers, mutableInput);
+                }
             }
         }
 
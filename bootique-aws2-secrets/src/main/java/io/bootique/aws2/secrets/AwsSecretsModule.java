@@ -22,10 +22,12 @@ import io.bootique.BQCoreModule;
 import io.bootique.BQModule;
 import io.bootique.ModuleCrate;
 import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsModule;
 import io.bootique.aws2.secrets.transformer.RDSToHikariDataSourceTransformer;
 import io.bootique.config.ConfigurationFactory;
 import io.bootique.di.Binder;
 import io.bootique.di.Provides;
+import io.bootique.shutdown.ShutdownManager;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import jakarta.inject.Singleton;
@@ -57,11 +59,27 @@ public class AwsSecretsModule implements BQModule {
                 .addTransformer("rds-to-hikari-datasource", RDSToHikariDataSourceTransformer.class);
 
         BQCoreModule.extend(binder).addConfigLoader(AwsSecretsConfigurationLoader.class);
+        AwsModule.extend(binder).addWarmupTarget(SecretsManagerWarmupTarget.class);
     }
 
     @Singleton
     @Provides
-    SecretsManagerClient provideSecretsManager(ConfigurationFactory configFactory, AwsConfig config) {
-        return configFactory.config(AwsSecretsFactory.class, CONFIG_PREFIX).createSecretsManager(config);
+    AwsSecretsFactory provideSecretsFactory(ConfigurationFactory configFactory) {
+        return configFactory.config(AwsSecretsFactory.class, CONFIG_PREFIX);
+    }
+
+    @Singleton
+    @Provides
+    SecretsManagerClient provideSecretsManager(
+            AwsSecretsFactory factory,
+            AwsConfig config,
+            ShutdownManager shutdownManager) {
+
+        SecretsManagerClient client = factory.createSecretsManager(config);
+        shutdownManager.onShutdown(client, c -> {
+            config.awaitInFlightCalls();
+            c.close();
+        });
+        return client;
     }
 }
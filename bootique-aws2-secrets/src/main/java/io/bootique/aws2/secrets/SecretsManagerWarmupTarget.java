@@ -0,0 +1,62 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.secrets;
+
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.warmup.AwsWarmupEndpoint;
+import io.bootique.aws2.warmup.AwsWarmupTarget;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+
+import java.util.List;
+
+/**
+ * Warms up the injectable {@link SecretsManagerClient}.
+ *
+ * @since 4.0
+ */
+public class SecretsManagerWarmupTarget implements AwsWarmupTarget {
+
+    private final Provider<SecretsManagerClient> client;
+    private final AwsSecretsFactory factory;
+    private final AwsConfig config;
+
+    @Inject
+    public SecretsManagerWarmupTarget(Provider<SecretsManagerClient> client, AwsSecretsFactory factory, AwsConfig config) {
+        this.client = client;
+        this.factory = factory;
+        this.config = config;
+    }
+
+    @Override
+    public String getName() {
+        return "secretsmanager";
+    }
+
+    @Override
+    public List<AwsWarmupEndpoint> createClients() {
+        SecretsManagerClient client = this.client.get();
+        return List.of(AwsWarmupEndpoint.of(
+                client.serviceClientConfiguration(),
+                SecretsManagerClient.serviceMetadata(),
+                factory.getHttpClient(config)));
+    }
+}
@@ -19,11 +19,30 @@
 
 package io.bootique.aws2;
 
+import io.bootique.aws2.credentials.CachingCredentialsProvider;
+import io.bootique.aws2.hedging.AwsHedgeBudget;
+import io.bootique.aws2.http.AwsAsyncHttpClientFactory;
+import io.bootique.aws2.http.AwsHttpClientFactory;
+import io.bootique.aws2.interceptor.InFlightCallsInterceptor;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.metrics.MetricPublisher;
 import software.amazon.awssdk.regions.Region;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * @since 3.0
@@ -32,13 +51,46 @@ public class AwsConfig {
 
     private final Region defaultRegion;
     private final AwsCredentialsProvider credentialsProvider;
+    private final AwsHttpClientFactory httpClientFactory;
+    private final SdkHttpClient httpClient;
+    private final List<SdkHttpClient> serviceHttpClients;
+    private final AwsAsyncHttpClientFactory asyncHttpClientFactory;
+    private final AwsExecutionMode executionMode;
+    private final MetricPublisher metricPublisher;
+    private final List<ExecutionInterceptor> executionInterceptors;
+    private final InFlightCallsInterceptor inFlightCalls;
+    private final Duration shutdownGracePeriod;
+    private final AwsHedgeBudget hedgeBudget;
+
+    private volatile long drainDeadline;
+    private volatile SdkEventLoopGroup eventLoopGroup;
+    private volatile SdkAsyncHttpClient asyncHttpClient;
+    private volatile ExecutorService futureCompletionExecutor;
+    private volatile ScheduledExecutorService scheduledExecutor;
 
     public AwsConfig(
             Region defaultRegion,
-            AwsCredentialsProvider credentialsProvider) {
+            AwsCredentialsProvider credentialsProvider,
+            AwsHttpClientFactory httpClientFactory,
+            AwsAsyncHttpClientFactory asyncHttpClientFactory,
+            AwsExecutionMode executionMode,
+            MetricPublisher metricPublisher,
+            List<ExecutionInterceptor> executionInterceptors,
+            Duration shutdownGracePeriod,
+            AwsHedgeBudget hedgeBudget) {
 
         this.defaultRegion = defaultRegion;
         this.credentialsProvider = Objects.requireNonNull(credentialsProvider);
+        this.httpClientFactory = Objects.requireNonNull(httpClientFactory);
+        this.httpClient = httpClientFactory.createHttpClient();
+        this.serviceHttpClients = new CopyOnWriteArrayList<>();
+        this.asyncHttpClientFactory = Objects.requireNonNull(asyncHttpClientFactory);
+        this.executionMode = Objects.requireNonNull(executionMode);
+        this.metricPublisher = metricPublisher;
+        this.executionInterceptors = Objects.requireNonNull(executionInterceptors);
+        this.inFlightCalls = new InFlightCallsInterceptor();
+        this.shutdownGracePeriod = Objects.requireNonNull(shutdownGracePeriod);
+        this.hedgeBudget = Objects.requireNonNull(hedgeBudget);
     }
 
     public AwsCredentialsProvider getCredentialsProvider() {
@@ -48,4 +100,210 @@ public class AwsConfig {
     public Optional<Region> getDefaultRegion() {
         return Optional.ofNullable(defaultRegion);
     }
+
+    /**
+     * @since 4.0
+     */
+    public AwsExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Returns a metric publisher attached to all AWS clients created with this config, if metrics are enabled.
+     *
+     * @since 4.0
+     */
+    public Optional<MetricPublisher> getMetricPublisher() {
+        return Optional.ofNullable(metricPublisher);
+    }
+
+    /**
+     * Returns the runtime-wide budget shared by all hedged AWS calls.
+     *
+     * @since 4.0
+     */
+    public AwsHedgeBudget getHedgeBudget() {
+        return hedgeBudget;
+    }
+
+    /**
+     * Returns an HTTP client shared by all AWS service clients created with this config. Note that the AWS clients
+     * do not close the shared HTTP client when they themselves are closed.
+     *
+     * @since 4.0
+     */
+    public SdkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Creates a dedicated HTTP client for a service that needs transport settings different from the shared client.
+     * Any settings not specified in the service-level factory are taken from the module-level "aws.http"
+     * configuration. The returned client is owned by this config and is closed on shutdown.
+     *
+     * @since 4.0
+     */
+    public SdkHttpClient createHttpClient(AwsHttpClientFactory serviceHttpClientFactory) {
+        SdkHttpClient client = serviceHttpClientFactory.withDefaults(httpClientFactory).createHttpClient();
+        serviceHttpClients.add(client);
+        return client;
+    }
+
+    /**
+     * Returns a non-blocking HTTP client shared by all async AWS service clients created with this config. The client
+     * and its event loop group are created lazily on first access, so apps that only use sync clients do not start
+     * any event loop threads.
+     *
+     * @since 4.0
+     */
+    public SdkAsyncHttpClient getAsyncHttpClient() {
+
+        if (asyncHttpClient == null) {
+            synchronized (this) {
+                if (asyncHttpClient == null) {
+                    SdkEventLoopGroup group = asyncHttpClientFactory.createEventLoopGroup();
+                    this.eventLoopGroup = group;
+                    this.asyncHttpClient = asyncHttpClientFactory.createHttpClient(group);
+                }
+            }
+        }
+
+        return asyncHttpClient;
+    }
+
+    /**
+     * Creates client override configuration builder preconfigured according to this config. Service factories should
+     * use it as a starting point for their client configuration, as the override configuration set on a client builder
+     * replaces (and does not merge with) any previously set configuration.
+     *
+     * @since 4.0
+     */
+    public ClientOverrideConfiguration.Builder createOverrideConfiguration() {
+        ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder();
+
+        if (executionMode == AwsExecutionMode.VIRTUAL_THREADS) {
+            builder.scheduledExecutorService(getScheduledExecutor());
+        }
+
+        if (metricPublisher != null) {
+            builder.addMetricPublisher(metricPublisher);
+        }
+
+        builder.addExecutionInterceptor(inFlightCalls);
+        executionInterceptors.forEach(builder::addExecutionInterceptor);
+
+        return builder;
+    }
+
+    /**
+     * Creates async client configuration according to this config.
+     *
+     * @since 4.0
+     */
+    public ClientAsyncConfiguration createAsyncConfiguration() {
+        ClientAsyncConfiguration.Builder builder = ClientAsyncConfiguration.builder();
+
+        if (executionMode == AwsExecutionMode.VIRTUAL_THREADS) {
+            builder.advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, getFutureCompletionExecutor());
+        }
+
+        return builder.build();
+    }
+
+    private ExecutorService getFutureCompletionExecutor() {
+
+        if (futureCompletionExecutor == null) {
+            synchronized (this) {
+                if (futureCompletionExecutor == null) {
+                    this.futureCompletionExecutor = Executors.newThreadPerTaskExecutor(
+                            Thread.ofVirtual().name("bq-aws-future-", 0).factory());
+                }
+            }
+        }
+
+        return futureCompletionExecutor;
+    }
+
+    private ScheduledExecutorService getScheduledExecutor() {
+
+        if (scheduledExecutor == null) {
+            synchronized (this) {
+                if (scheduledExecutor == null) {
+                    // scheduled tasks (timeouts, retry delays) are short, so a single scheduler thread is enough. Being
+                    // virtual, the thread is not tied to a carrier thread, and doesn't occupy one while idle
+                    this.scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                            Thread.ofVirtual().name("bq-aws-scheduler-", 0).factory());
+                }
+            }
+        }
+
+        return scheduledExecutor;
+    }
+
+    /**
+     * Returns the number of calls in progress made by the clients created with this config.
+     *
+     * @since 4.0
+     */
+    public int getInFlightCalls() {
+        return inFlightCalls.getInFlightCalls();
+    }
+
+    /**
+     * Waits for the calls in progress to complete, for up to the shutdown grace period. Should be invoked by all
+     * shutdown hooks that close AWS clients before closing them. The grace period starts with the first invocation
+     * and is shared by all the subsequent ones, so the shutdown is not delayed by more than the grace period
+     * regardless of the number of hooks.
+     *
+     * @return true if there are no calls in progress, false if the grace period expired before the calls completed
+     * @since 4.0
+     */
+    public boolean awaitInFlightCalls() {
+
+        if (drainDeadline == 0) {
+            synchronized (this) {
+                if (drainDeadline == 0) {
+                    this.drainDeadline = System.nanoTime() + shutdownGracePeriod.toNanos();
+                }
+            }
+        }
+
+        long remainingNanos = drainDeadline - System.nanoTime();
+        return inFlightCalls.awaitInFlightCalls(Duration.ofNanos(Math.max(0, remainingNanos)));
+    }
+
+    /**
+     * Waits for the calls in progress to complete, then closes HTTP clients and credentials cache owned by this
+     * config, and shuts down the executors.
+     *
+     * @since 4.0
+     */
+    public void shutdown() {
+        awaitInFlightCalls();
+
+        serviceHttpClients.forEach(SdkHttpClient::close);
+        httpClient.close();
+
+        // the async client does not own the event loop group, so it must be shut down explicitly
+        if (asyncHttpClient != null) {
+            asyncHttpClient.close();
+        }
+
+        if (eventLoopGroup != null) {
+            eventLoopGroup.eventLoopGroup().shutdownGracefully();
+        }
+
+        if (futureCompletionExecutor != null) {
+            futureCompletionExecutor.shutdown();
+        }
+
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdown();
+        }
+
+        // stop background credentials refresh. Not closing other providers, as they may be shared via DI
+        if (credentialsProvider instanceof CachingCredentialsProvider caching) {
+            caching.close();
+        }
+    }
 }
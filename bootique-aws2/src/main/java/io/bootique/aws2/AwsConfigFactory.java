@@ -21,18 +21,54 @@ package io.bootique.aws2;
 
 import io.bootique.annotation.BQConfig;
 import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.client.AwsClientRegistry;
 import io.bootique.aws2.credentials.AwsCredentialsProviderFactory;
+import io.bootique.aws2.credentials.CredentialsCacheFactory;
 import io.bootique.aws2.credentials.CredentialsProviderChainFactory;
+import io.bootique.aws2.hedging.AwsHedgeBudget;
+import io.bootique.aws2.http.ApacheHttpClientFactory;
+import io.bootique.aws2.http.AwsAsyncHttpClientFactory;
+import io.bootique.aws2.http.AwsHttpClientFactory;
+import io.bootique.aws2.interceptor.OrderedExecutionInterceptor;
+import io.bootique.aws2.jfr.JfrCredentialsProvider;
+import io.bootique.aws2.jfr.JfrExecutionInterceptor;
+import io.bootique.aws2.metrics.AwsMetricsPublisher;
+import io.bootique.aws2.metrics.AwsMetricsRegistry;
+import io.bootique.aws2.region.AwsRegionResolver;
+import io.bootique.aws2.warmup.AwsWarmup;
+import io.bootique.aws2.warmup.AwsWarmupFactory;
+import io.bootique.aws2.warmup.AwsWarmupTarget;
 import io.bootique.di.Injector;
+import io.bootique.di.Key;
+import io.bootique.value.Duration;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.metrics.MetricPublisher;
 import software.amazon.awssdk.regions.Region;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
 
 @BQConfig
 public class AwsConfigFactory {
 
     private String defaultRegion;
+    private List<String> regionProviders;
     private AwsCredentialsProviderFactory credentials;
+    private CredentialsCacheFactory credentialsCache;
+    private AwsHttpClientFactory http;
+    private AwsAsyncHttpClientFactory asyncHttp;
+    private String executionMode;
+    private Boolean metricsEnabled;
+    private Boolean jfrEventsEnabled;
+    private Integer clientCacheSize;
+    private Duration shutdownGracePeriod;
+    private AwsWarmupFactory warmup;
+    private Double hedgeBudget;
 
     @BQConfigProperty("Optional default region to use for AWS calls. Ignored if 'serviceEndpoint' " +
             "is set (in which case 'signingRegion' property is used to mirror AWS conventions")
@@ -40,13 +76,142 @@ public class AwsConfigFactory {
         this.defaultRegion = defaultRegion;
     }
 
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional ordered list of region sources to check when 'defaultRegion' is not set. Supported " +
+            "values are 'env' (AWS_REGION variable or 'aws.region' property), 'profile' (AWS profile config) and " +
+            "'instance' (EC2 instance metadata). The region is resolved once per runtime and shared by all clients. " +
+            "If not set, each AWS client resolves the region on its own.")
+    public void setRegionProviders(List<String> regionProviders) {
+        this.regionProviders = regionProviders;
+    }
+
     @BQConfigProperty
     public void setCredentials(AwsCredentialsProviderFactory credentials) {
         this.credentials = credentials;
     }
 
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("If set, resolved credentials are cached and refreshed in the background before they expire. " +
+            "With the default credentials provider chain, the provider that succeeded last is queried first.")
+    public void setCredentialsCache(CredentialsCacheFactory credentialsCache) {
+        this.credentialsCache = credentialsCache;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("HTTP client shared by all AWS service clients. Allows to tune the connection pool. " +
+            "These settings also serve as defaults for the service-level 'http' configurations")
+    public void setHttp(AwsHttpClientFactory http) {
+        this.http = http;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Non-blocking HTTP client shared by all async AWS service clients. Allows to tune the event " +
+            "loop and the connection pool")
+    public void setAsyncHttp(AwsAsyncHttpClientFactory asyncHttp) {
+        this.asyncHttp = asyncHttp;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Threading model for the executors used by AWS clients. Either 'platform' (default) or " +
+            "'virtual-threads'. The latter runs async future completion and SDK scheduled tasks on virtual threads.")
+    public void setExecutionMode(String executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Whether to collect SDK metrics of AWS calls (latency, retries, connection pool usage) into " +
+            "the injectable AwsMetricsRegistry. The default is 'true'.")
+    public void setMetricsEnabled(Boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Whether AWS clients should emit JFR events for API calls, retries and credentials resolution. " +
+            "The events are only produced while a JFR recording is active. The default is 'true'.")
+    public void setJfrEventsEnabled(Boolean jfrEventsEnabled) {
+        this.jfrEventsEnabled = jfrEventsEnabled;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Max number of AWS clients kept in the AwsClientRegistry cache (e.g. S3 clients for different " +
+            "regions created via S3ClientFactory builders 'buildShared()'). Least recently used clients above this limit " +
+            "are evicted, and closed once they are no longer leased. " +
+            "The default is 64.")
+    public void setClientCacheSize(Integer clientCacheSize) {
+        this.clientCacheSize = clientCacheSize;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("On shutdown, how long to wait for the AWS calls in progress to complete before closing the " +
+            "clients and the connection pools. The default is 5s.")
+    public void setShutdownGracePeriod(Duration shutdownGracePeriod) {
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("If set, AWS clients are created, credentials are resolved and HTTP connections are opened in " +
+            "the background on startup, so that the first calls to AWS do not pay for it.")
+    public void setWarmup(AwsWarmupFactory warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Max number of hedged AWS calls as a fraction of all the calls made with hedging enabled, " +
+            "shared by all services. Ensures that hedging can't significantly increase the load on AWS when a " +
+            "service slows down as a whole. The default is 0.05.")
+    public void setHedgeBudget(Double hedgeBudget) {
+        this.hedgeBudget = hedgeBudget;
+    }
+
     public AwsConfig createConfig(Injector injector) {
-        return new AwsConfig(createDefaultRegion(), createCredentialsProvider(injector));
+        return new AwsConfig(
+                createDefaultRegion(injector),
+                createCredentialsProvider(injector),
+                createHttpClientFactory(),
+                createAsyncHttpClientFactory(),
+                createExecutionMode(),
+                createMetricPublisher(injector),
+                createExecutionInterceptors(injector),
+                createShutdownGracePeriod(),
+                createHedgeBudget());
+    }
+
+    /**
+     * @since 4.0
+     */
+    public AwsClientRegistry createClientRegistry() {
+        return new AwsClientRegistry(clientCacheSize != null ? clientCacheSize : 64);
+    }
+
+    /**
+     * Starts the clients warm-up if it is configured. The arguments are only resolved when the warm-up is enabled.
+     *
+     * @since 4.0
+     */
+    public AwsWarmup createWarmup(Supplier<AwsConfig> config, Supplier<Set<AwsWarmupTarget>> targets) {
+        return warmup != null ? warmup.create(config.get(), targets.get()) : AwsWarmup.none();
     }
 
     protected AwsCredentialsProvider createCredentialsProvider(Injector injector) {
@@ -55,7 +220,103 @@ public class AwsConfigFactory {
                 ? this.credentials
                 : new CredentialsProviderChainFactory();
 
-        return factory.create(injector);
+        if (credentialsCache == null) {
+            AwsCredentialsProvider provider = factory.create(injector);
+            return isJfrEventsEnabled() ? new JfrCredentialsProvider(provider) : provider;
+        }
+
+        // unwrap the chain, so that the cache could track the provider that succeeded last
+        List<AwsCredentialsProvider> providers = factory instanceof CredentialsProviderChainFactory chainFactory
+                ? chainFactory.createProviders(injector)
+                : List.of(factory.create(injector));
+
+        // wrapping each provider separately to report which one resolved the credentials
+        return credentialsCache.create(isJfrEventsEnabled()
+                ? providers.stream().<AwsCredentialsProvider>map(JfrCredentialsProvider::new).toList()
+                : providers);
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected AwsHttpClientFactory createHttpClientFactory() {
+        return this.http != null ? this.http : new ApacheHttpClientFactory();
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected AwsAsyncHttpClientFactory createAsyncHttpClientFactory() {
+        return this.asyncHttp != null ? this.asyncHttp : new AwsAsyncHttpClientFactory();
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected AwsExecutionMode createExecutionMode() {
+        return executionMode != null ? AwsExecutionMode.of(executionMode) : AwsExecutionMode.PLATFORM;
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected java.time.Duration createShutdownGracePeriod() {
+        return shutdownGracePeriod != null ? shutdownGracePeriod.getDuration() : java.time.Duration.ofSeconds(5);
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected AwsHedgeBudget createHedgeBudget() {
+        return new AwsHedgeBudget(hedgeBudget != null ? hedgeBudget : 0.05);
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected MetricPublisher createMetricPublisher(Injector injector) {
+        return metricsEnabled == null || metricsEnabled
+                ? new AwsMetricsPublisher(injector.getInstance(AwsMetricsRegistry.class))
+                : null;
+    }
+
+    /**
+     * @since 4.0
+     */
+    protected List<ExecutionInterceptor> createExecutionInterceptors(Injector injector) {
+
+        List<ExecutionInterceptor> interceptors = new ArrayList<>();
+
+        // JFR interceptor goes first to span the entire call including the time spent in other interceptors
+        if (isJfrEventsEnabled()) {
+            interceptors.add(new JfrExecutionInterceptor());
+        }
+
+        injector.getInstance(Key.getSetOf(OrderedExecutionInterceptor.class))
+                .stream()
+                .sorted(Comparator.comparing(OrderedExecutionInterceptor::getOrder))
+                .map(OrderedExecutionInterceptor::getInterceptor)
+                .forEach(interceptors::add);
+
+        return interceptors;
+    }
+
+    private boolean isJfrEventsEnabled() {
+        return jfrEventsEnabled == null || jfrEventsEnabled;
+    }
+
+    /**
+     * Returns the region from the config, or, if not set, from the configured region providers.
+     *
+     * @since 4.0
+     */
+    protected Region createDefaultRegion(Injector injector) {
+        Region region = createDefaultRegion();
+        if (region != null || regionProviders == null || regionProviders.isEmpty()) {
+            return region;
+        }
+
+        return injector.getInstance(AwsRegionResolver.class).resolve(regionProviders).orElse(null);
     }
 
     protected Region createDefaultRegion() {
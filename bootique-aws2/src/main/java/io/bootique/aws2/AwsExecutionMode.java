@@ -0,0 +1,63 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2;
+
+import java.util.Objects;
+
+/**
+ * Defines what kind of threads are used by the executors that Bootique provides to AWS clients.
+ *
+ * @since 4.0
+ */
+public enum AwsExecutionMode {
+
+    /**
+     * Use AWS SDK default executors backed by platform threads.
+     */
+    PLATFORM("platform"),
+
+    /**
+     * Run async future completion and scheduled SDK tasks on virtual threads. This allows the app to block in the
+     * future callbacks, and to scale to a large number of concurrent calls with blocking clients.
+     */
+    VIRTUAL_THREADS("virtual-threads");
+
+    private final String configName;
+
+    AwsExecutionMode(String configName) {
+        this.configName = configName;
+    }
+
+    public static AwsExecutionMode of(String configName) {
+        Objects.requireNonNull(configName);
+
+        for (AwsExecutionMode m : values()) {
+            if (m.configName.equalsIgnoreCase(configName)) {
+                return m;
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported AWS execution mode: '" + configName + "'. Expected one of 'platform', 'virtual-threads'");
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+}
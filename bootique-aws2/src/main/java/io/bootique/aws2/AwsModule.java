@@ -21,16 +21,29 @@ package io.bootique.aws2;
 
 import io.bootique.BQModule;
 import io.bootique.ModuleCrate;
+import io.bootique.aws2.client.AwsClientFactoryFactory;
+import io.bootique.aws2.client.AwsClientRegistry;
+import io.bootique.aws2.client.AwsClients;
+import io.bootique.aws2.metrics.AwsMetricsRegistry;
+import io.bootique.aws2.region.AwsRegionResolver;
+import io.bootique.aws2.warmup.AwsWarmup;
 import io.bootique.config.ConfigurationFactory;
 import io.bootique.di.Binder;
 import io.bootique.di.Injector;
 import io.bootique.di.Provides;
+import io.bootique.shutdown.ShutdownManager;
+import io.bootique.type.TypeRef;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 
 import jakarta.inject.Singleton;
 
+import java.util.Map;
+
 public class AwsModule implements BQModule {
 
-    private static final String CONFIG_PREFIX = "aws";
+    static final String CONFIG_PREFIX = "aws";
+    static final String CLIENTS_CONFIG_PREFIX = "awsclients";
 
     public static AwsModuleExtender extend(Binder binder) {
         return new AwsModuleExtender(binder);
@@ -41,17 +54,75 @@ public class AwsModule implements BQModule {
         return ModuleCrate.of(this)
                 .description("Provides integration with AWS client v2.")
                 .config(CONFIG_PREFIX, AwsConfigFactory.class)
+                .config(CLIENTS_CONFIG_PREFIX, new TypeRef<Map<String, AwsClientFactoryFactory>>() {
+                }.getType())
                 .build();
     }
 
     @Override
     public void configure(Binder binder) {
         AwsModule.extend(binder).initAllExtensions();
+        binder.bind(AwsWarmup.class).toProvider(AwsWarmupProvider.class).initOnStartup();
+    }
+
+    @Provides
+    @Singleton
+    AwsConfig provideConfig(ConfigurationFactory configFactory, Injector injector, ShutdownManager shutdownManager) {
+        AwsConfig config = configFactory.config(AwsConfigFactory.class, CONFIG_PREFIX).createConfig(injector);
+        shutdownManager.onShutdown(config, AwsConfig::shutdown);
+        return config;
+    }
+
+    @Provides
+    @Singleton
+    AwsClientRegistry provideClientRegistry(
+            ConfigurationFactory configFactory,
+            AwsConfig config,
+            ShutdownManager shutdownManager) {
+
+        AwsClientRegistry registry = configFactory.config(AwsConfigFactory.class, CONFIG_PREFIX).createClientRegistry();
+        shutdownManager.onShutdown(registry, r -> {
+            config.awaitInFlightCalls();
+            r.close();
+        });
+        return registry;
+    }
+
+    @Provides
+    @Singleton
+    AwsClients provideClients(ConfigurationFactory configFactory, AwsConfig config, ShutdownManager shutdownManager) {
+
+        Map<String, AwsClientFactoryFactory> configs = configFactory.config(
+                new TypeRef<Map<String, AwsClientFactoryFactory>>() {
+                },
+                CLIENTS_CONFIG_PREFIX);
+
+        AwsClients clients = new AwsClients(configs != null ? configs : Map.of(), config);
+        shutdownManager.onShutdown(clients, AwsClients::shutdown);
+        return clients;
+    }
+
+    @Provides
+    @Singleton
+    AwsRegionResolver provideRegionResolver() {
+        return new AwsRegionResolver();
+    }
+
+    @Provides
+    @Singleton
+    AwsMetricsRegistry provideMetricsRegistry() {
+        return new AwsMetricsRegistry();
+    }
+
+    @Provides
+    @Singleton
+    SdkHttpClient provideHttpClient(AwsConfig config) {
+        return config.getHttpClient();
     }
 
     @Provides
     @Singleton
-    AwsConfig provideConfig(ConfigurationFactory configFactory, Injector injector) {
-        return configFactory.config(AwsConfigFactory.class, CONFIG_PREFIX).createConfig(injector);
+    SdkAsyncHttpClient provideAsyncHttpClient(AwsConfig config) {
+        return config.getAsyncHttpClient();
     }
 }
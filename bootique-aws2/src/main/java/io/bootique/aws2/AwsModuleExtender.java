@@ -21,9 +21,14 @@ package io.bootique.aws2;
 import io.bootique.ModuleExtender;
 import io.bootique.aws2.credentials.OrderedCredentialsProvider;
 import io.bootique.aws2.credentials.ProfileCredentialsProviderFactory;
+import io.bootique.aws2.credentials.SharedProfileFileSupplier;
+import io.bootique.aws2.interceptor.OrderedExecutionInterceptor;
+import io.bootique.aws2.interceptor.TimingExecutionInterceptor;
+import io.bootique.aws2.warmup.AwsWarmupTarget;
 import io.bootique.di.Binder;
 import io.bootique.di.SetBuilder;
 import software.amazon.awssdk.auth.credentials.*;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
 
 /**
  * @since 2.0
@@ -35,7 +40,14 @@ public class AwsModuleExtender extends ModuleExtender<AwsModuleExtender> {
     public static final int INSTANCE_CREDENTIALS_PROVIDER_ORDER = LAMBDA_CREDENTIALS_PROVIDER_ORDER + 10;
     public static final int CONTAINER_CREDENTIALS_PROVIDER_ORDER = INSTANCE_CREDENTIALS_PROVIDER_ORDER + 10;
 
+    /**
+     * @since 4.0
+     */
+    public static final int TIMING_EXECUTION_INTERCEPTOR_ORDER = 0;
+
     private SetBuilder<OrderedCredentialsProvider> orderedCredentialsProviders;
+    private SetBuilder<OrderedExecutionInterceptor> orderedExecutionInterceptors;
+    private SetBuilder<AwsWarmupTarget> warmupTargets;
 
     public AwsModuleExtender(Binder binder) {
         super(binder);
@@ -44,6 +56,8 @@ public class AwsModuleExtender extends ModuleExtender<AwsModuleExtender> {
     @Override
     public AwsModuleExtender initAllExtensions() {
         contributeOrderedCredentialsProviders();
+        contributeOrderedExecutionInterceptors();
+        contributeWarmupTargets();
         return this;
     }
 
@@ -96,7 +110,10 @@ public class AwsModuleExtender extends ModuleExtender<AwsModuleExtender> {
      * @see ProfileCredentialsProviderFactory
      */
     public AwsModuleExtender addProfileCredentialsProvider(int order) {
-        return addCredentialsProvider(ProfileCredentialsProvider.create(), order);
+        ProfileCredentialsProvider provider = ProfileCredentialsProvider.builder()
+                .profileFile(SharedProfileFileSupplier.defaultSupplier())
+                .build();
+        return addCredentialsProvider(provider, order);
     }
 
     public AwsModuleExtender addSystemPropertiesCredentialsProvider(int order) {
@@ -123,7 +140,57 @@ public class AwsModuleExtender extends ModuleExtender<AwsModuleExtender> {
         return this;
     }
 
+    /**
+     * Registers an SDK execution interceptor applied to all AWS clients created via Bootique. Interceptors are
+     * invoked in the ascending order of their "order" values.
+     *
+     * @since 4.0
+     */
+    public AwsModuleExtender addExecutionInterceptor(ExecutionInterceptor interceptor, int order) {
+        contributeOrderedExecutionInterceptors().addInstance(new OrderedExecutionInterceptor(interceptor, order));
+        return this;
+    }
+
+    /**
+     * Registers an interceptor that measures the time each request attempt spends on the wire. The results are
+     * available via {@link io.bootique.aws2.metrics.AwsMetricsRegistry}.
+     *
+     * @see #TIMING_EXECUTION_INTERCEPTOR_ORDER
+     * @since 4.0
+     */
+    public AwsModuleExtender addTimingExecutionInterceptor() {
+        return addExecutionInterceptor(new TimingExecutionInterceptor(), TIMING_EXECUTION_INTERCEPTOR_ORDER);
+    }
+
+    /**
+     * Registers a group of clients that can be warmed up on startup, when "aws.warmup" is configured.
+     *
+     * @since 4.0
+     */
+    public AwsModuleExtender addWarmupTarget(AwsWarmupTarget target) {
+        contributeWarmupTargets().addInstance(target);
+        return this;
+    }
+
+    /**
+     * Registers a group of clients that can be warmed up on startup, when "aws.warmup" is configured.
+     *
+     * @since 4.0
+     */
+    public AwsModuleExtender addWarmupTarget(Class<? extends AwsWarmupTarget> targetType) {
+        contributeWarmupTargets().add(targetType);
+        return this;
+    }
+
     protected SetBuilder<OrderedCredentialsProvider> contributeOrderedCredentialsProviders() {
         return orderedCredentialsProviders != null ? orderedCredentialsProviders : (orderedCredentialsProviders = newSet(OrderedCredentialsProvider.class));
     }
+
+    protected SetBuilder<OrderedExecutionInterceptor> contributeOrderedExecutionInterceptors() {
+        return orderedExecutionInterceptors != null ? orderedExecutionInterceptors : (orderedExecutionInterceptors = newSet(OrderedExecutionInterceptor.class));
+    }
+
+    protected SetBuilder<AwsWarmupTarget> contributeWarmupTargets() {
+        return warmupTargets != null ? warmupTargets : (warmupTargets = newSet(AwsWarmupTarget.class));
+    }
 }
@@ -20,9 +20,22 @@ package io.bootique.aws2;
 
 import io.bootique.annotation.BQConfig;
 import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.bulkhead.AwsBulkheadFactory;
+import io.bootique.aws2.bulkhead.AwsBulkheadInterceptor;
+import io.bootique.aws2.hedging.AwsHedging;
+import io.bootique.aws2.hedging.AwsHedgingFactory;
+import io.bootique.aws2.http.AwsHttpClientFactory;
+import io.bootique.aws2.retry.AwsRetryStrategyFactory;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.retries.api.RetryStrategy;
 
 import java.net.URI;
+import java.util.Optional;
 
 /**
  * A common superclass of factories for various AWS services such as S3, etc. Used by other "bootique-aws-*" modules or
@@ -34,6 +47,17 @@ import java.net.URI;
 public abstract class AwsServiceFactory {
 
     private URI endpointOverride;
+    private AwsHttpClientFactory http;
+    private AwsRetryStrategyFactory retry;
+    private AwsBulkheadFactory bulkhead;
+    private Duration apiCallTimeout;
+    private Duration apiCallAttemptTimeout;
+    private AwsHedgingFactory hedging;
+
+    private volatile SdkHttpClient httpClient;
+    private volatile RetryStrategy retryStrategy;
+    private volatile AwsBulkheadInterceptor bulkheadInterceptor;
+    private volatile AwsHedging hedgingInstance;
 
     @BQConfigProperty("Specific service endpoint, overriding the default endpoint derived from the configuration region. Useful local tests.")
     public void setEndpointOverride(URI endpointOverride) {
@@ -41,10 +65,111 @@ public abstract class AwsServiceFactory {
     }
 
     /**
-     * Configures common parts of each AWS client such as the default region and custom service endpoint.
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional service-specific HTTP client settings. Any settings not specified here are taken from " +
+            "'aws.http'. If set, the service gets its own connection pool instead of the shared one. Only applies to " +
+            "sync clients. Async clients always use the shared 'aws.asyncHttp' client.")
+    public void setHttp(AwsHttpClientFactory http) {
+        this.http = http;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional retry settings for this service. The retry strategy (including its retry quota and " +
+            "the adaptive rate limiter) is shared by all clients of the service. If not set, SDK defaults are used.")
+    public void setRetry(AwsRetryStrategyFactory retry) {
+        this.retry = retry;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional limit of concurrent calls to this service, shared by all clients of the service. " +
+            "Protects other services and workloads from being starved of connections by a single runaway workload.")
+    public void setBulkhead(AwsBulkheadFactory bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional max time of an API call, including all the retry attempts. If not set, calls are not " +
+            "limited in time, apart from the HTTP client timeouts.")
+    public void setApiCallTimeout(Duration apiCallTimeout) {
+        this.apiCallTimeout = apiCallTimeout;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional max time of a single attempt of an API call. If exceeded, the attempt is aborted and " +
+            "may be retried per the retry settings.")
+    public void setApiCallAttemptTimeout(Duration apiCallAttemptTimeout) {
+        this.apiCallAttemptTimeout = apiCallAttemptTimeout;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional hedging of idempotent calls made via AwsHedging. If a call has not responded within " +
+            "a percentile of the recent latency, a second call is started, and the first response wins.")
+    public void setHedging(AwsHedgingFactory hedging) {
+        this.hedging = hedging;
+    }
+
+    /**
+     * Returns a helper to make hedged calls to this service. If hedging is not configured, the returned helper calls
+     * AWS directly. The helper is created once and shared by all the clients of this service.
+     *
+     * @since 4.0
+     */
+    public AwsHedging resolveHedging(AwsConfig config) {
+
+        if (hedging == null) {
+            return AwsHedging.none();
+        }
+
+        if (hedgingInstance == null) {
+            synchronized (this) {
+                if (hedgingInstance == null) {
+                    this.hedgingInstance = hedging.create(config);
+                }
+            }
+        }
+
+        return hedgingInstance;
+    }
+
+    /**
+     * Configures common parts of each AWS client such as the default region, custom service endpoint and the shared
+     * HTTP client.
+     */
+    protected <Builder extends AwsClientBuilder<Builder, Service> & AwsSyncClientBuilder<Builder, Service>, Service> Builder configure(Builder builder, AwsConfig config) {
+        builder.httpClient(resolveHttpClient(config));
+        return configureCommon(builder, config, getBulkheadName());
+    }
+
+    /**
+     * Configures common parts of each async AWS client such as the default region, custom service endpoint and the
+     * shared non-blocking HTTP client.
+     *
+     * @since 4.0
      */
-    protected <Builder extends AwsClientBuilder<Builder, Service>, Service> Builder configure(Builder builder, AwsConfig config) {
+    protected <Builder extends AwsClientBuilder<Builder, Service> & AwsAsyncClientBuilder<Builder, Service>, Service> Builder configureAsync(Builder builder, AwsConfig config) {
+        builder.httpClient(config.getAsyncHttpClient());
+        builder.asyncConfiguration(config.createAsyncConfiguration());
+        return configureCommon(builder, config, getBulkheadName());
+    }
+
+    /**
+     * @param bulkheadName the name of the service bulkhead used for metrics and error messages
+     * @since 4.0
+     */
+    protected <Builder extends AwsClientBuilder<Builder, Service>, Service> Builder configureCommon(Builder builder, AwsConfig config, String bulkheadName) {
         builder.credentialsProvider(config.getCredentialsProvider());
+        builder.overrideConfiguration(createOverrideConfiguration(config, bulkheadName).build());
 
         // use service-specific endpoint config if set explicitly, otherwise use region from the common config
         if (endpointOverride != null) {
@@ -54,4 +179,115 @@ public abstract class AwsServiceFactory {
         config.getDefaultRegion().ifPresent(builder::region);
         return builder;
     }
+
+    /**
+     * Creates a client override configuration. Subclasses may override this method to customize the configuration,
+     * and should start with the builder returned by the superclass.
+     *
+     * @since 4.0
+     */
+    protected ClientOverrideConfiguration.Builder createOverrideConfiguration(AwsConfig config, String bulkheadName) {
+        ClientOverrideConfiguration.Builder builder = config.createOverrideConfiguration();
+        resolveRetryStrategy().ifPresent(builder::retryStrategy);
+        resolveBulkheadInterceptor(config, bulkheadName).ifPresent(builder::addExecutionInterceptor);
+
+        if (apiCallTimeout != null) {
+            builder.apiCallTimeout(apiCallTimeout.getDuration());
+        }
+
+        if (apiCallAttemptTimeout != null) {
+            builder.apiCallAttemptTimeout(apiCallAttemptTimeout.getDuration());
+        }
+
+        return builder;
+    }
+
+    /**
+     * Returns the retry strategy for this service, if the retry settings are configured. The strategy is created once
+     * and shared by all the clients of this service, so that they all back off together when throttled.
+     *
+     * @since 4.0
+     */
+    protected Optional<RetryStrategy> resolveRetryStrategy() {
+
+        if (retry == null) {
+            return Optional.empty();
+        }
+
+        if (retryStrategy == null) {
+            synchronized (this) {
+                if (retryStrategy == null) {
+                    this.retryStrategy = retry.create();
+                }
+            }
+        }
+
+        return Optional.of(retryStrategy);
+    }
+
+    /**
+     * Returns an interceptor applying this service bulkhead, if the bulkhead is configured. The bulkhead is created
+     * once and shared by all the clients of this service.
+     *
+     * @since 4.0
+     */
+    protected Optional<AwsBulkheadInterceptor> resolveBulkheadInterceptor(AwsConfig config, String bulkheadName) {
+
+        if (bulkhead == null) {
+            return Optional.empty();
+        }
+
+        if (bulkheadInterceptor == null) {
+            synchronized (this) {
+                if (bulkheadInterceptor == null) {
+                    this.bulkheadInterceptor = AwsBulkheadInterceptor.of(bulkhead.create(bulkheadName, config));
+                }
+            }
+        }
+
+        return Optional.of(bulkheadInterceptor);
+    }
+
+    /**
+     * Returns the default name of this service bulkhead used for metrics and error messages. Subclasses may override
+     * it to return a more user-friendly name.
+     *
+     * @since 4.0
+     */
+    protected String getBulkheadName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Returns whether this service has its own HTTP settings.
+     *
+     * @since 4.0
+     */
+    protected boolean isHttpConfigured() {
+        return http != null;
+    }
+
+    /**
+     * Returns either a shared HTTP client from the AwsConfig, or a dedicated HTTP client for this service, if the
+     * service has its own HTTP settings.
+     *
+     * @since 4.0
+     */
+    protected SdkHttpClient resolveHttpClient(AwsConfig config) {
+
+        if (http == null) {
+            return config.getHttpClient();
+        }
+
+        // create the dedicated client once, and reuse it for all the clients of this service
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    this.httpClient = config.createHttpClient(http);
+                }
+            }
+        }
+
+        return httpClient;
+    }
 }
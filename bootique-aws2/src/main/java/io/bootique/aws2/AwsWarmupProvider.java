@@ -0,0 +1,53 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2;
+
+import io.bootique.aws2.warmup.AwsWarmup;
+import io.bootique.aws2.warmup.AwsWarmupTarget;
+import io.bootique.config.ConfigurationFactory;
+import io.bootique.di.Injector;
+import io.bootique.di.Key;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+/**
+ * Starts the AWS clients warm-up. Bound to be initialized on startup. Does not create any AWS objects unless the
+ * warm-up is configured.
+ *
+ * @since 4.0
+ */
+class AwsWarmupProvider implements Provider<AwsWarmup> {
+
+    private final ConfigurationFactory configFactory;
+    private final Injector injector;
+
+    @Inject
+    AwsWarmupProvider(ConfigurationFactory configFactory, Injector injector) {
+        this.configFactory = configFactory;
+        this.injector = injector;
+    }
+
+    @Override
+    public AwsWarmup get() {
+        return configFactory.config(AwsConfigFactory.class, AwsModule.CONFIG_PREFIX).createWarmup(
+                () -> injector.getInstance(AwsConfig.class),
+                () -> injector.getInstance(Key.getSetOf(AwsWarmupTarget.class)));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.bulkhead;
+
+import io.bootique.aws2.metrics.AwsBulkheadMetrics;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent calls to an AWS service (or a part of it, such as an S3 bucket), so that a single
+ * runaway workload can not take over all the pooled connections and starve the rest of the app.
+ *
+ * @since 4.0
+ */
+public class AwsBulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AwsBulkheadMetrics metrics;
+
+    public AwsBulkhead(String name, int maxConcurrentCalls, Duration maxWait, AwsBulkheadMetrics metrics) {
+
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("'maxConcurrentCalls' must be positive: " + maxConcurrentCalls);
+        }
+
+        this.name = Objects.requireNonNull(name);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public AwsBulkheadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Acquires a permit for a single call, waiting for up to "maxWait" for one to become available.
+     *
+     * @throws AwsBulkheadFullException if no permit became available within "maxWait"
+     */
+    public void acquire() {
+
+        // fast path that doesn't read the clock
+        if (permits.tryAcquire()) {
+            metrics.recordAcquired(0);
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = maxWaitNanos > 0 && permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.recordRejected((System.nanoTime() - t0) / 1000);
+            throw new AwsBulkheadFullException("Interrupted while waiting for bulkhead '" + name + "'");
+        }
+
+        long waitMicros = (System.nanoTime() - t0) / 1000;
+        if (!acquired) {
+            metrics.recordRejected(waitMicros);
+            throw new AwsBulkheadFullException("Bulkhead '" + name + "' is full: " + maxConcurrentCalls + " calls in progress");
+        }
+
+        metrics.recordAcquired(waitMicros);
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
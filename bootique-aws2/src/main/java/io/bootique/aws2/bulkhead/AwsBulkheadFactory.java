@@ -0,0 +1,71 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.bulkhead;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.metrics.AwsBulkheadMetrics;
+import io.bootique.aws2.metrics.AwsMetricsPublisher;
+import io.bootique.value.Duration;
+
+import java.util.Objects;
+
+/**
+ * @since 4.0
+ */
+@BQConfig("Limits concurrent calls to an AWS service or an S3 bucket")
+public class AwsBulkheadFactory {
+
+    private Integer maxConcurrentCalls;
+    private Duration maxWait;
+
+    @BQConfigProperty("Max number of calls in progress at any given moment. Required.")
+    public AwsBulkheadFactory setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        return this;
+    }
+
+    @BQConfigProperty("Max time a call would wait for a permit when the bulkhead is full, before failing with " +
+            "AwsBulkheadFullException. For async clients, the wait blocks the calling thread. The default is 0, " +
+            "i.e. the calls are rejected immediately.")
+    public AwsBulkheadFactory setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    public AwsBulkhead create(String name, AwsConfig config) {
+        Objects.requireNonNull(maxConcurrentCalls, "'maxConcurrentCalls' is not set");
+        return new AwsBulkhead(
+                name,
+                maxConcurrentCalls,
+                maxWait != null ? maxWait.getDuration() : java.time.Duration.ZERO,
+                createMetrics(name, config));
+    }
+
+    protected AwsBulkheadMetrics createMetrics(String name, AwsConfig config) {
+
+        // register with the runtime metrics registry, unless the metrics are disabled
+        return config.getMetricPublisher()
+                .filter(p -> p instanceof AwsMetricsPublisher)
+                .map(p -> ((AwsMetricsPublisher) p).getRegistry().bulkheadMetrics(name))
+                .orElseGet(() -> new AwsBulkheadMetrics(name));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.bulkhead;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An execution interceptor that runs AWS calls through a bulkhead. The permit is acquired before the first attempt is
+ * sent, and is held through the retries until the call completes.
+ *
+ * @since 4.0
+ */
+public class AwsBulkheadInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<AwsBulkhead> ACQUIRED_BULKHEAD = new ExecutionAttribute<>("BootiqueAcquiredBulkhead");
+
+    private final Function<SdkRequest, AwsBulkhead> bulkheadResolver;
+
+    /**
+     * Creates an interceptor that runs all calls through a single bulkhead.
+     */
+    public static AwsBulkheadInterceptor of(AwsBulkhead bulkhead) {
+        return new AwsBulkheadInterceptor(r -> bulkhead);
+    }
+
+    /**
+     * Creates an interceptor that runs calls to the S3 buckets from the map through their dedicated bulkheads, and all
+     * other calls through the default bulkhead. The default bulkhead may be null, meaning other calls are not limited.
+     */
+    public static AwsBulkheadInterceptor ofBuckets(AwsBulkhead defaultBulkhead, Map<String, AwsBulkhead> bucketBulkheads) {
+
+        if (bucketBulkheads.isEmpty()) {
+            return new AwsBulkheadInterceptor(r -> defaultBulkhead);
+        }
+
+        return new AwsBulkheadInterceptor(r -> r
+                .getValueForField("Bucket", String.class)
+                .map(bucketBulkheads::get)
+                .orElse(defaultBulkhead));
+    }
+
+    /**
+     * @param bulkheadResolver a function returning a bulkhead for a given request, or null if the request should
+     *                         not be limited
+     */
+    public AwsBulkheadInterceptor(Function<SdkRequest, AwsBulkhead> bulkheadResolver) {
+        this.bulkheadResolver = bulkheadResolver;
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+
+        // acquiring here and not in "beforeExecution", as the SDK only invokes the failure callback for the errors
+        // thrown after this point. Retry attempts reuse the permit acquired by the first attempt.
+        if (executionAttributes.getAttribute(ACQUIRED_BULKHEAD) != null) {
+            return;
+        }
+
+        AwsBulkhead bulkhead = bulkheadResolver.apply(context.request());
+        if (bulkhead != null) {
+            bulkhead.acquire();
+            executionAttributes.putAttribute(ACQUIRED_BULKHEAD, bulkhead);
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        release(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        release(executionAttributes);
+    }
+
+    private void release(ExecutionAttributes executionAttributes) {
+        AwsBulkhead bulkhead = executionAttributes.getAttribute(ACQUIRED_BULKHEAD);
+        if (bulkhead != null) {
+            executionAttributes.putAttribute(ACQUIRED_BULKHEAD, null);
+            bulkhead.release();
+        }
+    }
+}
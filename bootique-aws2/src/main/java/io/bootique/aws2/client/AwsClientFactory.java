@@ -0,0 +1,89 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import io.bootique.aws2.hedging.AwsHedging;
+import software.amazon.awssdk.core.SdkClient;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A factory of a named AWS client configured under "awsclients.&lt;name&gt;". The client is created on first access
+ * and is shared by all callers, so it must not be closed by the caller. Instances are obtained via
+ * {@link AwsClients}.
+ *
+ * @param <T> AWS SDK client type, e.g. SqsClient
+ * @since 4.0
+ */
+public class AwsClientFactory<T extends SdkClient> {
+
+    private final String name;
+    private final Class<T> clientType;
+    private final Supplier<T> clientSupplier;
+    private final AwsHedging hedging;
+
+    private volatile T client;
+
+    public AwsClientFactory(String name, Class<T> clientType, Supplier<T> clientSupplier, AwsHedging hedging) {
+        this.name = Objects.requireNonNull(name);
+        this.clientType = Objects.requireNonNull(clientType);
+        this.clientSupplier = Objects.requireNonNull(clientSupplier);
+        this.hedging = Objects.requireNonNull(hedging);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getClientType() {
+        return clientType;
+    }
+
+    public T client() {
+
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    this.client = clientSupplier.get();
+                }
+            }
+        }
+
+        return client;
+    }
+
+    /**
+     * Returns a helper to make hedged idempotent calls with this client. Calls AWS directly, unless hedging is
+     * configured for the client.
+     */
+    public AwsHedging hedging() {
+        return hedging;
+    }
+
+    /**
+     * Closes the client if it was created. Invoked on runtime shutdown.
+     */
+    public void shutdown() {
+        if (client != null) {
+            client.close();
+        }
+    }
+}
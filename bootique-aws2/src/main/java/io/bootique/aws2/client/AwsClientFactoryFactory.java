@@ -0,0 +1,101 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsServiceFactory;
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.SdkClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Configuration of a named AWS client from the "awsclients" map. Can produce a client of any AWS SDK v2 service,
+ * sync or async, e.g. SqsClient, DynamoDbAsyncClient, etc. The "http" settings only apply to sync clients, so a
+ * configuration with "http" settings can't be used for async clients.
+ *
+ * @since 4.0
+ */
+@BQConfig("AWS client of any service with its own HTTP, retry, timeout and endpoint settings")
+public class AwsClientFactoryFactory extends AwsServiceFactory {
+
+    private String region;
+
+    @BQConfigProperty("Optional region of the client, overriding 'aws.defaultRegion'.")
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public <T extends SdkClient> AwsClientFactory<T> create(String name, Class<T> clientType, AwsConfig config) {
+        return new AwsClientFactory<>(name, clientType, () -> createClient(name, clientType, config), resolveHedging(config));
+    }
+
+    /**
+     * Creates a client of the specified type, configured from this factory. The type must be an AWS SDK client
+     * interface with a static "builder()" method.
+     *
+     * @param name the name of the client used for its bulkhead metrics and error messages
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    protected <T extends SdkClient> T createClient(String name, Class<T> clientType, AwsConfig config) {
+
+        Object builder;
+        try {
+            builder = clientType.getMethod("builder").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Not an AWS SDK client type, no static 'builder()' method: " + clientType.getName(), e);
+        }
+
+        if (builder instanceof AwsAsyncClientBuilder asyncBuilder) {
+
+            // silently ignoring the settings would give the client a different transport than configured
+            if (isHttpConfigured()) {
+                throw new IllegalStateException("AWS client '" + name + "' has 'http' settings that are not " +
+                        "supported by async clients. Async clients are configured via 'aws.asyncHttp'");
+            }
+
+            asyncBuilder.httpClient(config.getAsyncHttpClient());
+            asyncBuilder.asyncConfiguration(config.createAsyncConfiguration());
+        } else if (builder instanceof AwsSyncClientBuilder syncBuilder) {
+            syncBuilder.httpClient(resolveHttpClient(config));
+        } else {
+            throw new IllegalArgumentException("Not an AWS SDK client type, unexpected builder: " + builder.getClass().getName());
+        }
+
+        configureCommon((AwsClientBuilder) builder, config, name);
+
+        return clientType.cast(((SdkBuilder) builder).build());
+    }
+
+    @Override
+    protected <Builder extends AwsClientBuilder<Builder, Service>, Service> Builder configureCommon(Builder builder, AwsConfig config, String bulkheadName) {
+        super.configureCommon(builder, config, bulkheadName);
+
+        if (region != null) {
+            builder.region(Region.of(region));
+        }
+
+        return builder;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * A key of a cached AWS client in the {@link AwsClientRegistry}. Two keys are equal if they are for the same client
+ * type, region, endpoint, credentials provider and other settings. Credentials providers and settings are compared
+ * with "equals", which for most of them means identity.
+ *
+ * @param clientType          the type of the client, e.g. S3Client
+ * @param region              the client region. May be null if the client uses the SDK default region
+ * @param endpointOverride    an optional endpoint override
+ * @param credentialsProvider the credentials provider of the client
+ * @param settings            any other settings that make the clients different, e.g. a list of interceptors.
+ *                            Nullable.
+ * @since 4.0
+ */
+public record AwsClientKey<T extends SdkAutoCloseable>(
+        Class<T> clientType,
+        Region region,
+        URI endpointOverride,
+        AwsCredentialsProvider credentialsProvider,
+        Object settings) {
+
+    public AwsClientKey {
+        Objects.requireNonNull(clientType, "'clientType' is not set");
+    }
+}
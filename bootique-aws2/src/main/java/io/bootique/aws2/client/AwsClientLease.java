@@ -0,0 +1,66 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A handle to a possibly shared AWS client. The client stays open while the lease is held, even if it is evicted from
+ * the {@link AwsClientRegistry}. Closing the lease releases the client, and does not close it while other leases
+ * of the same client are still held. The client itself must not be closed by the lease holder.
+ *
+ * @since 4.0
+ */
+public final class AwsClientLease<T extends SdkAutoCloseable> implements SdkAutoCloseable {
+
+    private final T client;
+    private final Runnable release;
+    private final AtomicBoolean released;
+
+    /**
+     * Returns a lease of an unshared client that closes the client when the lease is closed.
+     */
+    public static <T extends SdkAutoCloseable> AwsClientLease<T> of(T client) {
+        return new AwsClientLease<>(client, client::close);
+    }
+
+    AwsClientLease(T client, Runnable release) {
+        this.client = Objects.requireNonNull(client);
+        this.release = Objects.requireNonNull(release);
+        this.released = new AtomicBoolean();
+    }
+
+    public T client() {
+        return client;
+    }
+
+    /**
+     * Releases the client. Repeated calls are ignored.
+     */
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * An injectable cache of AWS clients, keyed by client type, region, endpoint and credentials. Allows code that needs
+ * clients for many regions or accounts to reuse them instead of creating a new client per request. Clients are
+ * obtained as {@link AwsClientLease leases} that must be closed when the caller is done with the client. The cache is
+ * bounded, with least recently used clients evicted when the max size is exceeded. An evicted client is closed once
+ * all its leases are released, so it is never closed under a caller that still uses it. The remaining clients are
+ * closed on shutdown.
+ *
+ * @since 4.0
+ */
+public class AwsClientRegistry {
+
+    private final int maxSize;
+
+    // access-ordered, so that the first entry is always the least recently used
+    private final LinkedHashMap<AwsClientKey<?>, Entry> clients;
+
+    // evicted clients that are still leased
+    private final Set<Entry> retired;
+
+    public AwsClientRegistry(int maxSize) {
+
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("'maxSize' must be positive: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.clients = new LinkedHashMap<>(16, 0.75f, true);
+        this.retired = new HashSet<>();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int size() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    /**
+     * Returns a lease of a cached client for the key, creating the client with the provided factory if it is not in
+     * the cache yet. The client is not closed until the lease is closed.
+     */
+    public <T extends SdkAutoCloseable> AwsClientLease<T> lease(AwsClientKey<T> key, Supplier<? extends T> factory) {
+
+        synchronized (clients) {
+            Entry existing = clients.get(key);
+            if (existing != null) {
+                return existing.lease(key.clientType());
+            }
+        }
+
+        // create the client outside the lock, as it may take a while. If another thread creates the same client
+        // concurrently, one of the two would be closed
+        T created = factory.get();
+
+        List<SdkAutoCloseable> toClose = new ArrayList<>(2);
+        AwsClientLease<T> result;
+
+        synchronized (clients) {
+            Entry existing = clients.get(key);
+            if (existing != null) {
+                toClose.add(created);
+                result = existing.lease(key.clientType());
+            } else {
+                Entry entry = new Entry(created);
+                clients.put(key, entry);
+                result = entry.lease(key.clientType());
+                evict(toClose);
+            }
+        }
+
+        toClose.forEach(SdkAutoCloseable::close);
+        return result;
+    }
+
+    /**
+     * Closes all the clients in the registry, including the evicted clients that are still leased.
+     */
+    public void close() {
+
+        List<SdkAutoCloseable> toClose = new ArrayList<>();
+        synchronized (clients) {
+            clients.values().forEach(e -> e.retire(toClose));
+            retired.forEach(e -> e.retire(toClose));
+            clients.clear();
+            retired.clear();
+        }
+
+        toClose.forEach(SdkAutoCloseable::close);
+    }
+
+    private void evict(List<SdkAutoCloseable> toClose) {
+        Iterator<Map.Entry<AwsClientKey<?>, Entry>> it = clients.entrySet().iterator();
+        while (clients.size() > maxSize && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            it.remove();
+
+            if (entry.leases > 0) {
+                entry.evicted = true;
+                retired.add(entry);
+            } else {
+                entry.retire(toClose);
+            }
+        }
+    }
+
+    // all the state is guarded by the "clients" lock
+    private final class Entry {
+
+        final SdkAutoCloseable client;
+        int leases;
+        boolean evicted;
+        boolean closed;
+
+        Entry(SdkAutoCloseable client) {
+            this.client = client;
+        }
+
+        <T extends SdkAutoCloseable> AwsClientLease<T> lease(Class<T> clientType) {
+            leases++;
+            return new AwsClientLease<>(clientType.cast(client), this::release);
+        }
+
+        void retire(List<SdkAutoCloseable> toClose) {
+            if (!closed) {
+                closed = true;
+                toClose.add(client);
+            }
+        }
+
+        void release() {
+
+            boolean close = false;
+            synchronized (clients) {
+                leases--;
+                if (evicted && leases == 0 && !closed) {
+                    closed = true;
+                    close = true;
+                    retired.remove(this);
+                }
+            }
+
+            if (close) {
+                client.close();
+            }
+        }
+    }
+}
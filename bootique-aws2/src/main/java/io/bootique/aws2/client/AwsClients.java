@@ -0,0 +1,100 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import io.bootique.aws2.AwsConfig;
+import software.amazon.awssdk.core.SdkClient;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An injectable collection of named AWS clients configured under the "awsclients" configuration key. Allows to use
+ * any AWS SDK v2 service with per-client HTTP, retry, timeout and endpoint settings, without a dedicated Bootique
+ * module. E.g.:
+ *
+ * <pre>
+ * SqsClient sqs = clients.client("orders", SqsClient.class);
+ * </pre>
+ *
+ * The same configuration may be used for both sync and async clients of a service (e.g. SqsClient and SqsAsyncClient),
+ * unless it has "http" settings that only apply to sync clients.
+ *
+ * @since 4.0
+ */
+public class AwsClients {
+
+    private final Map<String, AwsClientFactoryFactory> configs;
+    private final AwsConfig config;
+    private final Map<FactoryKey, AwsClientFactory<?>> factories;
+
+    public AwsClients(Map<String, AwsClientFactoryFactory> configs, AwsConfig config) {
+        this.configs = Objects.requireNonNull(configs);
+        this.config = Objects.requireNonNull(config);
+        this.factories = new ConcurrentHashMap<>();
+    }
+
+    public Set<String> getNames() {
+        return configs.keySet();
+    }
+
+    /**
+     * Returns a shared client of the specified type, configured under "awsclients.&lt;name&gt;".
+     */
+    public <T extends SdkClient> T client(String name, Class<T> clientType) {
+        return factory(name, clientType).client();
+    }
+
+    /**
+     * Returns a factory of the client of the specified type, configured under "awsclients.&lt;name&gt;".
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends SdkClient> AwsClientFactory<T> factory(String name, Class<T> clientType) {
+        return (AwsClientFactory<T>) factories.computeIfAbsent(
+                new FactoryKey(name, clientType),
+                k -> createFactory(name, clientType));
+    }
+
+    /**
+     * Waits for the calls in progress to complete (for up to the configured grace period), and then closes the
+     * clients. Invoked on runtime shutdown.
+     */
+    public void shutdown() {
+        if (!factories.isEmpty()) {
+            config.awaitInFlightCalls();
+            factories.values().forEach(AwsClientFactory::shutdown);
+        }
+    }
+
+    protected <T extends SdkClient> AwsClientFactory<T> createFactory(String name, Class<T> clientType) {
+
+        AwsClientFactoryFactory clientConfig = configs.get(name);
+        if (clientConfig == null) {
+            throw new IllegalArgumentException("No configuration for AWS client '" + name + "'. Configured clients: " + configs.keySet());
+        }
+
+        return clientConfig.create(name, clientType, config);
+    }
+
+    private record FactoryKey(String name, Class<?> clientType) {
+    }
+}
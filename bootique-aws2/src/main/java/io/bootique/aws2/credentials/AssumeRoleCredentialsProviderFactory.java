@@ -0,0 +1,90 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.di.Injector;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.auth.StsAssumeRoleCredentialsProvider;
+import software.amazon.awssdk.services.sts.model.AssumeRoleRequest;
+
+/**
+ * @since 4.0
+ */
+@JsonTypeName("assumeRole")
+@BQConfig("Configures temporary credentials obtained by assuming an IAM role via AWS STS. Credentials are refreshed " +
+        "in the background before they expire.")
+public class AssumeRoleCredentialsProviderFactory extends BaseStsCredentialsProviderFactory {
+
+    private String roleArn;
+    private String externalId;
+    private AwsCredentialsProviderFactory sourceCredentials;
+
+    @BQConfigProperty("ARN of the role to assume. Required.")
+    public void setRoleArn(String roleArn) {
+        this.roleArn = roleArn;
+    }
+
+    @BQConfigProperty("Optional external ID required by the role trust policy")
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+
+    @BQConfigProperty("Credentials used to call STS. If not set, credentials providers contributed via " +
+            "AwsModuleExtender are used.")
+    public void setSourceCredentials(AwsCredentialsProviderFactory sourceCredentials) {
+        this.sourceCredentials = sourceCredentials;
+    }
+
+    @Override
+    public AwsCredentialsProvider create(Injector injector) {
+
+        if (roleArn == null) {
+            throw new NullPointerException("'roleArn' is not set");
+        }
+
+        StsClient stsClient = createStsClient(createSourceCredentials(injector));
+        StsAssumeRoleCredentialsProvider provider = configure(StsAssumeRoleCredentialsProvider.builder(), stsClient)
+                .refreshRequest(createRequest())
+                .build();
+
+        return closeOnShutdown(injector, provider, stsClient);
+    }
+
+    protected AssumeRoleRequest createRequest() {
+        return AssumeRoleRequest.builder()
+                .roleArn(roleArn)
+                .roleSessionName(resolveSessionName())
+                .durationSeconds(resolveDurationSeconds())
+                .externalId(externalId)
+                .build();
+    }
+
+    protected AwsCredentialsProvider createSourceCredentials(Injector injector) {
+        AwsCredentialsProviderFactory factory = this.sourceCredentials != null
+                ? this.sourceCredentials
+                : new CredentialsProviderChainFactory();
+
+        return factory.create(injector);
+    }
+}
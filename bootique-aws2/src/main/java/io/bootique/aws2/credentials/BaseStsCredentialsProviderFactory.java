@@ -0,0 +1,134 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.di.Injector;
+import io.bootique.shutdown.ShutdownManager;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.StsClientBuilder;
+import software.amazon.awssdk.services.sts.auth.StsCredentialsProvider;
+
+import java.net.URI;
+
+/**
+ * A common superclass of credentials factories that obtain temporary credentials from AWS STS.
+ *
+ * @since 4.0
+ */
+public abstract class BaseStsCredentialsProviderFactory implements AwsCredentialsProviderFactory {
+
+    protected static final String DEFAULT_SESSION_NAME = "bootique";
+
+    protected String sessionName;
+    protected Duration duration;
+    protected String region;
+    protected URI stsEndpointOverride;
+    protected Duration prefetchBefore;
+    protected Duration staleBefore;
+
+    @BQConfigProperty("Role session name that identifies the app in CloudTrail. The default is 'bootique'.")
+    public void setSessionName(String sessionName) {
+        this.sessionName = sessionName;
+    }
+
+    @BQConfigProperty("Duration of the role session. If not set, STS default (1 hour) is used.")
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    @BQConfigProperty("Region of the STS endpoint. If not set, the global STS endpoint is used.")
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    @BQConfigProperty("Custom STS endpoint. Useful in tests.")
+    public void setStsEndpointOverride(URI stsEndpointOverride) {
+        this.stsEndpointOverride = stsEndpointOverride;
+    }
+
+    @BQConfigProperty("How long before the expiration the credentials should be refreshed in the background. " +
+            "If not set, AWS SDK default (5 minutes) is used.")
+    public void setPrefetchBefore(Duration prefetchBefore) {
+        this.prefetchBefore = prefetchBefore;
+    }
+
+    @BQConfigProperty("How long before the expiration the credentials are considered stale, and the callers have to " +
+            "wait for the refresh. If not set, AWS SDK default (1 minute) is used.")
+    public void setStaleBefore(Duration staleBefore) {
+        this.staleBefore = staleBefore;
+    }
+
+    /**
+     * Applies common settings to the STS credentials provider builder, and enables background credentials refresh,
+     * so that the callers are not blocked on STS calls.
+     */
+    protected <B extends StsCredentialsProvider.BaseBuilder<B, ?>> B configure(B builder, StsClient stsClient) {
+        builder.stsClient(stsClient).asyncCredentialUpdateEnabled(true);
+
+        if (prefetchBefore != null) {
+            builder.prefetchTime(prefetchBefore.getDuration());
+        }
+
+        if (staleBefore != null) {
+            builder.staleTime(staleBefore.getDuration());
+        }
+
+        return builder;
+    }
+
+    /**
+     * Registers the provider and its STS client for closing on shutdown. The provider does not close the STS client,
+     * so must close both.
+     */
+    protected <T extends StsCredentialsProvider> T closeOnShutdown(Injector injector, T provider, StsClient stsClient) {
+        ShutdownManager shutdownManager = injector.getInstance(ShutdownManager.class);
+        shutdownManager.onShutdown(provider);
+        shutdownManager.onShutdown(stsClient);
+        return provider;
+    }
+
+    protected String resolveSessionName() {
+        return sessionName != null ? sessionName : DEFAULT_SESSION_NAME;
+    }
+
+    protected Integer resolveDurationSeconds() {
+        return duration != null ? (int) duration.getDuration().toSeconds() : null;
+    }
+
+    protected Region resolveRegion() {
+        return region != null ? Region.of(region) : Region.AWS_GLOBAL;
+    }
+
+    protected StsClient createStsClient(AwsCredentialsProvider sourceCredentials) {
+        StsClientBuilder builder = StsClient.builder()
+                .credentialsProvider(sourceCredentials)
+                .region(resolveRegion());
+
+        if (stsEndpointOverride != null) {
+            builder.endpointOverride(stsEndpointOverride);
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.aws2.jfr.JfrCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.cache.CachedSupplier;
+import software.amazon.awssdk.utils.cache.NonBlocking;
+import software.amazon.awssdk.utils.cache.RefreshResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A credentials provider that caches credentials resolved from an ordered list of providers. Remembers which provider
+ * has succeeded last, and goes to it first on subsequent refreshes. Refreshes the credentials on a background thread
+ * shortly before they expire, serving the last good credentials while the refresh is in progress, or if it fails.
+ * Credentials that do not expire are refreshed periodically.
+ *
+ * @since 4.0
+ */
+public final class CachingCredentialsProvider implements AwsCredentialsProvider, SdkAutoCloseable {
+
+    private final List<AwsCredentialsProvider> providers;
+    private final Duration prefetchBefore;
+    private final Duration staleBefore;
+    private final Duration refreshInterval;
+    private final CachedSupplier<AwsCredentials> cache;
+
+    private volatile AwsCredentialsProvider lastProvider;
+
+    public CachingCredentialsProvider(
+            List<AwsCredentialsProvider> providers,
+            Duration prefetchBefore,
+            Duration staleBefore,
+            Duration refreshInterval) {
+
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("No credentials providers to cache");
+        }
+
+        this.providers = List.copyOf(providers);
+        this.prefetchBefore = Objects.requireNonNull(prefetchBefore);
+        this.staleBefore = Objects.requireNonNull(staleBefore);
+        this.refreshInterval = Objects.requireNonNull(refreshInterval);
+        this.cache = CachedSupplier.builder(this::refresh)
+                .cachedValueName("CachingCredentialsProvider")
+                .prefetchStrategy(new NonBlocking("bq-aws-credentials-refresh"))
+                .staleValueBehavior(CachedSupplier.StaleValueBehavior.ALLOW)
+                .build();
+    }
+
+    @Override
+    public AwsCredentials resolveCredentials() {
+        return cache.get();
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private RefreshResult<AwsCredentials> refresh() {
+
+        AwsCredentials credentials = resolveUncached();
+        Instant now = Instant.now();
+        Optional<Instant> expiration = credentials.expirationTime();
+
+        Instant staleTime;
+        Instant prefetchTime;
+
+        if (expiration.isPresent()) {
+            staleTime = expiration.get().minus(staleBefore);
+            prefetchTime = expiration.get().minus(prefetchBefore);
+        } else {
+            prefetchTime = now.plus(refreshInterval);
+            staleTime = prefetchTime.plus(refreshInterval);
+        }
+
+        return RefreshResult.builder(credentials).staleTime(staleTime).prefetchTime(prefetchTime).build();
+    }
+
+    AwsCredentials resolveUncached() {
+
+        AwsCredentialsProvider lastProvider = this.lastProvider;
+        if (lastProvider != null) {
+            try {
+                return lastProvider.resolveCredentials();
+            } catch (RuntimeException e) {
+                // the environment may have changed, so fall through to walk the whole list
+            }
+        }
+
+        List<String> errors = new ArrayList<>(providers.size());
+        for (AwsCredentialsProvider p : providers) {
+            try {
+                AwsCredentials credentials = p.resolveCredentials();
+                this.lastProvider = p;
+                return credentials;
+            } catch (RuntimeException e) {
+                errors.add(providerName(p) + ": " + e.getMessage());
+            }
+        }
+
+        throw SdkClientException.create("Unable to load credentials from any of the providers: " + errors);
+    }
+
+    private static String providerName(AwsCredentialsProvider provider) {
+
+        // report the actual provider instead of the JFR wrapper
+        AwsCredentialsProvider unwrapped = provider instanceof JfrCredentialsProvider jfr ? jfr.getDelegate() : provider;
+        return unwrapped.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.util.List;
+
+/**
+ * @since 4.0
+ */
+@BQConfig("Configures caching and background refresh of AWS credentials")
+public class CredentialsCacheFactory {
+
+    private static final java.time.Duration DEFAULT_PREFETCH_BEFORE = java.time.Duration.ofMinutes(5);
+    private static final java.time.Duration DEFAULT_STALE_BEFORE = java.time.Duration.ofMinutes(1);
+    private static final java.time.Duration DEFAULT_REFRESH_INTERVAL = java.time.Duration.ofHours(1);
+
+    private Duration prefetchBefore;
+    private Duration staleBefore;
+    private Duration refreshInterval;
+
+    @BQConfigProperty("How long before the expiration the credentials should be refreshed in the background. " +
+            "The default is 5 minutes.")
+    public CredentialsCacheFactory setPrefetchBefore(Duration prefetchBefore) {
+        this.prefetchBefore = prefetchBefore;
+        return this;
+    }
+
+    @BQConfigProperty("How long before the expiration the credentials are considered stale and the caller has to " +
+            "wait for the refresh. If the refresh fails, the last good credentials are still returned. " +
+            "The default is 1 minute.")
+    public CredentialsCacheFactory setStaleBefore(Duration staleBefore) {
+        this.staleBefore = staleBefore;
+        return this;
+    }
+
+    @BQConfigProperty("How often the credentials without an expiration time (e.g. static keys) should be re-read " +
+            "from the providers. The default is 1 hour.")
+    public CredentialsCacheFactory setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+        return this;
+    }
+
+    public CachingCredentialsProvider create(List<AwsCredentialsProvider> providers) {
+        return new CachingCredentialsProvider(
+                providers,
+                prefetchBefore != null ? prefetchBefore.getDuration() : DEFAULT_PREFETCH_BEFORE,
+                staleBefore != null ? staleBefore.getDuration() : DEFAULT_STALE_BEFORE,
+                refreshInterval != null ? refreshInterval.getDuration() : DEFAULT_REFRESH_INTERVAL);
+    }
+}
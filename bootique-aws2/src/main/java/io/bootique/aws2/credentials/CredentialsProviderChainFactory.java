@@ -24,6 +24,7 @@ import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProviderChain;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
 // not exposing this strategy in YAML. Only used internally as a fallback..
@@ -53,11 +54,32 @@ public class CredentialsProviderChainFactory implements AwsCredentialsProviderFa
             return diProviders.iterator().next().getProvider();
         }
 
-        AwsCredentialsProvider[] sorted = diProviders.stream()
+        return AwsCredentialsProviderChain.of(sort(diProviders).toArray(AwsCredentialsProvider[]::new));
+    }
+
+    /**
+     * Returns DI-contributed credentials providers sorted in the order of their invocation.
+     *
+     * @since 4.0
+     */
+    public List<AwsCredentialsProvider> createProviders(Injector injector) {
+        Set<OrderedCredentialsProvider> diProviders = injector.getInstance(Key.getSetOf(OrderedCredentialsProvider.class));
+        if (diProviders.isEmpty()) {
+            throw new IllegalStateException(
+                    "No credentials providers available via injection, " +
+                            "and no explicit configuration was provided (profile or access/secret key)");
+        }
+
+        return sort(diProviders);
+    }
+
+    /**
+     * Returns providers sorted in the order of their invocation.
+     */
+    protected List<AwsCredentialsProvider> sort(Set<OrderedCredentialsProvider> diProviders) {
+        return diProviders.stream()
                 .sorted(Comparator.comparing(OrderedCredentialsProvider::getOrder))
                 .map(OrderedCredentialsProvider::getProvider)
-                .toArray(AwsCredentialsProvider[]::new);
-
-        return AwsCredentialsProviderChain.of(sorted);
+                .toList();
     }
 }
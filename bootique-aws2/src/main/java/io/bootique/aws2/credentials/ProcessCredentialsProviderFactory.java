@@ -0,0 +1,74 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.di.Injector;
+import io.bootique.shutdown.ShutdownManager;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.ProcessCredentialsProvider;
+
+import java.util.List;
+
+/**
+ * @since 4.0
+ */
+@JsonTypeName("process")
+@BQConfig("Configures credentials obtained from an external process, per AWS 'credential_process' conventions. " +
+        "The process output is cached until shortly before the credentials expire.")
+public class ProcessCredentialsProviderFactory implements AwsCredentialsProviderFactory {
+
+    private List<String> command;
+    private Duration refreshBefore;
+
+    @BQConfigProperty("Command and its arguments that print credentials JSON to stdout. Required.")
+    public void setCommand(List<String> command) {
+        this.command = command;
+    }
+
+    @BQConfigProperty("How long before the expiration the process should be re-run in the background. " +
+            "If not set, AWS SDK default (15 seconds) is used.")
+    public void setRefreshBefore(Duration refreshBefore) {
+        this.refreshBefore = refreshBefore;
+    }
+
+    @Override
+    public AwsCredentialsProvider create(Injector injector) {
+
+        if (command == null || command.isEmpty()) {
+            throw new NullPointerException("'command' is not set");
+        }
+
+        ProcessCredentialsProvider.Builder builder = ProcessCredentialsProvider.builder()
+                .command(command)
+                .asyncCredentialUpdateEnabled(true);
+
+        if (refreshBefore != null) {
+            builder.credentialRefreshThreshold(refreshBefore.getDuration());
+        }
+
+        ProcessCredentialsProvider provider = builder.build();
+        injector.getInstance(ShutdownManager.class).onShutdown(provider);
+        return provider;
+    }
+}
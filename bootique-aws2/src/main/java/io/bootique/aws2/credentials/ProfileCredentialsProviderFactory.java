@@ -24,27 +24,72 @@ import io.bootique.annotation.BQConfigProperty;
 import io.bootique.di.Injector;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
+import software.amazon.awssdk.profiles.ProfileFile;
+import software.amazon.awssdk.profiles.ProfileFileLocation;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
 
 /**
  * @since 3.0
  */
 @JsonTypeName("profile")
 @BQConfig("Configures credentials from the AWS profile stored in ~/.aws/credentials. " +
-        "If no profile name is specified, looks for the profile with the name 'default'.")
+        "If no profile name is specified, looks for the profile with the name 'default'. Profiles that use " +
+        "'credential_process' are supported, with the process output cached until the credentials expire.")
 public class ProfileCredentialsProviderFactory implements AwsCredentialsProviderFactory {
 
     private static final String DEFAULT_PROFILE_NAME = "default";
 
     private String profile;
+    private String configFile;
+    private String credentialsFile;
 
     @BQConfigProperty("Sets the name of the local AWS profile used to resolve credentials")
     public void setProfile(String profile) {
         this.profile = profile;
     }
 
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional path to the AWS config file. If not set, the AWS default location is used " +
+            "('~/.aws/config' or 'AWS_CONFIG_FILE' environment variable).")
+    public void setConfigFile(String configFile) {
+        this.configFile = configFile;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @BQConfigProperty("Optional path to the AWS credentials file. If not set, the AWS default location is used " +
+            "('~/.aws/credentials' or 'AWS_SHARED_CREDENTIALS_FILE' environment variable).")
+    public void setCredentialsFile(String credentialsFile) {
+        this.credentialsFile = credentialsFile;
+    }
+
     @Override
     public AwsCredentialsProvider create(Injector injector) {
         String profile = this.profile != null ? this.profile : DEFAULT_PROFILE_NAME;
-        return ProfileCredentialsProvider.create(profile);
+        return ProfileCredentialsProvider.builder()
+                .profileName(profile)
+                .profileFile(createProfileFileSupplier())
+                .build();
+    }
+
+    /**
+     * Returns a JVM-wide profile file supplier that parses the profile files once and re-parses them only when they
+     * change on disk.
+     *
+     * @since 4.0
+     */
+    protected Supplier<ProfileFile> createProfileFileSupplier() {
+        if (configFile == null && credentialsFile == null) {
+            return SharedProfileFileSupplier.defaultSupplier();
+        }
+
+        return SharedProfileFileSupplier.of(
+                configFile != null ? Path.of(configFile) : ProfileFileLocation.configurationFilePath(),
+                credentialsFile != null ? Path.of(credentialsFile) : ProfileFileLocation.credentialsFilePath());
     }
 }
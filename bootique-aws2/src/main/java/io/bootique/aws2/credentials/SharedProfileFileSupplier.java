@@ -0,0 +1,141 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import software.amazon.awssdk.profiles.ProfileFile;
+import software.amazon.awssdk.profiles.ProfileFileLocation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A JVM-wide cache of parsed AWS profile files (~/.aws/config and ~/.aws/credentials). The files are parsed once and
+ * shared by all the runtimes and credentials providers in the JVM. They are re-parsed only when their modification
+ * time changes, and the modification time is checked at most once per second.
+ *
+ * @since 4.0
+ */
+public class SharedProfileFileSupplier implements Supplier<ProfileFile> {
+
+    private static final long CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final Map<List<Path>, SharedProfileFileSupplier> SUPPLIERS = new ConcurrentHashMap<>();
+
+    private final Path configFile;
+    private final Path credentialsFile;
+    private final long checkIntervalNanos;
+
+    private volatile ProfileFile profileFile;
+    private volatile long lastCheckedNanos;
+    private FileTime configModified;
+    private FileTime credentialsModified;
+
+    protected SharedProfileFileSupplier(Path configFile, Path credentialsFile) {
+        this(configFile, credentialsFile, CHECK_INTERVAL_NANOS);
+    }
+
+    // exposed for tests
+    SharedProfileFileSupplier(Path configFile, Path credentialsFile, long checkIntervalNanos) {
+        this.configFile = Objects.requireNonNull(configFile);
+        this.credentialsFile = Objects.requireNonNull(credentialsFile);
+        this.checkIntervalNanos = checkIntervalNanos;
+    }
+
+    /**
+     * Returns a shared supplier for the default profile file locations, taking into account the standard
+     * "AWS_CONFIG_FILE" and "AWS_SHARED_CREDENTIALS_FILE" overrides.
+     */
+    public static SharedProfileFileSupplier defaultSupplier() {
+        return of(ProfileFileLocation.configurationFilePath(), ProfileFileLocation.credentialsFilePath());
+    }
+
+    /**
+     * Returns a shared supplier for the specified profile file locations.
+     */
+    public static SharedProfileFileSupplier of(Path configFile, Path credentialsFile) {
+        return SUPPLIERS.computeIfAbsent(
+                List.of(configFile.toAbsolutePath(), credentialsFile.toAbsolutePath()),
+                k -> new SharedProfileFileSupplier(k.get(0), k.get(1)));
+    }
+
+    @Override
+    public ProfileFile get() {
+
+        long now = System.nanoTime();
+        ProfileFile profileFile = this.profileFile;
+        if (profileFile != null && now - lastCheckedNanos < checkIntervalNanos) {
+            return profileFile;
+        }
+
+        synchronized (this) {
+            if (this.profileFile == null || now - lastCheckedNanos >= checkIntervalNanos) {
+                reloadIfModified();
+                this.lastCheckedNanos = now;
+            }
+
+            return this.profileFile;
+        }
+    }
+
+    private void reloadIfModified() {
+
+        FileTime configModified = lastModified(configFile);
+        FileTime credentialsModified = lastModified(credentialsFile);
+
+        if (profileFile != null
+                && Objects.equals(configModified, this.configModified)
+                && Objects.equals(credentialsModified, this.credentialsModified)) {
+            return;
+        }
+
+        ProfileFile.Aggregator aggregator = ProfileFile.aggregator();
+
+        // the same precedence as in the AWS SDK: credentials file overrides the config file
+        if (credentialsModified != null) {
+            aggregator.addFile(ProfileFile.builder().content(credentialsFile).type(ProfileFile.Type.CREDENTIALS).build());
+        }
+
+        if (configModified != null) {
+            aggregator.addFile(ProfileFile.builder().content(configFile).type(ProfileFile.Type.CONFIGURATION).build());
+        }
+
+        this.profileFile = aggregator.build();
+        this.configModified = configModified;
+        this.credentialsModified = credentialsModified;
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading AWS profile file: " + path, e);
+        }
+    }
+}
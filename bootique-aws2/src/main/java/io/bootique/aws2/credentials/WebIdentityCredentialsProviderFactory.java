@@ -0,0 +1,142 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.di.Injector;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.auth.StsAssumeRoleWithWebIdentityCredentialsProvider;
+import software.amazon.awssdk.services.sts.model.AssumeRoleWithWebIdentityRequest;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Configures credentials for the apps running in EKS with IAM roles for service accounts (IRSA). Unlike the default
+ * AWS provider chain, goes straight to STS without probing other credential sources.
+ *
+ * @since 4.0
+ */
+@JsonTypeName("webIdentity")
+@BQConfig("Configures temporary credentials obtained from AWS STS in exchange for a web identity token (e.g. an EKS " +
+        "service account token). Unless configured explicitly, the role, the token file and the region are taken " +
+        "from the standard environment variables set by EKS.")
+public class WebIdentityCredentialsProviderFactory extends BaseStsCredentialsProviderFactory {
+
+    static final String ROLE_ARN_ENV = "AWS_ROLE_ARN";
+    static final String TOKEN_FILE_ENV = "AWS_WEB_IDENTITY_TOKEN_FILE";
+    static final String SESSION_NAME_ENV = "AWS_ROLE_SESSION_NAME";
+    static final String REGION_ENV = "AWS_REGION";
+
+    private String roleArn;
+    private String tokenFile;
+
+    @BQConfigProperty("ARN of the role to assume. If not set, 'AWS_ROLE_ARN' environment variable is used.")
+    public void setRoleArn(String roleArn) {
+        this.roleArn = roleArn;
+    }
+
+    @BQConfigProperty("Path to the web identity token file. If not set, 'AWS_WEB_IDENTITY_TOKEN_FILE' environment " +
+            "variable is used.")
+    public void setTokenFile(String tokenFile) {
+        this.tokenFile = tokenFile;
+    }
+
+    @Override
+    public AwsCredentialsProvider create(Injector injector) {
+
+        String roleArn = resolveRoleArn();
+        WebIdentityTokenFile tokenFile = createTokenFile();
+
+        // AssumeRoleWithWebIdentity calls are not signed, so no source credentials are needed
+        StsClient stsClient = createStsClient(AnonymousCredentialsProvider.create());
+
+        StsAssumeRoleWithWebIdentityCredentialsProvider provider = configure(StsAssumeRoleWithWebIdentityCredentialsProvider.builder(), stsClient)
+                .refreshRequest(createRequestSupplier(roleArn, tokenFile))
+                .build();
+
+        return closeOnShutdown(injector, provider, stsClient);
+    }
+
+    protected Supplier<AssumeRoleWithWebIdentityRequest> createRequestSupplier(String roleArn, WebIdentityTokenFile tokenFile) {
+
+        String sessionName = resolveSessionName();
+        Integer durationSeconds = resolveDurationSeconds();
+
+        // called on each refresh, reading the token from the file only if it has changed
+        return () -> AssumeRoleWithWebIdentityRequest.builder()
+                .roleArn(roleArn)
+                .roleSessionName(sessionName)
+                .durationSeconds(durationSeconds)
+                .webIdentityToken(tokenFile.get())
+                .build();
+    }
+
+    protected String resolveRoleArn() {
+        String roleArn = this.roleArn != null ? this.roleArn : getenv(ROLE_ARN_ENV);
+        if (roleArn == null) {
+            throw new NullPointerException("'roleArn' is not set, and no '" + ROLE_ARN_ENV + "' environment variable");
+        }
+
+        return roleArn;
+    }
+
+    protected WebIdentityTokenFile createTokenFile() {
+        String tokenFile = this.tokenFile != null ? this.tokenFile : getenv(TOKEN_FILE_ENV);
+        if (tokenFile == null) {
+            throw new NullPointerException("'tokenFile' is not set, and no '" + TOKEN_FILE_ENV + "' environment variable");
+        }
+
+        return new WebIdentityTokenFile(Path.of(tokenFile));
+    }
+
+    @Override
+    protected String resolveSessionName() {
+        if (sessionName != null) {
+            return sessionName;
+        }
+
+        String envSessionName = getenv(SESSION_NAME_ENV);
+        return envSessionName != null ? envSessionName : DEFAULT_SESSION_NAME;
+    }
+
+    @Override
+    protected Region resolveRegion() {
+
+        // prefer a regional STS endpoint in the region of the pod
+        if (region == null) {
+            String envRegion = getenv(REGION_ENV);
+            if (envRegion != null) {
+                return Region.of(envRegion);
+            }
+        }
+
+        return super.resolveRegion();
+    }
+
+    protected String getenv(String name) {
+        return System.getenv(name);
+    }
+}
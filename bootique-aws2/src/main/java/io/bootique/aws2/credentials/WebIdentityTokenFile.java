@@ -0,0 +1,76 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A cached web identity token read from a file. The file is only re-read when its modification time or size changes,
+ * which happens when Kubernetes rotates the projected service account token.
+ *
+ * @since 4.0
+ */
+public class WebIdentityTokenFile implements Supplier<String> {
+
+    private final Path path;
+
+    private FileTime lastModified;
+    private long lastSize;
+    private String token;
+
+    public WebIdentityTokenFile(Path path) {
+        this.path = Objects.requireNonNull(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized String get() {
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading web identity token file attributes: " + path, e);
+        }
+
+        if (token == null || !attributes.lastModifiedTime().equals(lastModified) || attributes.size() != lastSize) {
+            try {
+                this.token = Files.readString(path).trim();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading web identity token file: " + path, e);
+            }
+
+            this.lastModified = attributes.lastModifiedTime();
+            this.lastSize = attributes.size();
+        }
+
+        return token;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A runtime-wide limit of hedged AWS calls, shared by all services. Each call adds a fraction of a token to the
+ * budget, and each hedge takes a whole token, so hedges can never exceed the configured fraction of the calls, even
+ * when a service slows down as a whole and every call is a hedging candidate.
+ *
+ * @since 4.0
+ */
+public class AwsHedgeBudget {
+
+    // token amounts are stored in thousandths to avoid floating point CAS
+    private static final long TOKEN = 1000;
+    private static final int MAX_TOKENS = 10;
+
+    private final double ratio;
+    private final long deposit;
+    private final AtomicLong balance;
+    private final LongAdder hedges;
+    private final LongAdder rejectedHedges;
+
+    public AwsHedgeBudget(double ratio) {
+
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Hedge budget ratio must be between 0 and 1: " + ratio);
+        }
+
+        this.ratio = ratio;
+        this.deposit = Math.round(ratio * TOKEN);
+        this.balance = new AtomicLong();
+        this.hedges = new LongAdder();
+        this.rejectedHedges = new LongAdder();
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * Returns the number of hedges allowed by the budget.
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * Returns the number of hedges denied by the budget.
+     */
+    public long getRejectedHedges() {
+        return rejectedHedges.sum();
+    }
+
+    /**
+     * Records a hedging-eligible call, adding to the budget.
+     */
+    public void onCall() {
+        balance.accumulateAndGet(deposit, (b, d) -> Math.min(b + d, MAX_TOKENS * TOKEN));
+    }
+
+    /**
+     * Takes a token from the budget for a hedge, returning false if the budget is exhausted.
+     */
+    public boolean tryAcquire() {
+
+        long b;
+        do {
+            b = balance.get();
+            if (b < TOKEN) {
+                rejectedHedges.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(b, b - TOKEN));
+
+        hedges.increment();
+        return true;
+    }
+}
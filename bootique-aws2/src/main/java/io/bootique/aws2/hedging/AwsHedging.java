@@ -0,0 +1,359 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.hedging;
+
+import io.bootique.aws2.metrics.AwsHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.http.Abortable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs idempotent AWS calls with hedging: if a call has not responded within the configured percentile of its recent
+ * latency, a second identical call is started, the first successful response wins, and the other call is cancelled.
+ * The latency is tracked per operation over a sliding window of ~10 seconds, and only includes the first (primary)
+ * attempt of each call, so that faster hedged responses don't pull the percentile down.
+ * The number of hedges is limited by the runtime-wide {@link AwsHedgeBudget}. Instances are obtained from the service
+ * factories (e.g. S3ClientFactory), and are pass-through unless hedging is configured for the service:
+ *
+ * <pre>
+ * ResponseBytes&lt;GetObjectResponse&gt; r = hedging.call(request, q -> s3.getObject(q, ResponseTransformer.toBytes()));
+ * CompletableFuture&lt;HeadObjectResponse&gt; f = hedging.callAsync(request, s3Async::headObject);
+ * </pre>
+ *
+ * Only read operations ("Get*", "Head*", "List*", "Describe*") are accepted, as others may not be safe to repeat.
+ * Sync calls are run on virtual threads, and the losing call is interrupted. If the losing call still returns a
+ * response that holds a connection (e.g. a ResponseInputStream), the response is aborted or closed.
+ *
+ * @since 4.0
+ */
+public class AwsHedging {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwsHedging.class);
+
+    private static final List<String> IDEMPOTENT_PREFIXES = List.of("Get", "Head", "List", "Describe");
+
+    // don't hedge until there are enough samples to calculate the percentile
+    private static final long MIN_SAMPLES = 20;
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final double percentile;
+    private final Duration minDelay;
+    private final AwsHedgeBudget budget;
+    private final Map<String, OperationLatency> latencies;
+
+    /**
+     * Returns an instance that calls AWS directly without hedging.
+     */
+    public static AwsHedging none() {
+        return new AwsHedging(1., Duration.ZERO, null);
+    }
+
+    public AwsHedging(double percentile, Duration minDelay, AwsHedgeBudget budget) {
+
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Hedging percentile must be between 0 and 1: " + percentile);
+        }
+
+        this.percentile = percentile;
+        this.minDelay = Objects.requireNonNull(minDelay);
+        this.budget = budget;
+        this.latencies = new ConcurrentHashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return budget != null;
+    }
+
+    /**
+     * Returns the current hedging delay for the operation, or null if the call would not be hedged.
+     */
+    public Duration getDelay(String operationName) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        long delayNanos = latency(operationName).delayNanos();
+        return delayNanos >= 0 ? Duration.ofNanos(delayNanos) : null;
+    }
+
+    /**
+     * Runs a blocking call with hedging. Checked SDK exceptions are rethrown as is.
+     */
+    public <Q extends SdkRequest, R> R call(Q request, Function<Q, R> call) {
+
+        if (!isEnabled()) {
+            checkIdempotent(request);
+            return call.apply(request);
+        }
+
+        CompletableFuture<R> result = callAsync(request, q -> runInterruptibly(() -> call.apply(q)));
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+
+            // stop the attempts running on their own threads
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for AWS call");
+        }
+    }
+
+    /**
+     * Runs a non-blocking call with hedging. Cancelling the returned future cancels all the attempts.
+     */
+    public <Q extends SdkRequest, R> CompletableFuture<R> callAsync(Q request, Function<Q, CompletableFuture<R>> call) {
+
+        String operationName = checkIdempotent(request);
+
+        if (!isEnabled()) {
+            return call.apply(request);
+        }
+
+        OperationLatency latency = latency(operationName);
+        long startedAt = System.nanoTime();
+        HedgedCall<R> hedgedCall = new HedgedCall<>(() -> call.apply(request));
+
+        budget.onCall();
+        CompletableFuture<R> primary = hedgedCall.start();
+
+        long delayNanos = latency.delayNanos();
+        if (delayNanos >= 0) {
+            CompletableFuture.runAsync(
+                    () -> {
+                        if (!hedgedCall.result.isDone() && budget.tryAcquire()) {
+                            hedgedCall.start();
+                        }
+                    },
+                    CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+        }
+
+        // only recording the primary attempt latency, as the hedged result is the faster of the two attempts. If the
+        // hedge wins, the primary attempt is cancelled, and its duration so far is recorded as a lower bound
+        if (primary != null) {
+            primary.whenComplete((r, e) -> {
+                if (e == null || (hedgedCall.result.isDone() && !hedgedCall.result.isCompletedExceptionally())) {
+                    latency.record(System.nanoTime() - startedAt);
+                }
+            });
+        }
+
+        return hedgedCall.result;
+    }
+
+    protected String checkIdempotent(SdkRequest request) {
+        String operationName = operationName(request);
+        for (String p : IDEMPOTENT_PREFIXES) {
+            if (operationName.startsWith(p)) {
+                return operationName;
+            }
+        }
+
+        throw new IllegalArgumentException("Operation '" + operationName + "' may not be idempotent and can't be hedged");
+    }
+
+    protected String operationName(SdkRequest request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    private OperationLatency latency(String operationName) {
+        return latencies.computeIfAbsent(operationName, n -> new OperationLatency());
+    }
+
+    private static <T> CompletableFuture<T> runInterruptibly(Supplier<T> task) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Thread thread = Thread.ofVirtual().name("bq-aws-hedging").unstarted(() -> {
+            try {
+                T response = task.get();
+
+                // the attempt may have been cancelled while the call was in progress
+                if (!result.complete(response)) {
+                    release(response);
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                thread.interrupt();
+            }
+        });
+
+        thread.start();
+        return result;
+    }
+
+    /**
+     * Releases a response that lost the race, so that streaming responses don't hold on to their HTTP connections.
+     */
+    private static void release(Object response) {
+        try {
+            if (response instanceof Abortable a) {
+                a.abort();
+            } else if (response instanceof AutoCloseable c) {
+                c.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Error releasing the response of a losing hedged call", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+
+        if (e instanceof RuntimeException re) {
+            throw re;
+        }
+
+        if (e instanceof Error er) {
+            throw er;
+        }
+
+        throw new CompletionException(e);
+    }
+
+    private final class OperationLatency {
+
+        private volatile AwsHistogram window = new AwsHistogram();
+        private volatile long delayNanos = -1;
+        private volatile long refreshedAt = System.nanoTime();
+
+        // guarded by "this"
+        private AwsHistogram.Snapshot previousWindow;
+        private long windowStartedAt = System.nanoTime();
+
+        void record(long nanos) {
+            window.record(nanos);
+        }
+
+        long delayNanos() {
+
+            // recalculating the percentile is relatively expensive, so doing it at most once per refresh interval
+            long now = System.nanoTime();
+            if (now - refreshedAt > DELAY_REFRESH_NANOS || (delayNanos < 0 && window.getCount() >= MIN_SAMPLES)) {
+                refresh(now);
+            }
+
+            return delayNanos;
+        }
+
+        private synchronized void refresh(long now) {
+            refreshedAt = now;
+
+            // start a new window periodically, so that the delay follows the current latency
+            if (now - windowStartedAt > WINDOW_NANOS) {
+                previousWindow = window.snapshot();
+                window = new AwsHistogram();
+                windowStartedAt = now;
+            }
+
+            // fall back to the previous window until the current one has enough samples
+            AwsHistogram.Snapshot snapshot = window.snapshot();
+            if (snapshot.getCount() < MIN_SAMPLES && previousWindow != null) {
+                snapshot = previousWindow;
+            }
+
+            delayNanos = snapshot.getCount() >= MIN_SAMPLES
+                    ? Math.max(snapshot.getPercentile(percentile), minDelay.toNanos())
+                    : -1;
+        }
+    }
+
+    private static final class HedgedCall<R> {
+
+        final Supplier<CompletableFuture<R>> call;
+        final CompletableFuture<R> result;
+        final List<CompletableFuture<R>> attempts;
+        final AtomicInteger inProgress;
+
+        HedgedCall(Supplier<CompletableFuture<R>> call) {
+            this.call = call;
+            this.result = new CompletableFuture<>();
+            this.attempts = new CopyOnWriteArrayList<>();
+            this.inProgress = new AtomicInteger();
+
+            // cancel the remaining attempts when the first one succeeds, or when the caller cancels the result
+            result.whenComplete((r, e) -> attempts.forEach(a -> a.cancel(true)));
+        }
+
+        /**
+         * Starts an attempt, returning its future, or null if the attempt failed to start.
+         */
+        CompletableFuture<R> start() {
+            inProgress.incrementAndGet();
+
+            CompletableFuture<R> attempt;
+            try {
+                attempt = call.get();
+            } catch (RuntimeException e) {
+                onAttemptComplete(null, e);
+                return null;
+            }
+
+            attempts.add(attempt);
+
+            // the result may have completed while the attempt was starting
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+
+            attempt.whenComplete(this::onAttemptComplete);
+            return attempt;
+        }
+
+        void onAttemptComplete(R response, Throwable e) {
+            int left = inProgress.decrementAndGet();
+            if (e == null) {
+                if (!result.complete(response)) {
+                    release(response);
+                }
+            }
+
+            // only fail if there's no other attempt that may still succeed
+            else if (left == 0) {
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.hedging;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.AwsConfig;
+import io.bootique.value.Duration;
+
+/**
+ * @since 4.0
+ */
+@BQConfig("Hedging of idempotent calls to an AWS service")
+public class AwsHedgingFactory {
+
+    private static final double DEFAULT_PERCENTILE = 0.95;
+    private static final java.time.Duration DEFAULT_MIN_DELAY = java.time.Duration.ofMillis(10);
+
+    private Double percentile;
+    private Duration minDelay;
+
+    @BQConfigProperty("Percentile of the recent operation latency after which a hedged call is started. The default " +
+            "is 0.95, i.e. about 5% of the calls would be hedged, subject to the 'aws.hedgeBudget'.")
+    public AwsHedgingFactory setPercentile(Double percentile) {
+        this.percentile = percentile;
+        return this;
+    }
+
+    @BQConfigProperty("Min delay before a hedged call is started, regardless of the operation latency. " +
+            "The default is 10ms.")
+    public AwsHedgingFactory setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+        return this;
+    }
+
+    public AwsHedging create(AwsConfig config) {
+        return new AwsHedging(
+                percentile != null ? percentile : DEFAULT_PERCENTILE,
+                minDelay != null ? minDelay.getDuration() : DEFAULT_MIN_DELAY,
+                config.getHedgeBudget());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.http;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+
+/**
+ * Configures a pooling HTTP client based on Apache HttpClient. This is the default client type, and it supports all
+ * the transport settings. A good choice for long-running apps with high throughput.
+ *
+ * @since 4.0
+ */
+@JsonTypeName("apache")
+@BQConfig("HTTP client based on Apache HttpClient. Supports all the transport settings.")
+public class ApacheHttpClientFactory extends AwsHttpClientFactory {
+
+    @Override
+    public SdkHttpClient createHttpClient() {
+        ApacheHttpClient.Builder builder = ApacheHttpClient.builder();
+
+        if (maxConnections != null) {
+            builder.maxConnections(maxConnections);
+        }
+
+        if (connectionAcquisitionTimeout != null) {
+            builder.connectionAcquisitionTimeout(connectionAcquisitionTimeout.getDuration());
+        }
+
+        if (connectionTimeout != null) {
+            builder.connectionTimeout(connectionTimeout.getDuration());
+        }
+
+        if (socketTimeout != null) {
+            builder.socketTimeout(socketTimeout.getDuration());
+        }
+
+        if (connectionTimeToLive != null) {
+            builder.connectionTimeToLive(connectionTimeToLive.getDuration());
+        }
+
+        if (connectionMaxIdleTime != null) {
+            builder.connectionMaxIdleTime(connectionMaxIdleTime.getDuration());
+        }
+
+        if (tcpKeepAlive != null) {
+            builder.tcpKeepAlive(tcpKeepAlive);
+        }
+
+        if (expectContinueEnabled != null) {
+            builder.expectContinueEnabled(expectContinueEnabled);
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    protected AwsHttpClientFactory newInstance() {
+        return new ApacheHttpClientFactory();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.http;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+
+/**
+ * Configures a Netty-based non-blocking HTTP client shared by all async AWS service clients created via Bootique, and
+ * the event loop group that the client runs on. Allows many concurrent AWS requests to be processed by a small number
+ * of threads.
+ *
+ * @since 4.0
+ */
+@BQConfig("Configures non-blocking HTTP client shared by all async AWS service clients")
+public class AwsAsyncHttpClientFactory {
+
+    private Integer eventLoopThreads;
+    private Integer maxConcurrency;
+    private Integer maxPendingConnectionAcquires;
+    private Duration connectionAcquisitionTimeout;
+    private Duration connectionTimeout;
+    private Duration readTimeout;
+    private Duration writeTimeout;
+    private Duration connectionTimeToLive;
+    private Duration connectionMaxIdleTime;
+    private Boolean tcpKeepAlive;
+
+    @BQConfigProperty("Number of event loop threads. If not set, Netty default (2 x number of CPU cores) is used.")
+    public AwsAsyncHttpClientFactory setEventLoopThreads(Integer eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of concurrent requests (i.e. open connections for HTTP/1.1). If not set, AWS SDK " +
+            "default (50) is used.")
+    public AwsAsyncHttpClientFactory setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of requests that may wait for a connection when 'maxConcurrency' is reached. If " +
+            "not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setMaxPendingConnectionAcquires(Integer maxPendingConnectionAcquires) {
+        this.maxPendingConnectionAcquires = maxPendingConnectionAcquires;
+        return this;
+    }
+
+    @BQConfigProperty("How long to wait for a connection from the pool. If not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setConnectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+        this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Timeout for establishing a new connection. If not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Timeout for reading data from an established connection. If not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Timeout for writing data to an established connection. If not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setWriteTimeout(Duration writeTimeout) {
+        this.writeTimeout = writeTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Max time a pooled connection is allowed to live, regardless of its activity. " +
+            "If not set, connections are kept indefinitely.")
+    public AwsAsyncHttpClientFactory setConnectionTimeToLive(Duration connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+        return this;
+    }
+
+    @BQConfigProperty("Max time a connection may stay idle in the pool before it is closed. " +
+            "If not set, AWS SDK default is used.")
+    public AwsAsyncHttpClientFactory setConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+        return this;
+    }
+
+    @BQConfigProperty("Whether to enable TCP keep-alive on pooled connections. The default is 'false'.")
+    public AwsAsyncHttpClientFactory setTcpKeepAlive(Boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+        return this;
+    }
+
+    public SdkEventLoopGroup createEventLoopGroup() {
+        SdkEventLoopGroup.Builder builder = SdkEventLoopGroup.builder();
+
+        if (eventLoopThreads != null) {
+            builder.numberOfThreads(eventLoopThreads);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Creates an HTTP client running on the provided event loop group. The client will not shut down the group when
+     * closed, so the caller is responsible for shutting it down.
+     */
+    public SdkAsyncHttpClient createHttpClient(SdkEventLoopGroup eventLoopGroup) {
+        NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder().eventLoopGroup(eventLoopGroup);
+
+        if (maxConcurrency != null) {
+            builder.maxConcurrency(maxConcurrency);
+        }
+
+        if (maxPendingConnectionAcquires != null) {
+            builder.maxPendingConnectionAcquires(maxPendingConnectionAcquires);
+        }
+
+        if (connectionAcquisitionTimeout != null) {
+            builder.connectionAcquisitionTimeout(connectionAcquisitionTimeout.getDuration());
+        }
+
+        if (connectionTimeout != null) {
+            builder.connectionTimeout(connectionTimeout.getDuration());
+        }
+
+        if (readTimeout != null) {
+            builder.readTimeout(readTimeout.getDuration());
+        }
+
+        if (writeTimeout != null) {
+            builder.writeTimeout(writeTimeout.getDuration());
+        }
+
+        if (connectionTimeToLive != null) {
+            builder.connectionTimeToLive(connectionTimeToLive.getDuration());
+        }
+
+        if (connectionMaxIdleTime != null) {
+            builder.connectionMaxIdleTime(connectionMaxIdleTime.getDuration());
+        }
+
+        if (tcpKeepAlive != null) {
+            builder.tcpKeepAlive(tcpKeepAlive);
+        }
+
+        return builder.build();
+    }
+}
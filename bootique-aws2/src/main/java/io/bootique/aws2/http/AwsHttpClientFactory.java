@@ -0,0 +1,132 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.http;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.config.PolymorphicConfiguration;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.http.SdkHttpClient;
+
+/**
+ * Configures an HTTP client used by AWS service clients. A module-level instance configured under "aws.http" produces
+ * a client shared by all AWS services. Service-level instances can override some of its settings, in which case
+ * such a service would get its own dedicated HTTP client. Subclasses correspond to the HTTP client implementations
+ * available in the AWS SDK. Transport settings are common to all of them, but each implementation only applies the
+ * settings it supports. If the "type" is omitted, a service-level client is of the same type as the module-level one.
+ *
+ * @since 4.0
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = DefaultHttpClientFactory.class)
+@BQConfig("Configures HTTP client used by AWS service clients")
+public abstract class AwsHttpClientFactory implements PolymorphicConfiguration {
+
+    protected Integer maxConnections;
+    protected Duration connectionAcquisitionTimeout;
+    protected Duration connectionTimeout;
+    protected Duration socketTimeout;
+    protected Duration connectionTimeToLive;
+    protected Duration connectionMaxIdleTime;
+    protected Boolean tcpKeepAlive;
+    protected Boolean expectContinueEnabled;
+
+    @BQConfigProperty("Max number of connections in the pool. If not set, AWS SDK default (50) is used.")
+    public AwsHttpClientFactory setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    @BQConfigProperty("How long to wait for a connection from the pool, when all connections are in use. " +
+            "If not set, AWS SDK default is used.")
+    public AwsHttpClientFactory setConnectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+        this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Timeout for establishing a new connection. If not set, AWS SDK default is used.")
+    public AwsHttpClientFactory setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Timeout for reading data from an established connection. If not set, AWS SDK default is used.")
+    public AwsHttpClientFactory setSocketTimeout(Duration socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
+    @BQConfigProperty("Max time a pooled connection is allowed to live, regardless of its activity. " +
+            "If not set, connections are kept indefinitely.")
+    public AwsHttpClientFactory setConnectionTimeToLive(Duration connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+        return this;
+    }
+
+    @BQConfigProperty("Max time a connection may stay idle in the pool before it is closed. " +
+            "If not set, AWS SDK default is used.")
+    public AwsHttpClientFactory setConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+        return this;
+    }
+
+    @BQConfigProperty("Whether to enable TCP keep-alive on pooled connections. The default is 'false'.")
+    public AwsHttpClientFactory setTcpKeepAlive(Boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+        return this;
+    }
+
+    @BQConfigProperty("Whether to send 'Expect: 100-continue' header with request bodies. The default is 'true'.")
+    public AwsHttpClientFactory setExpectContinueEnabled(Boolean expectContinueEnabled) {
+        this.expectContinueEnabled = expectContinueEnabled;
+        return this;
+    }
+
+    /**
+     * Returns a new factory of the same type as this factory with the settings of this factory, and any unset
+     * settings taken from the provided defaults. The defaults may be of a different type, in which case only the
+     * common transport settings are inherited. A {@link DefaultHttpClientFactory} takes the type of the defaults.
+     */
+    public AwsHttpClientFactory withDefaults(AwsHttpClientFactory defaults) {
+        return mergeInto(newInstance(), defaults);
+    }
+
+    /**
+     * Copies the settings of this factory to the provided blank factory, taking any unset settings from the defaults.
+     */
+    protected AwsHttpClientFactory mergeInto(AwsHttpClientFactory merged, AwsHttpClientFactory defaults) {
+        merged.maxConnections = maxConnections != null ? maxConnections : defaults.maxConnections;
+        merged.connectionAcquisitionTimeout = connectionAcquisitionTimeout != null ? connectionAcquisitionTimeout : defaults.connectionAcquisitionTimeout;
+        merged.connectionTimeout = connectionTimeout != null ? connectionTimeout : defaults.connectionTimeout;
+        merged.socketTimeout = socketTimeout != null ? socketTimeout : defaults.socketTimeout;
+        merged.connectionTimeToLive = connectionTimeToLive != null ? connectionTimeToLive : defaults.connectionTimeToLive;
+        merged.connectionMaxIdleTime = connectionMaxIdleTime != null ? connectionMaxIdleTime : defaults.connectionMaxIdleTime;
+        merged.tcpKeepAlive = tcpKeepAlive != null ? tcpKeepAlive : defaults.tcpKeepAlive;
+        merged.expectContinueEnabled = expectContinueEnabled != null ? expectContinueEnabled : defaults.expectContinueEnabled;
+        return merged;
+    }
+
+    public abstract SdkHttpClient createHttpClient();
+
+    /**
+     * Creates a new "blank" instance of the same type as this factory.
+     */
+    protected abstract AwsHttpClientFactory newInstance();
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.http;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+
+/**
+ * Configures an HTTP client based on the AWS Common Runtime (CRT). Supports "maxConnections" (as max concurrency),
+ * "connectionTimeout", "connectionAcquisitionTimeout" and "connectionMaxIdleTime" settings. Requires
+ * "software.amazon.awssdk:aws-crt-client" and "software.amazon.awssdk.crt:aws-crt" dependencies.
+ *
+ * @since 4.0
+ */
+@JsonTypeName("crt")
+@BQConfig("HTTP client based on the AWS Common Runtime (CRT). Supports 'maxConnections', 'connectionTimeout', " +
+        "'connectionAcquisitionTimeout' and 'connectionMaxIdleTime'. Requires 'software.amazon.awssdk:aws-crt-client' " +
+        "and 'software.amazon.awssdk.crt:aws-crt' dependencies.")
+public class CrtHttpClientFactory extends AwsHttpClientFactory {
+
+    @Override
+    public SdkHttpClient createHttpClient() {
+        AwsCrtHttpClient.Builder builder = AwsCrtHttpClient.builder();
+
+        if (maxConnections != null) {
+            builder.maxConcurrency(maxConnections);
+        }
+
+        if (connectionTimeout != null) {
+            builder.connectionTimeout(connectionTimeout.getDuration());
+        }
+
+        if (connectionAcquisitionTimeout != null) {
+            builder.connectionAcquisitionTimeout(connectionAcquisitionTimeout.getDuration());
+        }
+
+        if (connectionMaxIdleTime != null) {
+            builder.connectionMaxIdleTime(connectionMaxIdleTime.getDuration());
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    protected AwsHttpClientFactory newInstance() {
+        return new CrtHttpClientFactory();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.bootique.aws2.http;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import software.amazon.awssdk.http.SdkHttpClient;
+
+/**
+ * An HTTP client configuration that doesn't specify the client type. Used when the "type" property is omitted. A
+ * service-level instance inherits the type of the module-level "aws.http" client, so that overriding a few transport
+ * settings doesn't silently switch the service to a different client implementation. A module-level instance creates
+ * an Apache HttpClient.
+ *
+ * @since 4.0
+ */
+@JsonTypeName("default")
+@BQConfig("HTTP client of the same type as the module-level 'aws.http' client. If this is the module-level client, " +
+        "Apache HttpClient is used.")
+public class DefaultHttpClientFactory extends AwsHttpClientFactory {
+
+    @Override
+    public AwsHttpClientFactory withDefaults(AwsHttpClientFactory defaults) {
+        return mergeInto(defaults.newInstance(), defaults);
+    }
+
+    @Override
+    public SdkHttpClient createHttpClient() {
+        return withDefaults(new ApacheHttpClientFactory()).createHttpClient();
+    }
+
+    @Override
+    protected AwsHttpClientFactory newInstance() {
+        return new DefaultHttpClientFactory();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.http;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.bootique.annotation.BQConfig;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+/**
+ * Configures an HTTP client based on the JDK HttpURLConnection. It has a minimal footprint and a fast startup, so it is
+ * a good choice for short-lived apps (e.g. Lambdas or one-off config loading). Only supports "connectionTimeout" and
+ * "socketTimeout" settings. Requires "software.amazon.awssdk:url-connection-client" dependency.
+ *
+ * @since 4.0
+ */
+@JsonTypeName("url-connection")
+@BQConfig("HTTP client based on the JDK HttpURLConnection. Only supports 'connectionTimeout' and 'socketTimeout'. " +
+        "Requires 'software.amazon.awssdk:url-connection-client' dependency.")
+public class UrlConnectionHttpClientFactory extends AwsHttpClientFactory {
+
+    @Override
+    public SdkHttpClient createHttpClient() {
+        UrlConnectionHttpClient.Builder builder = UrlConnectionHttpClient.builder();
+
+        if (connectionTimeout != null) {
+            builder.connectionTimeout(connectionTimeout.getDuration());
+        }
+
+        if (socketTimeout != null) {
+            builder.socketTimeout(socketTimeout.getDuration());
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    protected AwsHttpClientFactory newInstance() {
+        return new UrlConnectionHttpClientFactory();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.interceptor;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An execution interceptor that tracks the number of AWS calls in progress, allowing the shutdown sequence to wait
+ * for them to complete before closing the clients and the HTTP connection pools. A call is considered in progress
+ * from the moment its first attempt is sent until it completes or fails.
+ *
+ * @since 4.0
+ */
+public class InFlightCallsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Boolean> IN_FLIGHT = new ExecutionAttribute<>("BootiqueInFlight");
+
+    private final AtomicInteger inFlightCalls;
+    private final Object lock;
+
+    public InFlightCallsInterceptor() {
+        this.inFlightCalls = new AtomicInteger();
+        this.lock = new Object();
+    }
+
+    public int getInFlightCalls() {
+        return inFlightCalls.get();
+    }
+
+    /**
+     * Waits until there are no calls in progress or the timeout expires, whichever comes first.
+     *
+     * @return true if there are no calls in progress, false if the timeout expired before the calls completed
+     */
+    public boolean awaitInFlightCalls(Duration timeout) {
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        synchronized (lock) {
+            while (inFlightCalls.get() > 0) {
+
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+
+                try {
+                    lock.wait(Math.max(1, remainingNanos / 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return inFlightCalls.get() == 0;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+
+        // counting from the first attempt and not from "beforeExecution", as the SDK only invokes the failure
+        // callback for the errors thrown after this point
+        if (executionAttributes.getAttribute(IN_FLIGHT) == null) {
+            executionAttributes.putAttribute(IN_FLIGHT, Boolean.TRUE);
+            inFlightCalls.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        complete(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        complete(executionAttributes);
+    }
+
+    private void complete(ExecutionAttributes executionAttributes) {
+
+        if (executionAttributes.getAttribute(IN_FLIGHT) == null) {
+            return;
+        }
+
+        executionAttributes.putAttribute(IN_FLIGHT, null);
+        if (inFlightCalls.decrementAndGet() == 0) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.interceptor;
+
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * An SDK execution interceptor contributed via DI, with the order in which it should be invoked relative to other
+ * contributed interceptors.
+ *
+ * @since 4.0
+ */
+public class OrderedExecutionInterceptor {
+
+    private final ExecutionInterceptor interceptor;
+    private final int order;
+
+    public OrderedExecutionInterceptor(ExecutionInterceptor interceptor, int order) {
+        this.interceptor = interceptor;
+        this.order = order;
+    }
+
+    public ExecutionInterceptor getInterceptor() {
+        return interceptor;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+}
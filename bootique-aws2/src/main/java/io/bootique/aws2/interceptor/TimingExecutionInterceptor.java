@@ -0,0 +1,66 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.interceptor;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.metrics.MetricCategory;
+import software.amazon.awssdk.metrics.MetricCollector;
+import software.amazon.awssdk.metrics.MetricLevel;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+
+/**
+ * An interceptor that measures the time each request attempt spends on the wire (from the start of transmission to
+ * the response headers), and reports it as {@link #TRANSMISSION_DURATION} metric of the attempt. The interceptor is
+ * stateless and only allocates a timestamp per attempt. The metric is aggregated by
+ * {@link io.bootique.aws2.metrics.AwsMetricsPublisher} together with the SDK core metrics.
+ *
+ * @since 4.0
+ */
+public class TimingExecutionInterceptor implements ExecutionInterceptor {
+
+    public static final SdkMetric<Duration> TRANSMISSION_DURATION = SdkMetric.create(
+            "BootiqueTransmissionDuration",
+            Duration.class,
+            MetricLevel.INFO,
+            MetricCategory.CUSTOM);
+
+    private static final ExecutionAttribute<Long> TRANSMISSION_START = new ExecutionAttribute<>("BootiqueTransmissionStart");
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(TRANSMISSION_START, System.nanoTime());
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        Long start = executionAttributes.getAttribute(TRANSMISSION_START);
+        MetricCollector collector = executionAttributes.getAttribute(SdkExecutionAttribute.API_CALL_ATTEMPT_METRIC_COLLECTOR);
+
+        if (start != null && collector != null) {
+            collector.reportMetric(TRANSMISSION_DURATION, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.jfr;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+/**
+ * A credentials provider wrapper that emits {@link AwsCredentialsResolveEvent} for each resolution, when JFR
+ * recording of the event is enabled.
+ *
+ * @since 4.0
+ */
+public class JfrCredentialsProvider implements AwsCredentialsProvider {
+
+    private final AwsCredentialsProvider delegate;
+
+    public JfrCredentialsProvider(AwsCredentialsProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    public AwsCredentialsProvider getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public AwsCredentials resolveCredentials() {
+
+        AwsCredentialsResolveEvent event = new AwsCredentialsResolveEvent();
+        if (!event.isEnabled()) {
+            return delegate.resolveCredentials();
+        }
+
+        event.begin();
+        event.provider = delegate.getClass().getSimpleName();
+        try {
+            AwsCredentials credentials = delegate.resolveCredentials();
+            event.successful = true;
+            return credentials;
+        } catch (RuntimeException e) {
+            event.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
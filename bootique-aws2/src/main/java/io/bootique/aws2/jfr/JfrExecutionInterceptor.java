@@ -0,0 +1,163 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.jfr;
+
+import jdk.jfr.EventType;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.sync.RequestBody;
+
+/**
+ * An execution interceptor that emits {@link AwsApiCallEvent} and {@link AwsRetryEvent} JFR events. When JFR is not
+ * recording these events, the interceptor does nothing beyond a single check per API call.
+ *
+ * @since 4.0
+ */
+public class JfrExecutionInterceptor implements ExecutionInterceptor {
+
+    private static final EventType API_CALL_EVENT_TYPE = EventType.getEventType(AwsApiCallEvent.class);
+    private static final ExecutionAttribute<AwsApiCallEvent> API_CALL_EVENT = new ExecutionAttribute<>("BootiqueJfrApiCallEvent");
+    private static final ExecutionAttribute<AwsRetryEvent> RETRY_EVENT = new ExecutionAttribute<>("BootiqueJfrRetryEvent");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+
+        if (!API_CALL_EVENT_TYPE.isEnabled()) {
+            return;
+        }
+
+        AwsApiCallEvent event = new AwsApiCallEvent();
+        event.begin();
+        event.service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        event.operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        event.resource = resource(context.request());
+        executionAttributes.putAttribute(API_CALL_EVENT, event);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+
+        AwsApiCallEvent event = executionAttributes.getAttribute(API_CALL_EVENT);
+        if (event == null) {
+            return;
+        }
+
+        event.attempts++;
+        event.requestBytes = requestBytes(context);
+
+        // the previous retry attempt failed without an HTTP response (e.g. an IO error), and never reached
+        // "afterTransmission"
+        commitRetry(executionAttributes);
+
+        if (event.attempts > 1) {
+            AwsRetryEvent retry = new AwsRetryEvent();
+            if (retry.isEnabled()) {
+                retry.begin();
+                retry.service = event.service;
+                retry.operation = event.operation;
+                retry.resource = event.resource;
+                retry.attempt = event.attempts;
+                executionAttributes.putAttribute(RETRY_EVENT, retry);
+            }
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+
+        AwsApiCallEvent event = executionAttributes.getAttribute(API_CALL_EVENT);
+        if (event == null) {
+            return;
+        }
+
+        event.httpStatus = context.httpResponse().statusCode();
+        event.responseBytes = context.httpResponse()
+                .firstMatchingHeader("Content-Length")
+                .map(JfrExecutionInterceptor::parseLong)
+                .orElse(0L);
+
+        AwsRetryEvent retry = executionAttributes.getAttribute(RETRY_EVENT);
+        if (retry != null) {
+            retry.httpStatus = event.httpStatus;
+        }
+
+        commitRetry(executionAttributes);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        AwsApiCallEvent event = executionAttributes.getAttribute(API_CALL_EVENT);
+        if (event != null) {
+            event.successful = true;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+
+        commitRetry(executionAttributes);
+
+        AwsApiCallEvent event = executionAttributes.getAttribute(API_CALL_EVENT);
+        if (event != null) {
+            Throwable e = context.exception();
+            event.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            event.commit();
+        }
+    }
+
+    private static void commitRetry(ExecutionAttributes executionAttributes) {
+        AwsRetryEvent retry = executionAttributes.getAttribute(RETRY_EVENT);
+        if (retry != null) {
+            retry.commit();
+            executionAttributes.putAttribute(RETRY_EVENT, null);
+        }
+    }
+
+    static String resource(SdkRequest request) {
+
+        String bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        if (bucket != null) {
+            return request.getValueForField("Key", String.class).map(k -> bucket + "/" + k).orElse(bucket);
+        }
+
+        return request.getValueForField("SecretId", String.class).orElse(null);
+    }
+
+    private static long requestBytes(Context.BeforeTransmission context) {
+        return context.requestBody()
+                .flatMap(RequestBody::optionalContentLength)
+                .or(() -> context.asyncRequestBody().flatMap(AsyncRequestBody::contentLength))
+                .orElse(0L);
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
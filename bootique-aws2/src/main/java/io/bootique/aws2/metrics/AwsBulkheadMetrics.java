@@ -0,0 +1,78 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a single bulkhead limiting concurrent calls to an AWS service or an S3 bucket. Durations are recorded in
+ * microseconds.
+ *
+ * @since 4.0
+ */
+public class AwsBulkheadMetrics {
+
+    private final String name;
+    private final LongAdder acquiredCalls;
+    private final LongAdder rejectedCalls;
+    private final AwsHistogram waitDuration;
+
+    public AwsBulkheadMetrics(String name) {
+        this.name = name;
+        this.acquiredCalls = new LongAdder();
+        this.rejectedCalls = new LongAdder();
+        this.waitDuration = new AwsHistogram();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of calls that were let through the bulkhead.
+     */
+    public long getAcquiredCalls() {
+        return acquiredCalls.sum();
+    }
+
+    /**
+     * Returns the number of calls rejected because the bulkhead was full for longer than its max wait.
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    /**
+     * Returns a histogram of time the calls spent waiting for a bulkhead permit, including the rejected calls.
+     */
+    public AwsHistogram getWaitDuration() {
+        return waitDuration;
+    }
+
+    public void recordAcquired(long waitMicros) {
+        acquiredCalls.increment();
+        waitDuration.record(waitMicros);
+    }
+
+    public void recordRejected(long waitMicros) {
+        rejectedCalls.increment();
+        waitDuration.record(waitMicros);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values with log-linear buckets (4 buckets per power of two). Percentiles
+ * are reported with a relative error under 25%, which is sufficient to graph latency distributions, at a fixed
+ * memory cost of ~2KB per histogram, and a cost of a few atomic increments per recorded value.
+ * <p>
+ * {@link #snapshot()} returns all the values recorded since the histogram was created, while {@link #intervalSnapshot()}
+ * returns the values recorded since the previous interval snapshot. The latter should be used to report current
+ * percentiles periodically, e.g. to graph the latency over time.
+ *
+ * @since 4.0
+ */
+public class AwsHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+    private final LongAccumulator intervalMax;
+
+    // cumulative state as of the last interval snapshot, guarded by "this"
+    private long[] intervalStartCounts;
+    private long intervalStartSum;
+
+    public AwsHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+        this.intervalMax = new LongAccumulator(Math::max, 0);
+        this.intervalStartCounts = new long[BUCKETS];
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + subBucket * width + width - 1;
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets.incrementAndGet(bucketIndex(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+        intervalMax.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns a point-in-time copy of the histogram that can be used to calculate percentiles. Values recorded
+     * concurrently with taking the snapshot may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        return new Snapshot(counts, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Returns a copy of the histogram with only the values recorded since the previous call to this method (or since
+     * the histogram creation), and starts a new interval. Values recorded concurrently with taking the snapshot may be
+     * attributed to either interval. Intended for a single periodic reporter, as each call starts a new interval for
+     * all the callers.
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] cumulative = new long[BUCKETS];
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative[i] = buckets.get(i);
+            counts[i] = cumulative[i] - intervalStartCounts[i];
+            total += counts[i];
+        }
+
+        long cumulativeSum = sum.sum();
+        Snapshot snapshot = new Snapshot(counts, total, cumulativeSum - intervalStartSum, intervalMax.getThenReset());
+
+        this.intervalStartCounts = cumulative;
+        this.intervalStartSum = cumulativeSum;
+        return snapshot;
+    }
+
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        protected Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0.;
+        }
+
+        /**
+         * Returns an upper bound of the value below which the given fraction of recorded values fall.
+         *
+         * @param quantile a value between 0 and 1, e.g. 0.99 for p99
+         */
+        public long getPercentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+
+            return max;
+        }
+    }
+}
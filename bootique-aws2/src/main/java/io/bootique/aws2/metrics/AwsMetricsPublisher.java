@@ -0,0 +1,106 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import io.bootique.aws2.interceptor.TimingExecutionInterceptor;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * An AWS SDK metric publisher that aggregates core SDK metrics of each API call into {@link AwsMetricsRegistry}.
+ *
+ * @since 4.0
+ */
+public class AwsMetricsPublisher implements MetricPublisher {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final AwsMetricsRegistry registry;
+
+    public AwsMetricsPublisher(AwsMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public AwsMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+
+        AwsOperationMetrics metrics = registry.operationMetrics(
+                first(metricCollection.metricValues(CoreMetric.SERVICE_ID), UNKNOWN),
+                first(metricCollection.metricValues(CoreMetric.OPERATION_NAME), UNKNOWN));
+
+        metrics.recordCall(first(metricCollection.metricValues(CoreMetric.API_CALL_SUCCESSFUL), Boolean.TRUE));
+
+        // the metrics are spread over the "ApiCall", "ApiCallAttempt" and "HttpClient" levels, so walk the whole tree
+        record(metricCollection, metrics);
+    }
+
+    protected void record(MetricCollection collection, AwsOperationMetrics metrics) {
+
+        recordDurations(collection.metricValues(CoreMetric.API_CALL_DURATION), metrics.getApiCallDuration());
+        recordDurations(collection.metricValues(CoreMetric.SERVICE_CALL_DURATION), metrics.getServiceCallDuration());
+        recordDurations(collection.metricValues(TimingExecutionInterceptor.TRANSMISSION_DURATION), metrics.getTransmissionDuration());
+        recordDurations(collection.metricValues(CoreMetric.CREDENTIALS_FETCH_DURATION), metrics.getCredentialsFetchDuration());
+        recordDurations(collection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION), metrics.getConcurrencyAcquireDuration());
+
+        for (Integer v : collection.metricValues(CoreMetric.RETRY_COUNT)) {
+            metrics.getRetryCount().record(v);
+        }
+
+        for (Double v : collection.metricValues(CoreMetric.READ_THROUGHPUT)) {
+            metrics.getReadThroughput().record(v.longValue());
+        }
+
+        for (Integer v : collection.metricValues(HttpMetric.LEASED_CONCURRENCY)) {
+            metrics.getLeasedConcurrency().record(v);
+        }
+
+        for (Integer v : collection.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES)) {
+            metrics.getPendingConcurrencyAcquires().record(v);
+        }
+
+        for (MetricCollection child : collection.children()) {
+            record(child, metrics);
+        }
+    }
+
+    private static void recordDurations(List<Duration> durations, AwsHistogram histogram) {
+        for (Duration d : durations) {
+            histogram.record(d.toNanos() / 1000);
+        }
+    }
+
+    private static <T> T first(List<T> values, T defaultValue) {
+        return values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    @Override
+    public void close() {
+        // nothing to close. The registry outlives individual clients
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An injectable registry of metrics of AWS API calls made by the clients created via Bootique, keyed by service and
+ * operation. Also contains metrics of the configured bulkheads, keyed by bulkhead name. The metrics are accumulated
+ * since startup. Periodic reporters should use {@link AwsHistogram#intervalSnapshot()} to get current percentiles.
+ *
+ * @since 4.0
+ */
+public class AwsMetricsRegistry {
+
+    private final Map<Key, AwsOperationMetrics> operations;
+    private final Map<String, AwsBulkheadMetrics> bulkheads;
+
+    public AwsMetricsRegistry() {
+        this.operations = new ConcurrentHashMap<>();
+        this.bulkheads = new ConcurrentHashMap<>();
+    }
+
+    public Collection<AwsOperationMetrics> getOperationMetrics() {
+        return operations.values();
+    }
+
+    public Optional<AwsOperationMetrics> getOperationMetrics(String serviceId, String operationName) {
+        return Optional.ofNullable(operations.get(new Key(serviceId, operationName)));
+    }
+
+    public AwsOperationMetrics operationMetrics(String serviceId, String operationName) {
+        return operations.computeIfAbsent(
+                new Key(serviceId, operationName),
+                k -> new AwsOperationMetrics(k.serviceId(), k.operationName()));
+    }
+
+    public Collection<AwsBulkheadMetrics> getBulkheadMetrics() {
+        return bulkheads.values();
+    }
+
+    public Optional<AwsBulkheadMetrics> getBulkheadMetrics(String name) {
+        return Optional.ofNullable(bulkheads.get(name));
+    }
+
+    public AwsBulkheadMetrics bulkheadMetrics(String name) {
+        return bulkheads.computeIfAbsent(name, AwsBulkheadMetrics::new);
+    }
+
+    private record Key(String serviceId, String operationName) {
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated metrics of a single AWS API operation (e.g. "S3" "GetObject"). Durations are recorded in microseconds.
+ *
+ * @since 4.0
+ */
+public class AwsOperationMetrics {
+
+    private final String serviceId;
+    private final String operationName;
+
+    private final LongAdder calls;
+    private final LongAdder failedCalls;
+    private final AwsHistogram apiCallDuration;
+    private final AwsHistogram serviceCallDuration;
+    private final AwsHistogram transmissionDuration;
+    private final AwsHistogram credentialsFetchDuration;
+    private final AwsHistogram retryCount;
+    private final AwsHistogram readThroughput;
+    private final AwsHistogram concurrencyAcquireDuration;
+    private final AwsHistogram leasedConcurrency;
+    private final AwsHistogram pendingConcurrencyAcquires;
+
+    public AwsOperationMetrics(String serviceId, String operationName) {
+        this.serviceId = serviceId;
+        this.operationName = operationName;
+        this.calls = new LongAdder();
+        this.failedCalls = new LongAdder();
+        this.apiCallDuration = new AwsHistogram();
+        this.serviceCallDuration = new AwsHistogram();
+        this.transmissionDuration = new AwsHistogram();
+        this.credentialsFetchDuration = new AwsHistogram();
+        this.retryCount = new AwsHistogram();
+        this.readThroughput = new AwsHistogram();
+        this.concurrencyAcquireDuration = new AwsHistogram();
+        this.leasedConcurrency = new AwsHistogram();
+        this.pendingConcurrencyAcquires = new AwsHistogram();
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * Returns the number of API calls, including the failed ones.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    /**
+     * Total duration of API calls in microseconds, including retries and backoff.
+     */
+    public AwsHistogram getApiCallDuration() {
+        return apiCallDuration;
+    }
+
+    /**
+     * Duration of individual HTTP attempts in microseconds.
+     */
+    public AwsHistogram getServiceCallDuration() {
+        return serviceCallDuration;
+    }
+
+    /**
+     * Time individual HTTP attempts spend on the wire in microseconds. Only collected if
+     * {@link io.bootique.aws2.interceptor.TimingExecutionInterceptor} is registered.
+     */
+    public AwsHistogram getTransmissionDuration() {
+        return transmissionDuration;
+    }
+
+    public AwsHistogram getCredentialsFetchDuration() {
+        return credentialsFetchDuration;
+    }
+
+    public AwsHistogram getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Response read throughput in bytes per second.
+     */
+    public AwsHistogram getReadThroughput() {
+        return readThroughput;
+    }
+
+    /**
+     * Time waiting for an HTTP connection from the pool in microseconds.
+     */
+    public AwsHistogram getConcurrencyAcquireDuration() {
+        return concurrencyAcquireDuration;
+    }
+
+    /**
+     * Number of leased HTTP connections observed at the time of each request.
+     */
+    public AwsHistogram getLeasedConcurrency() {
+        return leasedConcurrency;
+    }
+
+    /**
+     * Number of requests waiting for an HTTP connection observed at the time of each request.
+     */
+    public AwsHistogram getPendingConcurrencyAcquires() {
+        return pendingConcurrencyAcquires;
+    }
+
+    void recordCall(boolean successful) {
+        calls.increment();
+        if (!successful) {
+            failedCalls.increment();
+        }
+    }
+}
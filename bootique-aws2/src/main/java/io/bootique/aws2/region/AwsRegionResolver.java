@@ -0,0 +1,102 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.region;
+
+import io.bootique.aws2.credentials.SharedProfileFileSupplier;
+import software.amazon.awssdk.profiles.ProfileFileSystemSetting;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.AwsProfileRegionProvider;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
+import software.amazon.awssdk.regions.providers.InstanceProfileRegionProvider;
+import software.amazon.awssdk.regions.providers.SystemSettingsRegionProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An injectable singleton that resolves the default AWS region from the environment via an ordered list of region
+ * providers. Each distinct provider list is resolved only once per runtime, so the app config and the secrets loader
+ * share the result, and the instance metadata service is called at most once.
+ *
+ * @since 4.0
+ */
+public class AwsRegionResolver {
+
+    /**
+     * Region from "AWS_REGION" environment variable or "aws.region" system property.
+     */
+    public static final String ENV_PROVIDER = "env";
+
+    /**
+     * Region from the current AWS profile in ~/.aws/config.
+     */
+    public static final String PROFILE_PROVIDER = "profile";
+
+    /**
+     * Region from EC2 instance metadata service (IMDS).
+     */
+    public static final String INSTANCE_PROVIDER = "instance";
+
+    private final Map<List<String>, Optional<Region>> resolved;
+
+    public AwsRegionResolver() {
+        this.resolved = new ConcurrentHashMap<>();
+    }
+
+    public Optional<Region> resolve(List<String> providers) {
+        return resolved.computeIfAbsent(List.copyOf(providers), this::resolveUncached);
+    }
+
+    protected Optional<Region> resolveUncached(List<String> providers) {
+
+        for (String name : providers) {
+
+            AwsRegionProvider provider = createProvider(name);
+
+            Region region;
+            try {
+                region = provider.getRegion();
+            } catch (RuntimeException e) {
+                // region is not available from this provider, try the next one
+                continue;
+            }
+
+            if (region != null) {
+                return Optional.of(region);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    protected AwsRegionProvider createProvider(String name) {
+        return switch (name) {
+            case ENV_PROVIDER -> new SystemSettingsRegionProvider();
+            case PROFILE_PROVIDER -> new AwsProfileRegionProvider(
+                    SharedProfileFileSupplier.defaultSupplier(),
+                    ProfileFileSystemSetting.AWS_PROFILE.getStringValue().orElse("default"));
+            case INSTANCE_PROVIDER -> new InstanceProfileRegionProvider();
+            default -> throw new IllegalArgumentException("Unsupported region provider: '" + name
+                    + "'. Expected one of '" + ENV_PROVIDER + "', '" + PROFILE_PROVIDER + "', '" + INSTANCE_PROVIDER + "'");
+        };
+    }
+}
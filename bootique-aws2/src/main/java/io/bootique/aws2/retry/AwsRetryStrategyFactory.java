@@ -0,0 +1,153 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.retry;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.value.Duration;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.retries.LegacyRetryStrategy;
+import software.amazon.awssdk.retries.StandardRetryStrategy;
+import software.amazon.awssdk.retries.api.BackoffStrategy;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+
+/**
+ * Configures the retry strategy of AWS service clients. The strategy object created by this factory is stateful (it
+ * holds the retry quota token bucket and, in the "adaptive" mode, the client-side rate limiter), so it should be
+ * shared by all clients of a given service.
+ *
+ * @since 4.0
+ */
+@BQConfig
+public class AwsRetryStrategyFactory {
+
+    private static final java.time.Duration DEFAULT_BACKOFF_BASE = java.time.Duration.ofMillis(100);
+    private static final java.time.Duration DEFAULT_THROTTLING_BACKOFF_BASE = java.time.Duration.ofMillis(500);
+    private static final java.time.Duration DEFAULT_BACKOFF_MAX = java.time.Duration.ofSeconds(20);
+
+    private String mode;
+    private Integer maxAttempts;
+    private Duration backoffBase;
+    private Duration backoffMax;
+    private Duration throttlingBackoffBase;
+    private Duration throttlingBackoffMax;
+    private Boolean circuitBreakerEnabled;
+
+    @BQConfigProperty("Retry mode. One of 'standard', 'adaptive' or 'legacy'. 'adaptive' adds a client-side rate " +
+            "limiter that slows down all the clients of the service when AWS throttles requests. If not set, the mode " +
+            "is taken from the 'AWS_RETRY_MODE' environment variable or the AWS profile, defaulting to 'legacy'.")
+    public AwsRetryStrategyFactory setMode(String mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    @BQConfigProperty("Max number of attempts per call, including the first attempt. The default depends on the mode.")
+    public AwsRetryStrategyFactory setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    @BQConfigProperty("Base delay of the exponential backoff (with jitter) between attempts. The default is 100ms.")
+    public AwsRetryStrategyFactory setBackoffBase(Duration backoffBase) {
+        this.backoffBase = backoffBase;
+        return this;
+    }
+
+    @BQConfigProperty("Max delay between attempts. The default is 20s.")
+    public AwsRetryStrategyFactory setBackoffMax(Duration backoffMax) {
+        this.backoffMax = backoffMax;
+        return this;
+    }
+
+    @BQConfigProperty("Base delay of the exponential backoff (with jitter) between attempts after a throttling " +
+            "error. The default is 500ms.")
+    public AwsRetryStrategyFactory setThrottlingBackoffBase(Duration throttlingBackoffBase) {
+        this.throttlingBackoffBase = throttlingBackoffBase;
+        return this;
+    }
+
+    @BQConfigProperty("Max delay between attempts after a throttling error. The default is 20s.")
+    public AwsRetryStrategyFactory setThrottlingBackoffMax(Duration throttlingBackoffMax) {
+        this.throttlingBackoffMax = throttlingBackoffMax;
+        return this;
+    }
+
+    @BQConfigProperty("Whether to limit retries with a token bucket that is drained by failed attempts and refilled " +
+            "by successful ones, so that a failing service is not flooded with retries. Ignored in the 'adaptive' " +
+            "mode. The default is 'true'.")
+    public AwsRetryStrategyFactory setCircuitBreakerEnabled(Boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+        return this;
+    }
+
+    public RetryStrategy create() {
+
+        RetryStrategy.Builder<?, ?> builder = AwsRetryStrategy.forRetryMode(resolveMode()).toBuilder();
+
+        if (maxAttempts != null) {
+            builder.maxAttempts(maxAttempts);
+        }
+
+        if (backoffBase != null || backoffMax != null) {
+            builder.backoffStrategy(BackoffStrategy.exponentialDelay(
+                    backoffBase != null ? backoffBase.getDuration() : DEFAULT_BACKOFF_BASE,
+                    backoffMax != null ? backoffMax.getDuration() : DEFAULT_BACKOFF_MAX));
+        }
+
+        if (throttlingBackoffBase != null || throttlingBackoffMax != null) {
+            builder.throttlingBackoffStrategy(BackoffStrategy.exponentialDelay(
+                    throttlingBackoffBase != null ? throttlingBackoffBase.getDuration() : DEFAULT_THROTTLING_BACKOFF_BASE,
+                    throttlingBackoffMax != null ? throttlingBackoffMax.getDuration() : DEFAULT_BACKOFF_MAX));
+        }
+
+        if (circuitBreakerEnabled != null) {
+            if (builder instanceof StandardRetryStrategy.Builder sb) {
+                sb.circuitBreakerEnabled(circuitBreakerEnabled);
+            } else if (builder instanceof LegacyRetryStrategy.Builder lb) {
+                lb.circuitBreakerEnabled(circuitBreakerEnabled);
+            }
+        }
+
+        // Apply AWS retry conditions here, and prevent the client builders from doing it again. Otherwise each
+        // client would rebuild the strategy, and the token bucket and the rate limiter would not be shared.
+        return AwsRetryStrategy.configureStrategy(builder).useClientDefaults(false).build();
+    }
+
+    protected RetryMode resolveMode() {
+
+        if (mode == null) {
+            RetryMode defaultMode = RetryMode.defaultRetryMode();
+
+            // the first version of the adaptive mode is not supported by the new retry API
+            @SuppressWarnings("deprecation")
+            boolean adaptiveV1 = defaultMode == RetryMode.ADAPTIVE;
+            return adaptiveV1 ? RetryMode.ADAPTIVE_V2 : defaultMode;
+        }
+
+        return switch (mode) {
+            case "standard" -> RetryMode.STANDARD;
+            case "adaptive" -> RetryMode.ADAPTIVE_V2;
+            case "legacy" -> RetryMode.LEGACY;
+            default -> throw new IllegalArgumentException(
+                    "Unsupported retry mode: '" + mode + "'. Expected one of 'standard', 'adaptive' or 'legacy'");
+        };
+    }
+}
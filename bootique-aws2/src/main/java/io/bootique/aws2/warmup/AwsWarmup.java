@@ -0,0 +1,171 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import io.bootique.aws2.AwsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms up AWS clients in the background on startup: creates the clients, resolves credentials and fills HTTP
+ * connection pools, so that the first app requests to AWS do not pay for it. Results are logged and are also
+ * available via {@link #getResults()}.
+ *
+ * @since 4.0
+ */
+public class AwsWarmup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwsWarmup.class);
+
+    private final CompletableFuture<List<AwsWarmupResult>> results;
+
+    /**
+     * Creates a warm-up that does nothing. Used when the warm-up is not configured.
+     */
+    public static AwsWarmup none() {
+        return new AwsWarmup(CompletableFuture.completedFuture(List.of()));
+    }
+
+    /**
+     * Starts the warm-up of the targets in the background, each target on its own virtual thread.
+     */
+    public static AwsWarmup start(AwsConfig config, Collection<AwsWarmupTarget> targets, int connections) {
+
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bq-aws-warmup-", 0).factory());
+
+        List<CompletableFuture<AwsWarmupResult>> futures = new ArrayList<>(targets.size());
+        for (AwsWarmupTarget t : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> warmup(config, t, connections, executor), executor));
+        }
+
+        CompletableFuture<List<AwsWarmupResult>> results = CompletableFuture
+                .allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+
+        // the warm-up tasks submit more tasks to the executor, so can only shut it down when they are all done
+        results.whenComplete((r, e) -> executor.shutdown());
+
+        return new AwsWarmup(results);
+    }
+
+    protected AwsWarmup(CompletableFuture<List<AwsWarmupResult>> results) {
+        this.results = results;
+    }
+
+    /**
+     * Returns a future that completes when all the targets are warmed up. The future never completes exceptionally.
+     * Errors of individual targets are reported in their results.
+     */
+    public CompletableFuture<List<AwsWarmupResult>> getResults() {
+        return results;
+    }
+
+    static AwsWarmupResult warmup(AwsConfig config, AwsWarmupTarget target, int connections, ExecutorService executor) {
+
+        Duration clientsDuration = Duration.ZERO;
+        Duration credentialsDuration = Duration.ZERO;
+        Duration connectionsDuration = Duration.ZERO;
+        int connected = 0;
+
+        try {
+            long t0 = System.nanoTime();
+            List<AwsWarmupEndpoint> endpoints = target.createClients();
+
+            long t1 = System.nanoTime();
+            clientsDuration = Duration.ofNanos(t1 - t0);
+            config.getCredentialsProvider().resolveCredentials();
+
+            long t2 = System.nanoTime();
+            credentialsDuration = Duration.ofNanos(t2 - t1);
+            connected = connect(endpoints, connections, executor);
+            connectionsDuration = Duration.ofNanos(System.nanoTime() - t2);
+
+        } catch (RuntimeException e) {
+            LOGGER.warn("AWS warm-up of '{}' failed", target.getName(), e);
+            return new AwsWarmupResult(target.getName(), clientsDuration, credentialsDuration, connectionsDuration, connected, e);
+        }
+
+        LOGGER.info("AWS warm-up of '{}': clients {} ms, credentials {} ms, {} connection(s) {} ms",
+                target.getName(),
+                clientsDuration.toMillis(),
+                credentialsDuration.toMillis(),
+                connected,
+                connectionsDuration.toMillis());
+
+        return new AwsWarmupResult(target.getName(), clientsDuration, credentialsDuration, connectionsDuration, connected, null);
+    }
+
+    static int connect(List<AwsWarmupEndpoint> endpoints, int connections, ExecutorService executor) {
+
+        // sending concurrent requests, so that each one has to open its own pooled connection
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(endpoints.size() * connections);
+        for (AwsWarmupEndpoint e : endpoints) {
+            for (int i = 0; i < connections; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> connect(e), executor));
+            }
+        }
+
+        return (int) futures.stream().map(CompletableFuture::join).filter(Boolean::booleanValue).count();
+    }
+
+    static boolean connect(AwsWarmupEndpoint endpoint) {
+
+        // An unsigned HEAD request is rejected by AWS, but it resolves DNS, does a TLS handshake, and leaves an open
+        // connection in the pool
+        SdkHttpFullRequest request = SdkHttpFullRequest.builder()
+                .method(SdkHttpMethod.HEAD)
+                .uri(endpoint.uri())
+                .build();
+
+        ExecutableHttpRequest call = endpoint.httpClient().prepareRequest(HttpExecuteRequest.builder().request(request).build());
+
+        try {
+            HttpExecuteResponse response = call.call();
+
+            // must close the body (if any) to return the connection to the pool
+            if (response.responseBody().isPresent()) {
+                try (InputStream in = response.responseBody().get()) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("AWS warm-up connection to {} failed", endpoint.uri(), e);
+            return false;
+        }
+    }
+}
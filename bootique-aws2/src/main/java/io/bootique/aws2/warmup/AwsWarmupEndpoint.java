@@ -0,0 +1,56 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import software.amazon.awssdk.awscore.AwsServiceClientConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.regions.ServiceMetadata;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * An endpoint of an AWS client to open connections to during the warm-up, together with the HTTP client whose
+ * connection pool should be filled.
+ *
+ * @since 4.0
+ */
+public record AwsWarmupEndpoint(URI uri, SdkHttpClient httpClient) {
+
+    public AwsWarmupEndpoint {
+        Objects.requireNonNull(uri, "'uri' is not set");
+        Objects.requireNonNull(httpClient, "'httpClient' is not set");
+    }
+
+    /**
+     * Creates an endpoint for an already built client. Uses the client endpoint override if set, or the default
+     * service endpoint for the client region.
+     */
+    public static AwsWarmupEndpoint of(
+            AwsServiceClientConfiguration clientConfiguration,
+            ServiceMetadata serviceMetadata,
+            SdkHttpClient httpClient) {
+
+        URI uri = clientConfiguration.endpointOverride().orElseGet(
+                () -> URI.create("https://" + serviceMetadata.endpointFor(clientConfiguration.region())));
+
+        return new AwsWarmupEndpoint(uri, httpClient);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import io.bootique.annotation.BQConfig;
+import io.bootique.annotation.BQConfigProperty;
+import io.bootique.aws2.AwsConfig;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @since 4.0
+ */
+@BQConfig("Warms up AWS clients in the background on startup")
+public class AwsWarmupFactory {
+
+    private static final int DEFAULT_CONNECTIONS = 2;
+
+    private List<String> targets;
+    private Integer connections;
+
+    @BQConfigProperty("Names of the clients to warm up, e.g. 's3', 'secretsmanager'. If not set, all the clients " +
+            "contributed by the app modules are warmed up.")
+    public AwsWarmupFactory setTargets(List<String> targets) {
+        this.targets = targets;
+        return this;
+    }
+
+    @BQConfigProperty("Number of HTTP connections to open to each client endpoint. The default is 2.")
+    public AwsWarmupFactory setConnections(Integer connections) {
+        this.connections = connections;
+        return this;
+    }
+
+    public AwsWarmup create(AwsConfig config, Set<AwsWarmupTarget> targets) {
+        return AwsWarmup.start(config, filterTargets(targets), connections != null ? connections : DEFAULT_CONNECTIONS);
+    }
+
+    protected Collection<AwsWarmupTarget> filterTargets(Set<AwsWarmupTarget> allTargets) {
+
+        if (this.targets == null) {
+            return allTargets;
+        }
+
+        Set<String> names = allTargets.stream().map(AwsWarmupTarget::getName).collect(Collectors.toSet());
+        for (String t : this.targets) {
+            if (!names.contains(t)) {
+                throw new IllegalArgumentException("Unknown AWS warm-up target '" + t + "'. Available targets: " + names);
+            }
+        }
+
+        return allTargets.stream().filter(t -> this.targets.contains(t.getName())).toList();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import java.time.Duration;
+
+/**
+ * A report of a single target warm-up, with the time spent in each phase.
+ *
+ * @param target              warm-up target name
+ * @param clientsDuration     time spent creating the clients, including SDK class loading
+ * @param credentialsDuration time spent resolving credentials
+ * @param connectionsDuration time spent opening connections, including DNS lookups and TLS handshakes
+ * @param connections         number of connection requests that succeeded
+ * @param error               an error that stopped the warm-up, or null if it was successful
+ * @since 4.0
+ */
+public record AwsWarmupResult(
+        String target,
+        Duration clientsDuration,
+        Duration credentialsDuration,
+        Duration connectionsDuration,
+        int connections,
+        Throwable error) {
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
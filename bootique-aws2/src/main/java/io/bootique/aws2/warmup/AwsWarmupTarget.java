@@ -0,0 +1,43 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import java.util.List;
+
+/**
+ * A group of AWS clients that can be warmed up on startup, usually contributed by a service module via
+ * {@link io.bootique.aws2.AwsModuleExtender#addWarmupTarget(Class)}.
+ *
+ * @since 4.0
+ */
+public interface AwsWarmupTarget {
+
+    /**
+     * Returns a symbolic name of the target (e.g. "s3") used to enable it in the "aws.warmup.targets" configuration
+     * and in the reports.
+     */
+    String getName();
+
+    /**
+     * Creates the target clients, triggering the loading of the SDK classes and service models, and returns the
+     * endpoints of the clients to pre-connect to.
+     */
+    List<AwsWarmupEndpoint> createClients();
+}
@@ -19,12 +19,28 @@
 
 package io.bootique.aws2;
 
+import io.bootique.BQRuntime;
+import io.bootique.aws2.credentials.CachingCredentialsProvider;
+import io.bootique.aws2.interceptor.InFlightCallsInterceptor;
+import io.bootique.aws2.jfr.JfrCredentialsProvider;
+import io.bootique.aws2.jfr.JfrExecutionInterceptor;
+import io.bootique.aws2.metrics.AwsMetricsPublisher;
+import io.bootique.aws2.metrics.AwsMetricsRegistry;
 import io.bootique.junit.BQTest;
 import io.bootique.junit.BQTestFactory;
 import io.bootique.junit.BQTestTool;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.auth.credentials.*;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,7 +100,7 @@ public class AwsModuleIT {
                 .createRuntime()
                 .getInstance(AwsConfig.class);
 
-        assertTrue(config.getCredentialsProvider() instanceof ProfileCredentialsProvider);
+        assertInstanceOf(ProfileCredentialsProvider.class, unwrap(config.getCredentialsProvider()));
     }
 
     @Test
@@ -97,7 +113,7 @@ public class AwsModuleIT {
                 .createRuntime()
                 .getInstance(AwsConfig.class);
 
-        assertTrue(config.getCredentialsProvider() instanceof TestCredentialsProvider);
+        assertInstanceOf(TestCredentialsProvider.class, unwrap(config.getCredentialsProvider()));
         AwsCredentials credentials = config.getCredentialsProvider().resolveCredentials();
 
         assertNotNull(credentials);
@@ -118,7 +134,7 @@ public class AwsModuleIT {
                 .createRuntime()
                 .getInstance(AwsConfig.class);
 
-        assertTrue(config.getCredentialsProvider() instanceof AwsCredentialsProviderChain);
+        assertInstanceOf(AwsCredentialsProviderChain.class, unwrap(config.getCredentialsProvider()));
         AwsCredentials credentials = config.getCredentialsProvider().resolveCredentials();
 
         assertNotNull(credentials);
@@ -145,6 +161,241 @@ public class AwsModuleIT {
         assertEquals("abc", credentials.secretAccessKey());
     }
 
+    @Test
+    @DisplayName("A single HTTP client must be shared via AwsConfig and DI")
+    public void awsConfig_SharedHttpClient() {
+        BQRuntime runtime = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.http.maxConnections", "5")
+                .createRuntime();
+
+        SdkHttpClient httpClient = runtime.getInstance(AwsConfig.class).getHttpClient();
+        assertNotNull(httpClient);
+        assertSame(httpClient, runtime.getInstance(SdkHttpClient.class));
+    }
+
+    @Test
+    @DisplayName("HTTP client implementation must be selectable via config")
+    public void awsConfig_HttpClientType() {
+        AwsConfig defaultConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+        assertTrue(defaultConfig.getHttpClient() instanceof ApacheHttpClient);
+
+        AwsConfig urlConnectionConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.http.type", "url-connection")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+        assertTrue(urlConnectionConfig.getHttpClient() instanceof UrlConnectionHttpClient);
+
+        // settings without a type
+        AwsConfig untypedConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.http.maxConnections", "5")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+        assertTrue(untypedConfig.getHttpClient() instanceof ApacheHttpClient);
+    }
+
+    @Test
+    @DisplayName("A single async HTTP client must be shared between all async AWS clients")
+    public void awsConfig_SharedAsyncHttpClient() {
+        BQRuntime runtime = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.asyncHttp.eventLoopThreads", "2")
+                .property("bq.aws.asyncHttp.maxConcurrency", "10")
+                .createRuntime();
+
+        AwsConfig config = runtime.getInstance(AwsConfig.class);
+        SdkAsyncHttpClient client = config.getAsyncHttpClient();
+        assertNotNull(client);
+        assertSame(client, config.getAsyncHttpClient());
+        assertSame(client, runtime.getInstance(SdkAsyncHttpClient.class));
+    }
+
+    @Test
+    @DisplayName("Virtual-thread execution mode must provide SDK executors")
+    public void awsConfig_ExecutionMode() {
+        AwsConfig defaultConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        assertEquals(AwsExecutionMode.PLATFORM, defaultConfig.getExecutionMode());
+        assertNull(defaultConfig.createAsyncConfiguration().advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR));
+        assertTrue(defaultConfig.createOverrideConfiguration().build().scheduledExecutorService().isEmpty());
+
+        AwsConfig vtConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.executionMode", "virtual-threads")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        assertEquals(AwsExecutionMode.VIRTUAL_THREADS, vtConfig.getExecutionMode());
+        assertNotNull(vtConfig.createAsyncConfiguration().advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR));
+        assertTrue(vtConfig.createOverrideConfiguration().build().scheduledExecutorService().isPresent());
+    }
+
+    @Test
+    @DisplayName("Credentials cache must wrap the provider chain")
+    public void awsConfig_CredentialsCache() {
+        AwsConfig config = testFactory
+                .app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b)
+                        .addCredentialsProvider(new TestCredentialsProvider("k1", "s1"), 1)
+                        .addCredentialsProvider(new TestCredentialsProvider("k2", "s2"), 2))
+                .property("bq.aws.credentialsCache.prefetchBefore", "10min")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        assertTrue(config.getCredentialsProvider() instanceof CachingCredentialsProvider);
+        assertEquals("k1", config.getCredentialsProvider().resolveCredentials().accessKeyId());
+    }
+
+    @Test
+    @DisplayName("Default region must be resolved via region providers if not set explicitly")
+    public void awsConfig_RegionProviders() {
+        System.setProperty("aws.region", "eu-central-1");
+        try {
+            AwsConfig config = testFactory
+                    .app()
+                    .autoLoadModules()
+                    .property("bq.aws.credentials.accessKey", "xyz")
+                    .property("bq.aws.credentials.secretKey", "abc")
+                    .property("bq.aws.regionProviders[0]", "env")
+                    .createRuntime()
+                    .getInstance(AwsConfig.class);
+
+            assertEquals(Region.EU_CENTRAL_1, config.getDefaultRegion().orElse(null));
+
+            AwsConfig explicitConfig = testFactory
+                    .app()
+                    .autoLoadModules()
+                    .property("bq.aws.credentials.accessKey", "xyz")
+                    .property("bq.aws.credentials.secretKey", "abc")
+                    .property("bq.aws.defaultRegion", "us-west-2")
+                    .property("bq.aws.regionProviders[0]", "env")
+                    .createRuntime()
+                    .getInstance(AwsConfig.class);
+
+            assertEquals(Region.US_WEST_2, explicitConfig.getDefaultRegion().orElse(null));
+        } finally {
+            System.clearProperty("aws.region");
+        }
+    }
+
+    @Test
+    @DisplayName("Metric publisher must be attached to AWS clients by default")
+    public void awsConfig_Metrics() {
+        BQRuntime runtime = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .createRuntime();
+
+        AwsConfig config = runtime.getInstance(AwsConfig.class);
+        AwsMetricsPublisher publisher = (AwsMetricsPublisher) config.getMetricPublisher().orElseThrow();
+        assertSame(runtime.getInstance(AwsMetricsRegistry.class), publisher.getRegistry());
+        assertEquals(1, config.createOverrideConfiguration().build().metricPublishers().size());
+
+        AwsConfig noMetricsConfig = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.metricsEnabled", "false")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        assertTrue(noMetricsConfig.getMetricPublisher().isEmpty());
+        assertTrue(noMetricsConfig.createOverrideConfiguration().build().metricPublishers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Contributed execution interceptors must be applied in order")
+    public void awsConfig_ExecutionInterceptors() {
+        ExecutionInterceptor i1 = new ExecutionInterceptor() {
+        };
+        ExecutionInterceptor i2 = new ExecutionInterceptor() {
+        };
+        ExecutionInterceptor i3 = new ExecutionInterceptor() {
+        };
+
+        AwsConfig config = testFactory
+                .app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addExecutionInterceptor(i1, 5))
+                .module(b -> AwsModule.extend(b).addExecutionInterceptor(i2, 2).addExecutionInterceptor(i3, 7))
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        List<ExecutionInterceptor> interceptors = config.createOverrideConfiguration().build().executionInterceptors();
+        assertEquals(5, interceptors.size());
+        assertInstanceOf(InFlightCallsInterceptor.class, interceptors.get(0));
+        assertInstanceOf(JfrExecutionInterceptor.class, interceptors.get(1));
+        assertEquals(List.of(i2, i1, i3), interceptors.subList(2, 5));
+    }
+
+    @Test
+    public void awsConfig_JfrEventsDisabled() {
+        AwsConfig config = testFactory
+                .app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.jfrEventsEnabled", "false")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        List<ExecutionInterceptor> interceptors = config.createOverrideConfiguration().build().executionInterceptors();
+        assertEquals(1, interceptors.size());
+        assertInstanceOf(InFlightCallsInterceptor.class, interceptors.get(0));
+    }
+
+    @Test
+    public void awsConfig_JfrEventsDisabled_Credentials() {
+        AwsConfig config = testFactory
+                .app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addCredentialsProvider(new TestCredentialsProvider("tcpa", "tcps"), 5))
+                .property("bq.aws.jfrEventsEnabled", "false")
+                .createRuntime()
+                .getInstance(AwsConfig.class);
+
+        assertInstanceOf(TestCredentialsProvider.class, config.getCredentialsProvider());
+    }
+
+    private static AwsCredentialsProvider unwrap(AwsCredentialsProvider provider) {
+        return assertInstanceOf(JfrCredentialsProvider.class, provider).getDelegate();
+    }
+
     static final class TestCredentialsProvider implements AwsCredentialsProvider {
 
         private final String accessKey;
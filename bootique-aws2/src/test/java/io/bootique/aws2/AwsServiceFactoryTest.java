@@ -0,0 +1,108 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.bootique.aws2;
+
+import io.bootique.aws2.hedging.AwsHedgeBudget;
+import io.bootique.aws2.http.AwsAsyncHttpClientFactory;
+import io.bootique.aws2.http.AwsHttpClientFactoryTest.TestHttpClient;
+import io.bootique.aws2.http.AwsHttpClientFactoryTest.TestHttpClientFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsServiceFactoryTest {
+
+    private AwsConfig config;
+
+    @BeforeEach
+    void createConfig() {
+        this.config = new AwsConfig(
+                Region.US_EAST_1,
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("xyz", "abc")),
+                new TestHttpClientFactory().setMaxConnections(100),
+                new AwsAsyncHttpClientFactory(),
+                AwsExecutionMode.PLATFORM,
+                null,
+                List.of(),
+                Duration.ofSeconds(1),
+                new AwsHedgeBudget(0.05));
+    }
+
+    @AfterEach
+    void shutdown() {
+        config.shutdown();
+    }
+
+    @Test
+    public void resolveHttpClient_Shared() {
+        TestServiceFactory factory = new TestServiceFactory();
+        assertSame(config.getHttpClient(), factory.resolveHttpClient(config));
+    }
+
+    @Test
+    public void resolveHttpClient_Dedicated() {
+        TestServiceFactory factory = new TestServiceFactory();
+        factory.setHttp(new TestHttpClientFactory().setConnectionTimeout(new io.bootique.value.Duration("2s")));
+
+        SdkHttpClient client = factory.resolveHttpClient(config);
+        assertNotSame(config.getHttpClient(), client);
+
+        // the service settings are merged with "aws.http"
+        TestHttpClient testClient = assertInstanceOf(TestHttpClient.class, client);
+        assertEquals(100, testClient.getFactory().getMaxConnections());
+
+        // the dedicated client is shared by all the clients of the service
+        assertSame(client, factory.resolveHttpClient(config));
+        assertSame(client, factory.resolveHttpClient(config));
+    }
+
+    @Test
+    public void resolveHttpClient_DedicatedClosedOnShutdown() {
+        TestServiceFactory f1 = new TestServiceFactory();
+        f1.setHttp(new TestHttpClientFactory());
+
+        TestServiceFactory f2 = new TestServiceFactory();
+        f2.setHttp(new TestHttpClientFactory());
+
+        TestHttpClient c1 = (TestHttpClient) f1.resolveHttpClient(config);
+        TestHttpClient c2 = (TestHttpClient) f2.resolveHttpClient(config);
+        assertNotSame(c1, c2);
+        assertFalse(c1.isClosed());
+        assertFalse(c2.isClosed());
+
+        config.shutdown();
+        assertTrue(c1.isClosed());
+        assertTrue(c2.isClosed());
+        assertTrue(((TestHttpClient) config.getHttpClient()).isClosed());
+    }
+
+    static class TestServiceFactory extends AwsServiceFactory {
+    }
+}
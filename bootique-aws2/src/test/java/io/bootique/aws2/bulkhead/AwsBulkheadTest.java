@@ -0,0 +1,89 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.bulkhead;
+
+import io.bootique.aws2.metrics.AwsBulkheadMetrics;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.services.sts.model.GetCallerIdentityRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsBulkheadTest {
+
+    @Test
+    public void acquire_Reject() {
+        AwsBulkhead bulkhead = new AwsBulkhead("b", 2, Duration.ZERO, new AwsBulkheadMetrics("b"));
+
+        bulkhead.acquire();
+        bulkhead.acquire();
+        assertEquals(2, bulkhead.getActiveCalls());
+
+        assertThrows(AwsBulkheadFullException.class, bulkhead::acquire);
+        assertEquals(2, bulkhead.getMetrics().getAcquiredCalls());
+        assertEquals(1, bulkhead.getMetrics().getRejectedCalls());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(3, bulkhead.getMetrics().getAcquiredCalls());
+    }
+
+    @Test
+    public void acquire_Wait() {
+        AwsBulkhead bulkhead = new AwsBulkhead("b", 1, Duration.ofMillis(20), new AwsBulkheadMetrics("b"));
+
+        bulkhead.acquire();
+        assertThrows(AwsBulkheadFullException.class, bulkhead::acquire);
+
+        long maxWait = bulkhead.getMetrics().getWaitDuration().snapshot().getMax();
+        assertTrue(maxWait >= 20_000, "Unexpected wait: " + maxWait);
+    }
+
+    @Test
+    public void interceptor() {
+        AwsBulkhead bulkhead = new AwsBulkhead("b", 1, Duration.ZERO, new AwsBulkheadMetrics("b"));
+        AwsBulkheadInterceptor interceptor = AwsBulkheadInterceptor.of(bulkhead);
+        InterceptorContext context = InterceptorContext.builder().request(GetCallerIdentityRequest.builder().build()).build();
+
+        ExecutionAttributes a1 = new ExecutionAttributes();
+        interceptor.beforeTransmission(context, a1);
+
+        // retry attempts must not acquire another permit
+        interceptor.beforeTransmission(context, a1);
+        assertEquals(1, bulkhead.getActiveCalls());
+
+        ExecutionAttributes a2 = new ExecutionAttributes();
+        assertThrows(AwsBulkheadFullException.class, () -> interceptor.beforeTransmission(context, a2));
+
+        // rejected call must not release a permit it doesn't hold
+        interceptor.onExecutionFailure(null, a2);
+        assertEquals(1, bulkhead.getActiveCalls());
+
+        interceptor.afterExecution(context, a1);
+        assertEquals(0, bulkhead.getActiveCalls());
+
+        // double release must be ignored
+        interceptor.onExecutionFailure(null, a1);
+        assertEquals(0, bulkhead.getActiveCalls());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsClientRegistryTest {
+
+    @Test
+    public void lease() {
+        AwsClientRegistry registry = new AwsClientRegistry(5);
+
+        try (AwsClientLease<TestClient> l1 = registry.lease(key(Region.US_EAST_1), TestClient::new);
+             AwsClientLease<TestClient> l2 = registry.lease(key(Region.US_EAST_1), TestClient::new);
+             AwsClientLease<TestClient> l3 = registry.lease(key(Region.US_WEST_2), TestClient::new)) {
+
+            assertSame(l1.client(), l2.client());
+            assertNotSame(l1.client(), l3.client());
+            assertEquals(2, registry.size());
+        }
+
+        // releasing the cached clients doesn't close them
+        TestClient c1 = registry.lease(key(Region.US_EAST_1), TestClient::new).client();
+        assertFalse(c1.closed);
+    }
+
+    @Test
+    public void lease_EvictLeastRecentlyUsed() {
+        AwsClientRegistry registry = new AwsClientRegistry(2);
+
+        registry.lease(key(Region.US_EAST_1), TestClient::new).close();
+        TestClient c2 = lease(registry, Region.US_WEST_2);
+
+        // touch c1, so that c2 becomes the least recently used
+        TestClient c1 = lease(registry, Region.US_EAST_1);
+
+        TestClient c3 = lease(registry, Region.EU_WEST_1);
+        assertEquals(2, registry.size());
+        assertFalse(c1.closed);
+        assertTrue(c2.closed);
+        assertFalse(c3.closed);
+
+        assertNotSame(c2, lease(registry, Region.US_WEST_2));
+        assertTrue(c1.closed);
+    }
+
+    @Test
+    public void lease_EvictedWhileInUse() throws Exception {
+        AwsClientRegistry registry = new AwsClientRegistry(1);
+        TestClient c1;
+
+        try (AwsClientLease<TestClient> l1 = registry.lease(key(Region.US_EAST_1), TestClient::new)) {
+            c1 = l1.client();
+
+            // another thread evicts the leased client
+            CompletableFuture.runAsync(() -> registry.lease(key(Region.US_WEST_2), TestClient::new).close()).get();
+            assertEquals(1, registry.size());
+
+            // still usable
+            assertFalse(l1.client().closed);
+            l1.client().call();
+        }
+
+        // closed once released
+        assertTrue(c1.closed);
+    }
+
+    @Test
+    public void lease_EvictedAndReleased() {
+        AwsClientRegistry registry = new AwsClientRegistry(1);
+
+        AwsClientLease<TestClient> l1 = registry.lease(key(Region.US_EAST_1), TestClient::new);
+        AwsClientLease<TestClient> l2 = registry.lease(key(Region.US_EAST_1), TestClient::new);
+        registry.lease(key(Region.US_WEST_2), TestClient::new).close();
+
+        l1.close();
+
+        // repeated close of the same lease must not release the client held by the other lease
+        l1.close();
+        assertFalse(l1.client().closed);
+
+        l2.close();
+        assertTrue(l1.client().closed);
+    }
+
+    @Test
+    public void close() {
+        AwsClientRegistry registry = new AwsClientRegistry(1);
+        TestClient c1 = registry.lease(key(Region.US_EAST_1), TestClient::new).client();
+
+        // evicted, but still leased
+        AwsClientLease<TestClient> l2 = registry.lease(key(Region.US_WEST_2), TestClient::new);
+        registry.lease(key(Region.EU_WEST_1), TestClient::new);
+
+        registry.close();
+        assertTrue(c1.closed);
+        assertTrue(l2.client().closed);
+        assertEquals(0, registry.size());
+    }
+
+    private static TestClient lease(AwsClientRegistry registry, Region region) {
+        try (AwsClientLease<TestClient> lease = registry.lease(key(region), TestClient::new)) {
+            return lease.client();
+        }
+    }
+
+    private static AwsClientKey<TestClient> key(Region region) {
+        return new AwsClientKey<>(TestClient.class, region, null, null, null);
+    }
+
+    static class TestClient implements SdkAutoCloseable {
+
+        volatile boolean closed;
+
+        void call() {
+            if (closed) {
+                throw new IllegalStateException("Client is closed");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.client;
+
+import io.bootique.BQRuntime;
+import io.bootique.aws2.metrics.AwsMetricsRegistry;
+import io.bootique.junit.BQTest;
+import io.bootique.junit.BQTestFactory;
+import io.bootique.junit.BQTestTool;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sts.StsAsyncClient;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.StsServiceClientConfiguration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@BQTest
+public class AwsClientsIT {
+
+    @BQTestTool
+    final BQTestFactory testFactory = new BQTestFactory();
+
+    @Test
+    public void client() {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.defaultRegion", "us-east-1")
+                .property("bq.awsclients.sts1.region", "eu-west-1")
+                .property("bq.awsclients.sts1.endpointOverride", "http://127.0.0.1:4566")
+                .property("bq.awsclients.sts1.apiCallTimeout", "3s")
+                .property("bq.awsclients.sts1.apiCallAttemptTimeout", "1s")
+                .property("bq.awsclients.sts2.retry.maxAttempts", "5")
+                .createRuntime();
+
+        AwsClients clients = runtime.getInstance(AwsClients.class);
+        assertEquals(Set.of("sts1", "sts2"), clients.getNames());
+
+        StsClient sts1 = clients.client("sts1", StsClient.class);
+        assertSame(sts1, clients.client("sts1", StsClient.class));
+
+        StsServiceClientConfiguration c1 = sts1.serviceClientConfiguration();
+        assertEquals(Region.EU_WEST_1, c1.region());
+        assertEquals(Optional.of(URI.create("http://127.0.0.1:4566")), c1.endpointOverride());
+        assertEquals(Optional.of(Duration.ofSeconds(3)), c1.overrideConfiguration().apiCallTimeout());
+        assertEquals(Optional.of(Duration.ofSeconds(1)), c1.overrideConfiguration().apiCallAttemptTimeout());
+
+        StsClient sts2 = clients.client("sts2", StsClient.class);
+        assertNotSame(sts1, sts2);
+
+        StsServiceClientConfiguration c2 = sts2.serviceClientConfiguration();
+        assertEquals(Region.US_EAST_1, c2.region());
+        assertEquals(Optional.empty(), c2.overrideConfiguration().apiCallTimeout());
+        assertEquals(5, c2.overrideConfiguration().retryStrategy().get().maxAttempts());
+    }
+
+    @Test
+    public void client_Async() {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.awsclients.sts1.region", "eu-west-1")
+                .createRuntime();
+
+        AwsClients clients = runtime.getInstance(AwsClients.class);
+
+        StsAsyncClient sts1 = clients.client("sts1", StsAsyncClient.class);
+        assertSame(sts1, clients.client("sts1", StsAsyncClient.class));
+        assertEquals(Region.EU_WEST_1, sts1.serviceClientConfiguration().region());
+    }
+
+    @Test
+    public void client_AsyncWithHttp() {
+        AwsClients clients = testFactory.app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.awsclients.sts1.region", "eu-west-1")
+                .property("bq.awsclients.sts1.http.maxConnections", "5")
+                .createRuntime()
+                .getInstance(AwsClients.class);
+
+        assertNotNull(clients.client("sts1", StsClient.class));
+        assertThrows(IllegalStateException.class, () -> clients.client("sts1", StsAsyncClient.class));
+    }
+
+    @Test
+    public void client_Bulkhead() {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.awsclients.sts1.region", "eu-west-1")
+                .property("bq.awsclients.sts1.bulkhead.maxConcurrentCalls", "5")
+                .createRuntime();
+
+        runtime.getInstance(AwsClients.class).client("sts1", StsClient.class);
+
+        // the bulkhead is named after the client
+        assertTrue(runtime.getInstance(AwsMetricsRegistry.class).getBulkheadMetrics("sts1").isPresent());
+    }
+
+    @Test
+    public void client_Unknown() {
+        AwsClients clients = testFactory.app()
+                .autoLoadModules()
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .createRuntime()
+                .getInstance(AwsClients.class);
+
+        assertEquals(Set.of(), clients.getNames());
+        assertThrows(IllegalArgumentException.class, () -> clients.client("nosuchclient", StsClient.class));
+    }
+}
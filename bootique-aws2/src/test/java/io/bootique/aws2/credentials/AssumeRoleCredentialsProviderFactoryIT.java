@@ -0,0 +1,91 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.BQRuntime;
+import io.bootique.aws2.AwsModule;
+import io.bootique.di.Injector;
+import io.bootique.junit.BQTest;
+import io.bootique.junit.BQTestFactory;
+import io.bootique.junit.BQTestTool;
+import io.bootique.shutdown.ShutdownManager;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.model.AssumeRoleRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@BQTest
+public class AssumeRoleCredentialsProviderFactoryIT {
+
+    @BQTestTool
+    final BQTestFactory testFactory = new BQTestFactory();
+
+    @Test
+    public void create() {
+        BQRuntime runtime = testFactory.app()
+                .module(b -> AwsModule.extend(b).addCredentialsProvider(
+                        StaticCredentialsProvider.create(AwsBasicCredentials.create("src", "src_secret")), 1))
+                .createRuntime();
+
+        StsStandIn sts = new StsStandIn(Duration.ofHours(1));
+
+        AssumeRoleCredentialsProviderFactory factory = new AssumeRoleCredentialsProviderFactory() {
+            @Override
+            protected StsClient createStsClient(AwsCredentialsProvider sourceCredentials) {
+                assertEquals("src", sourceCredentials.resolveCredentials().accessKeyId());
+                return sts;
+            }
+        };
+        factory.setRoleArn("arn:aws:iam::123456789012:role/tenant1");
+        factory.setExternalId("ext1");
+
+        AwsCredentialsProvider provider = factory.create(runtime.getInstance(Injector.class));
+
+        AwsSessionCredentials c1 = (AwsSessionCredentials) provider.resolveCredentials();
+        assertEquals("ASIA_TEST_1", c1.accessKeyId());
+        assertEquals("token_1", c1.sessionToken());
+
+        // must be cached
+        assertEquals("ASIA_TEST_1", provider.resolveCredentials().accessKeyId());
+        assertEquals(1, sts.assumeRoleRequests.size());
+
+        AssumeRoleRequest request = sts.assumeRoleRequests.get(0);
+        assertEquals("arn:aws:iam::123456789012:role/tenant1", request.roleArn());
+        assertEquals("bootique", request.roleSessionName());
+        assertEquals("ext1", request.externalId());
+
+        runtime.getInstance(ShutdownManager.class).shutdown();
+        assertTrue(sts.closed);
+    }
+
+    @Test
+    public void create_NoRoleArn() {
+        BQRuntime runtime = testFactory.app().createRuntime();
+        AssumeRoleCredentialsProviderFactory factory = new AssumeRoleCredentialsProviderFactory();
+        assertThrows(NullPointerException.class, () -> factory.create(runtime.getInstance(Injector.class)));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.aws2.jfr.JfrCredentialsProvider;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingCredentialsProviderTest {
+
+    @Test
+    public void resolveCredentials_Cached() {
+        CountingProvider failing = new CountingProvider(null);
+        CountingProvider p1 = new CountingProvider(AwsBasicCredentials.create("k1", "s1"));
+        CountingProvider p2 = new CountingProvider(AwsBasicCredentials.create("k2", "s2"));
+
+        try (CachingCredentialsProvider provider = new CachingCredentialsProvider(
+                List.of(failing, p1, p2),
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(1),
+                Duration.ofHours(1))) {
+
+            assertEquals("k1", provider.resolveCredentials().accessKeyId());
+            assertEquals("k1", provider.resolveCredentials().accessKeyId());
+            assertEquals("k1", provider.resolveCredentials().accessKeyId());
+
+            assertEquals(1, failing.calls.get());
+            assertEquals(1, p1.calls.get());
+            assertEquals(0, p2.calls.get());
+        }
+    }
+
+    @Test
+    public void resolveUncached_ReusesLastProvider() {
+        CountingProvider failing = new CountingProvider(null);
+        CountingProvider p1 = new CountingProvider(AwsBasicCredentials.create("k1", "s1"));
+
+        try (CachingCredentialsProvider provider = new CachingCredentialsProvider(
+                List.of(failing, p1),
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(1),
+                Duration.ofHours(1))) {
+
+            assertEquals("k1", provider.resolveUncached().accessKeyId());
+            assertEquals("k1", provider.resolveUncached().accessKeyId());
+
+            assertEquals(1, failing.calls.get());
+            assertEquals(2, p1.calls.get());
+        }
+    }
+
+    @Test
+    public void resolveCredentials_NoProviderSucceeds() {
+        try (CachingCredentialsProvider provider = new CachingCredentialsProvider(
+                List.of(new CountingProvider(null)),
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(1),
+                Duration.ofHours(1))) {
+
+            assertThrows(SdkClientException.class, provider::resolveCredentials);
+        }
+    }
+
+    @Test
+    public void resolveCredentials_NoProviderSucceeds_JfrWrapped() {
+        try (CachingCredentialsProvider provider = new CachingCredentialsProvider(
+                List.of(new JfrCredentialsProvider(new CountingProvider(null))),
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(1),
+                Duration.ofHours(1))) {
+
+            SdkClientException e = assertThrows(SdkClientException.class, provider::resolveCredentials);
+            assertTrue(e.getMessage().contains("[CountingProvider: no credentials]"), e.getMessage());
+        }
+    }
+
+    static class CountingProvider implements AwsCredentialsProvider {
+
+        final AwsCredentials credentials;
+        final AtomicInteger calls = new AtomicInteger();
+
+        CountingProvider(AwsCredentials credentials) {
+            this.credentials = credentials;
+        }
+
+        @Override
+        public AwsCredentials resolveCredentials() {
+            calls.incrementAndGet();
+            if (credentials == null) {
+                throw new IllegalStateException("no credentials");
+            }
+
+            return credentials;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.profiles.ProfileFile;
+import software.amazon.awssdk.profiles.ProfileProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedProfileFileSupplierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void of_Shared() {
+        Path config = tempDir.resolve("config");
+        Path credentials = tempDir.resolve("credentials");
+        assertSame(SharedProfileFileSupplier.of(config, credentials), SharedProfileFileSupplier.of(config, credentials));
+    }
+
+    @Test
+    public void get_ReloadsOnChange() throws IOException {
+        Path config = tempDir.resolve("config");
+        Path credentials = tempDir.resolve("credentials");
+
+        Files.writeString(credentials, "[p1]\naws_access_key_id = k1\naws_secret_access_key = s1\n");
+        Files.setLastModifiedTime(credentials, FileTime.from(Instant.parse("2025-01-01T00:00:00Z")));
+
+        SharedProfileFileSupplier supplier = new SharedProfileFileSupplier(config, credentials, 0);
+
+        ProfileFile f1 = supplier.get();
+        assertEquals("k1", f1.profile("p1").flatMap(p -> p.property(ProfileProperty.AWS_ACCESS_KEY_ID)).orElse(null));
+
+        // unchanged - must not be re-parsed
+        assertSame(f1, supplier.get());
+
+        Files.writeString(credentials, "[p1]\naws_access_key_id = k2\naws_secret_access_key = s2\n");
+        Files.setLastModifiedTime(credentials, FileTime.from(Instant.parse("2025-01-01T01:00:00Z")));
+
+        ProfileFile f2 = supplier.get();
+        assertNotSame(f1, f2);
+        assertEquals("k2", f2.profile("p1").flatMap(p -> p.property(ProfileProperty.AWS_ACCESS_KEY_ID)).orElse(null));
+    }
+
+    @Test
+    public void get_NoFiles() {
+        SharedProfileFileSupplier supplier = new SharedProfileFileSupplier(
+                tempDir.resolve("config"),
+                tempDir.resolve("credentials"),
+                0);
+
+        assertTrue(supplier.get().profiles().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.model.AssumeRoleRequest;
+import software.amazon.awssdk.services.sts.model.AssumeRoleResponse;
+import software.amazon.awssdk.services.sts.model.AssumeRoleWithWebIdentityRequest;
+import software.amazon.awssdk.services.sts.model.AssumeRoleWithWebIdentityResponse;
+import software.amazon.awssdk.services.sts.model.Credentials;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An in-process STS stand-in that issues fake temporary credentials and records the requests it receives.
+ */
+public class StsStandIn implements StsClient {
+
+    final List<AssumeRoleRequest> assumeRoleRequests = new CopyOnWriteArrayList<>();
+    final List<AssumeRoleWithWebIdentityRequest> webIdentityRequests = new CopyOnWriteArrayList<>();
+    private final Duration credentialsDuration;
+    volatile boolean closed;
+
+    public StsStandIn(Duration credentialsDuration) {
+        this.credentialsDuration = credentialsDuration;
+    }
+
+    @Override
+    public AssumeRoleResponse assumeRole(AssumeRoleRequest request) {
+        assumeRoleRequests.add(request);
+        return AssumeRoleResponse.builder().credentials(createCredentials(assumeRoleRequests.size())).build();
+    }
+
+    @Override
+    public AssumeRoleWithWebIdentityResponse assumeRoleWithWebIdentity(AssumeRoleWithWebIdentityRequest request) {
+        webIdentityRequests.add(request);
+        return AssumeRoleWithWebIdentityResponse.builder().credentials(createCredentials(webIdentityRequests.size())).build();
+    }
+
+    protected Credentials createCredentials(int n) {
+        return Credentials.builder()
+                .accessKeyId("ASIA_TEST_" + n)
+                .secretAccessKey("secret_" + n)
+                .sessionToken("token_" + n)
+                .expiration(Instant.now().plus(credentialsDuration))
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import io.bootique.BQRuntime;
+import io.bootique.di.Injector;
+import io.bootique.junit.BQTest;
+import io.bootique.junit.BQTestFactory;
+import io.bootique.junit.BQTestTool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.model.AssumeRoleWithWebIdentityRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@BQTest
+public class WebIdentityCredentialsProviderFactoryIT {
+
+    @BQTestTool
+    final BQTestFactory testFactory = new BQTestFactory();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void create_FromEnv() throws IOException {
+        Path tokenFile = tempDir.resolve("token");
+        Files.writeString(tokenFile, "eks-token");
+
+        Map<String, String> env = Map.of(
+                WebIdentityCredentialsProviderFactory.ROLE_ARN_ENV, "arn:aws:iam::123456789012:role/pod",
+                WebIdentityCredentialsProviderFactory.TOKEN_FILE_ENV, tokenFile.toString(),
+                WebIdentityCredentialsProviderFactory.SESSION_NAME_ENV, "pod-1");
+
+        StsStandIn sts = new StsStandIn(Duration.ofHours(1));
+
+        WebIdentityCredentialsProviderFactory factory = new WebIdentityCredentialsProviderFactory() {
+            @Override
+            protected StsClient createStsClient(AwsCredentialsProvider sourceCredentials) {
+                assertTrue(sourceCredentials instanceof AnonymousCredentialsProvider);
+                return sts;
+            }
+
+            @Override
+            protected String getenv(String name) {
+                return env.get(name);
+            }
+        };
+
+        BQRuntime runtime = testFactory.app().createRuntime();
+        AwsCredentialsProvider provider = factory.create(runtime.getInstance(Injector.class));
+
+        assertEquals("ASIA_TEST_1", provider.resolveCredentials().accessKeyId());
+        assertEquals("ASIA_TEST_1", provider.resolveCredentials().accessKeyId());
+        assertEquals(1, sts.webIdentityRequests.size());
+
+        AssumeRoleWithWebIdentityRequest request = sts.webIdentityRequests.get(0);
+        assertEquals("arn:aws:iam::123456789012:role/pod", request.roleArn());
+        assertEquals("pod-1", request.roleSessionName());
+        assertEquals("eks-token", request.webIdentityToken());
+    }
+
+    @Test
+    public void create_NoRoleArn() {
+        WebIdentityCredentialsProviderFactory factory = new WebIdentityCredentialsProviderFactory() {
+            @Override
+            protected String getenv(String name) {
+                return null;
+            }
+        };
+
+        BQRuntime runtime = testFactory.app().createRuntime();
+        assertThrows(NullPointerException.class, () -> factory.create(runtime.getInstance(Injector.class)));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.credentials;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebIdentityTokenFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void get_ReloadsOnChange() throws IOException {
+        Path path = tempDir.resolve("token");
+        Files.writeString(path, "token1\n");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2025-01-01T00:00:00Z")));
+
+        WebIdentityTokenFile file = new WebIdentityTokenFile(path);
+        assertEquals("token1", file.get());
+
+        // same mtime and size - must return the cached token
+        Files.writeString(path, "token2\n");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2025-01-01T00:00:00Z")));
+        assertEquals("token1", file.get());
+
+        Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2025-01-01T01:00:00Z")));
+        assertEquals("token2", file.get());
+    }
+
+    @Test
+    public void get_Missing() {
+        WebIdentityTokenFile file = new WebIdentityTokenFile(tempDir.resolve("no-such-token"));
+        assertThrows(UncheckedIOException.class, file::get);
+    }
+}
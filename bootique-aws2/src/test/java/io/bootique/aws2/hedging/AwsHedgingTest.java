@@ -0,0 +1,280 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.hedging;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sts.model.AssumeRoleRequest;
+import software.amazon.awssdk.services.sts.model.GetCallerIdentityRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsHedgingTest {
+
+    static final GetCallerIdentityRequest READ = GetCallerIdentityRequest.builder().build();
+
+    @Test
+    public void budget() {
+        AwsHedgeBudget budget = new AwsHedgeBudget(0.5);
+        assertFalse(budget.tryAcquire());
+
+        budget.onCall();
+        assertFalse(budget.tryAcquire());
+
+        budget.onCall();
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        assertEquals(1, budget.getHedges());
+        assertEquals(3, budget.getRejectedHedges());
+    }
+
+    @Test
+    public void notIdempotent() {
+        AssumeRoleRequest request = AssumeRoleRequest.builder().build();
+        assertThrows(IllegalArgumentException.class, () -> AwsHedging.none().call(request, r -> "x"));
+        assertThrows(IllegalArgumentException.class, () -> hedging(1.).call(request, r -> "x"));
+    }
+
+    @Test
+    public void none() {
+        AwsHedging hedging = AwsHedging.none();
+        assertFalse(hedging.isEnabled());
+        assertEquals("x", hedging.call(READ, r -> "x"));
+        assertNull(hedging.getDelay("GetCallerIdentity"));
+    }
+
+    @Test
+    public void callAsync_Hedged() throws Exception {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+        assertEquals(Duration.ofMillis(10), hedging.getDelay("GetCallerIdentity"));
+
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedging.callAsync(READ, r -> attempts.getAndIncrement() == 0
+                ? slow
+                : CompletableFuture.completedFuture("hedge"));
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    public void callAsync_PrimaryFailsHedgeSucceeds() throws Exception {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedging.callAsync(READ, r -> attempts.getAndIncrement() == 0
+                ? slow
+                : CompletableFuture.supplyAsync(() -> "hedge", CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+
+        // wait for the hedge to start, and fail the primary call
+        while (attempts.get() < 2) {
+            Thread.sleep(5);
+        }
+        slow.completeExceptionally(new IllegalStateException("primary failed"));
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void callAsync_NoBudget() throws Exception {
+        AwsHedging hedging = hedging(0.);
+        warmup(hedging);
+
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedging.callAsync(READ, r -> {
+            attempts.incrementAndGet();
+            return slow;
+        });
+
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+        assertEquals(1, attempts.get());
+
+        slow.complete("primary");
+        assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void call_Hedged() {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        String result = hedging.call(READ, r -> {
+            if (attempts.getAndIncrement() > 0) {
+                return "hedge";
+            }
+
+            try {
+                Thread.sleep(10_000);
+                return "primary";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals("hedge", result);
+        assertDoesNotThrow(() -> assertTrue(interrupted.await(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    public void call_BothSucceed_LoserClosed() throws Exception {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+
+        AtomicInteger attempts = new AtomicInteger();
+        TestResponse primary = new TestResponse();
+        TestResponse hedge = new TestResponse();
+
+        TestResponse result = hedging.call(READ, r -> {
+            if (attempts.getAndIncrement() > 0) {
+                return hedge;
+            }
+
+            // ignore the interrupt and return a response after the hedge has won
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                // expected
+            }
+            return primary;
+        });
+
+        assertSame(hedge, result);
+        assertTrue(primary.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, hedge.closed.getCount());
+    }
+
+    @Test
+    public void call_Interrupted() throws Exception {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        Thread caller = Thread.ofVirtual().start(() -> {
+            try {
+                hedging.call(READ, r -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                        return "x";
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw new IllegalStateException(e);
+                    }
+                });
+            } catch (CancellationException e) {
+                cancelled.countDown();
+            }
+        });
+
+        // wait for both attempts to start, then interrupt the caller
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void callAsync_HedgeLatencyNotRecorded() throws Exception {
+        AwsHedging hedging = hedging(1.);
+        warmup(hedging);
+        assertEquals(Duration.ofMillis(10), hedging.getDelay("GetCallerIdentity"));
+
+        // running in small batches to stay within the max hedge budget
+        for (int b = 0; b < 5; b++) {
+
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+
+                // the primary fails shortly after the hedge starts, and the slow hedge wins
+                AtomicInteger attempts = new AtomicInteger();
+                results.add(hedging.callAsync(READ, r -> attempts.getAndIncrement() == 0
+                        ? CompletableFuture.supplyAsync(() -> fail("primary failed"), CompletableFuture.delayedExecutor(30, TimeUnit.MILLISECONDS))
+                        : CompletableFuture.supplyAsync(() -> "hedge", CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS))));
+            }
+
+            for (CompletableFuture<String> r : results) {
+                assertEquals("hedge", r.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // wait for the delay to be recalculated. The slow hedges must not affect it
+        Thread.sleep(1_100);
+        assertEquals(Duration.ofMillis(10), hedging.getDelay("GetCallerIdentity"));
+    }
+
+    @Test
+    public void call_Failed() {
+        AwsHedging hedging = hedging(1.);
+        assertThrows(IllegalStateException.class, () -> hedging.call(READ, r -> {
+            throw new IllegalStateException("failed");
+        }));
+    }
+
+    static String fail(String message) {
+        throw new IllegalStateException(message);
+    }
+
+    static class TestResponse implements AutoCloseable {
+
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    static AwsHedging hedging(double budgetRatio) {
+        return new AwsHedging(0.9, Duration.ofMillis(10), new AwsHedgeBudget(budgetRatio));
+    }
+
+    static void warmup(AwsHedging hedging) {
+        for (int i = 0; i < 20; i++) {
+            hedging.callAsync(READ, r -> CompletableFuture.completedFuture("x")).join();
+        }
+    }
+}
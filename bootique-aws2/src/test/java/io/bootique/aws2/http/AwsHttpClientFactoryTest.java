@@ -0,0 +1,176 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.bootique.aws2.http;
+
+import io.bootique.value.Duration;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsHttpClientFactoryTest {
+
+    @Test
+    public void withDefaults() {
+        AwsHttpClientFactory defaults = new ApacheHttpClientFactory()
+                .setMaxConnections(100)
+                .setConnectionAcquisitionTimeout(new Duration("1s"))
+                .setConnectionTimeout(new Duration("2s"))
+                .setSocketTimeout(new Duration("3s"))
+                .setConnectionTimeToLive(new Duration("4s"))
+                .setConnectionMaxIdleTime(new Duration("5s"))
+                .setTcpKeepAlive(true)
+                .setExpectContinueEnabled(false);
+
+        AwsHttpClientFactory service = new ApacheHttpClientFactory()
+                .setMaxConnections(10)
+                .setSocketTimeout(new Duration("30s"))
+                .setTcpKeepAlive(false);
+
+        AwsHttpClientFactory merged = service.withDefaults(defaults);
+        assertNotSame(service, merged);
+        assertInstanceOf(ApacheHttpClientFactory.class, merged);
+
+        // the settings of the service factory win, the rest are inherited field by field
+        assertEquals(10, merged.maxConnections);
+        assertEquals(new Duration("1s"), merged.connectionAcquisitionTimeout);
+        assertEquals(new Duration("2s"), merged.connectionTimeout);
+        assertEquals(new Duration("30s"), merged.socketTimeout);
+        assertEquals(new Duration("4s"), merged.connectionTimeToLive);
+        assertEquals(new Duration("5s"), merged.connectionMaxIdleTime);
+        assertEquals(false, merged.tcpKeepAlive);
+        assertEquals(false, merged.expectContinueEnabled);
+
+        // neither of the source factories are changed
+        assertNull(service.connectionTimeout);
+        assertEquals(100, defaults.maxConnections);
+    }
+
+    @Test
+    public void withDefaults_NothingSet() {
+        AwsHttpClientFactory merged = new ApacheHttpClientFactory().withDefaults(new ApacheHttpClientFactory());
+
+        assertNull(merged.maxConnections);
+        assertNull(merged.connectionAcquisitionTimeout);
+        assertNull(merged.connectionTimeout);
+        assertNull(merged.socketTimeout);
+        assertNull(merged.connectionTimeToLive);
+        assertNull(merged.connectionMaxIdleTime);
+        assertNull(merged.tcpKeepAlive);
+        assertNull(merged.expectContinueEnabled);
+    }
+
+    @Test
+    public void withDefaults_DifferentType() {
+        AwsHttpClientFactory defaults = new ApacheHttpClientFactory()
+                .setMaxConnections(100)
+                .setConnectionTimeout(new Duration("2s"))
+                .setSocketTimeout(new Duration("3s"));
+
+        AwsHttpClientFactory service = new UrlConnectionHttpClientFactory()
+                .setSocketTimeout(new Duration("30s"));
+
+        // the type of the service factory wins, and the common transport settings are inherited
+        AwsHttpClientFactory merged = service.withDefaults(defaults);
+        assertInstanceOf(UrlConnectionHttpClientFactory.class, merged);
+        assertEquals(100, merged.maxConnections);
+        assertEquals(new Duration("2s"), merged.connectionTimeout);
+        assertEquals(new Duration("30s"), merged.socketTimeout);
+
+        try (SdkHttpClient client = merged.createHttpClient()) {
+            assertInstanceOf(UrlConnectionHttpClient.class, client);
+        }
+    }
+
+    @Test
+    public void withDefaults_TypeNotSet() {
+        AwsHttpClientFactory defaults = new UrlConnectionHttpClientFactory()
+                .setConnectionTimeout(new Duration("2s"));
+
+        AwsHttpClientFactory service = new DefaultHttpClientFactory()
+                .setSocketTimeout(new Duration("30s"));
+
+        // the service factory without a type inherits the type of the defaults
+        AwsHttpClientFactory merged = service.withDefaults(defaults);
+        assertInstanceOf(UrlConnectionHttpClientFactory.class, merged);
+        assertEquals(new Duration("2s"), merged.connectionTimeout);
+        assertEquals(new Duration("30s"), merged.socketTimeout);
+    }
+
+    @Test
+    public void createHttpClient_TypeNotSet() {
+        try (SdkHttpClient client = new DefaultHttpClientFactory().setMaxConnections(5).createHttpClient()) {
+            assertInstanceOf(ApacheHttpClient.class, client);
+        }
+    }
+
+    /**
+     * A factory of HTTP clients that record whether they were closed, to be used in place of the real clients.
+     */
+    public static class TestHttpClientFactory extends AwsHttpClientFactory {
+
+        @Override
+        public TestHttpClient createHttpClient() {
+            return new TestHttpClient(this);
+        }
+
+        @Override
+        protected AwsHttpClientFactory newInstance() {
+            return new TestHttpClientFactory();
+        }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+    }
+
+    public static class TestHttpClient implements SdkHttpClient {
+
+        private final TestHttpClientFactory factory;
+        private volatile boolean closed;
+
+        TestHttpClient(TestHttpClientFactory factory) {
+            this.factory = factory;
+        }
+
+        public TestHttpClientFactory getFactory() {
+            return factory;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            throw new UnsupportedOperationException("Test client can't execute requests");
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.interceptor;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InFlightCallsInterceptorTest {
+
+    @Test
+    public void count() {
+        InFlightCallsInterceptor interceptor = new InFlightCallsInterceptor();
+        ExecutionAttributes a1 = new ExecutionAttributes();
+        ExecutionAttributes a2 = new ExecutionAttributes();
+
+        interceptor.beforeTransmission(null, a1);
+
+        // retry attempts must not be counted as separate calls
+        interceptor.beforeTransmission(null, a1);
+        interceptor.beforeTransmission(null, a2);
+        assertEquals(2, interceptor.getInFlightCalls());
+
+        interceptor.afterExecution(null, a1);
+        interceptor.onExecutionFailure(null, a2);
+        assertEquals(0, interceptor.getInFlightCalls());
+
+        // calls that failed before transmission must be ignored
+        interceptor.onExecutionFailure(null, new ExecutionAttributes());
+        assertEquals(0, interceptor.getInFlightCalls());
+    }
+
+    @Test
+    public void awaitInFlightCalls() {
+        InFlightCallsInterceptor interceptor = new InFlightCallsInterceptor();
+        assertTrue(interceptor.awaitInFlightCalls(Duration.ZERO));
+
+        ExecutionAttributes a = new ExecutionAttributes();
+        interceptor.beforeTransmission(null, a);
+        assertFalse(interceptor.awaitInFlightCalls(Duration.ofMillis(10)));
+
+        CompletableFuture.runAsync(
+                () -> interceptor.afterExecution(null, a),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+
+        assertTrue(interceptor.awaitInFlightCalls(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.interceptor;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingExecutionInterceptorTest {
+
+    @Test
+    public void transmissionDuration() throws InterruptedException {
+        MetricCollector collector = MetricCollector.create("ApiCallAttempt");
+        ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(SdkExecutionAttribute.API_CALL_ATTEMPT_METRIC_COLLECTOR, collector);
+
+        TimingExecutionInterceptor interceptor = new TimingExecutionInterceptor();
+        interceptor.beforeTransmission(null, attributes);
+        Thread.sleep(5);
+        interceptor.afterTransmission(null, attributes);
+
+        MetricCollection collection = collector.collect();
+        List<Duration> durations = collection.metricValues(TimingExecutionInterceptor.TRANSMISSION_DURATION);
+        assertEquals(1, durations.size());
+        assertTrue(durations.get(0).toMillis() >= 5, "Unexpected duration: " + durations.get(0));
+    }
+
+    @Test
+    public void transmissionDuration_NoCollector() {
+        ExecutionAttributes attributes = new ExecutionAttributes();
+
+        TimingExecutionInterceptor interceptor = new TimingExecutionInterceptor();
+        interceptor.beforeTransmission(null, attributes);
+        assertDoesNotThrow(() -> interceptor.afterTransmission(null, attributes));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.sts.model.GetCallerIdentityRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrExecutionInterceptorTest {
+
+    @Test
+    public void apiCallWithRetry() throws IOException {
+
+        List<RecordedEvent> events = record(() -> {
+            JfrExecutionInterceptor interceptor = new JfrExecutionInterceptor();
+            ExecutionAttributes attributes = attributes();
+            InterceptorContext context = context(503);
+
+            interceptor.beforeExecution(context, attributes);
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.afterTransmission(context, attributes);
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.afterTransmission(context(200), attributes);
+            interceptor.afterExecution(context, attributes);
+        });
+
+        RecordedEvent call = single(events, "io.bootique.aws2.AwsApiCall");
+        assertEquals("Sts", call.getString("service"));
+        assertEquals("GetCallerIdentity", call.getString("operation"));
+        assertEquals(2, call.getInt("attempts"));
+        assertEquals(200, call.getInt("httpStatus"));
+        assertEquals(11, call.getLong("responseBytes"));
+        assertTrue(call.getBoolean("successful"));
+
+        RecordedEvent retry = single(events, "io.bootique.aws2.AwsRetry");
+        assertEquals("GetCallerIdentity", retry.getString("operation"));
+        assertEquals(2, retry.getInt("attempt"));
+        assertEquals(200, retry.getInt("httpStatus"));
+    }
+
+    @Test
+    public void apiCallWithRetry_IOFailure() throws IOException {
+
+        List<RecordedEvent> events = record(() -> {
+            JfrExecutionInterceptor interceptor = new JfrExecutionInterceptor();
+            ExecutionAttributes attributes = attributes();
+            InterceptorContext context = context(503);
+
+            interceptor.beforeExecution(context, attributes);
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.afterTransmission(context, attributes);
+
+            // the second attempt fails without an HTTP response, so "afterTransmission" is never called
+            interceptor.beforeTransmission(context, attributes);
+
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.afterTransmission(context(200), attributes);
+            interceptor.afterExecution(context, attributes);
+        });
+
+        RecordedEvent call = single(events, "io.bootique.aws2.AwsApiCall");
+        assertEquals(3, call.getInt("attempts"));
+
+        List<RecordedEvent> retries = events.stream()
+                .filter(e -> e.getEventType().getName().equals("io.bootique.aws2.AwsRetry"))
+                .sorted(Comparator.comparing(e -> e.getInt("attempt")))
+                .toList();
+
+        assertEquals(2, retries.size());
+        assertEquals(2, retries.get(0).getInt("attempt"));
+        assertEquals(0, retries.get(0).getInt("httpStatus"));
+        assertEquals(3, retries.get(1).getInt("attempt"));
+        assertEquals(200, retries.get(1).getInt("httpStatus"));
+    }
+
+    @Test
+    public void apiCallFailure() throws IOException {
+
+        List<RecordedEvent> events = record(() -> {
+            JfrExecutionInterceptor interceptor = new JfrExecutionInterceptor();
+            ExecutionAttributes attributes = attributes();
+            InterceptorContext context = context(200);
+
+            interceptor.beforeExecution(context, attributes);
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.onExecutionFailure(failed(context), attributes);
+        });
+
+        RecordedEvent call = single(events, "io.bootique.aws2.AwsApiCall");
+        assertFalse(call.getBoolean("successful"));
+        assertEquals("SdkClientException: xyz", call.getString("error"));
+    }
+
+    @Test
+    public void notRecording() {
+        JfrExecutionInterceptor interceptor = new JfrExecutionInterceptor();
+        ExecutionAttributes attributes = attributes();
+        InterceptorContext context = context(200);
+
+        interceptor.beforeExecution(context, attributes);
+        assertTrue(attributes.getAttributes().keySet().stream().noneMatch(k -> k.toString().contains("Jfr")));
+
+        assertDoesNotThrow(() -> {
+            interceptor.beforeTransmission(context, attributes);
+            interceptor.afterTransmission(context, attributes);
+            interceptor.afterExecution(context, attributes);
+        });
+    }
+
+    @Test
+    public void resource() {
+        SdkRequest request = GetCallerIdentityRequest.builder().build();
+        assertNull(JfrExecutionInterceptor.resource(request));
+    }
+
+    private static ExecutionAttributes attributes() {
+        ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(SdkExecutionAttribute.SERVICE_NAME, "Sts");
+        attributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, "GetCallerIdentity");
+        return attributes;
+    }
+
+    private static InterceptorContext context(int status) {
+        return InterceptorContext.builder()
+                .request(GetCallerIdentityRequest.builder().build())
+                .httpRequest(SdkHttpFullRequest.builder()
+                        .method(SdkHttpMethod.POST)
+                        .protocol("https")
+                        .host("sts.amazonaws.com")
+                        .build())
+                .httpResponse(SdkHttpFullResponse.builder()
+                        .statusCode(status)
+                        .putHeader("Content-Length", "11")
+                        .build())
+                .build();
+    }
+
+    private static Context.FailedExecution failed(InterceptorContext context) {
+        return new Context.FailedExecution() {
+            @Override
+            public Throwable exception() {
+                return SdkClientException.create("xyz");
+            }
+
+            @Override
+            public SdkRequest request() {
+                return context.request();
+            }
+
+            @Override
+            public Optional<SdkHttpRequest> httpRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<SdkHttpResponse> httpResponse() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<SdkResponse> response() {
+                return Optional.empty();
+            }
+        };
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), "Unexpected events: " + matching);
+        return matching.get(0);
+    }
+
+    static List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = Files.createTempFile("bq-aws-jfr", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AwsApiCallEvent.class).withoutThreshold();
+            recording.enable(AwsRetryEvent.class).withoutThreshold();
+            recording.enable(AwsCredentialsResolveEvent.class).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsHistogramTest {
+
+    @Test
+    public void bucketIndex_Contiguous() {
+        int last = AwsHistogram.bucketIndex(0);
+        for (long v = 1; v < 100_000; v++) {
+            int i = AwsHistogram.bucketIndex(v);
+            assertTrue(i == last || i == last + 1, "Gap at " + v);
+            assertTrue(AwsHistogram.bucketUpperBound(i) >= v, "Upper bound is below value " + v);
+            last = i;
+        }
+
+        assertTrue(AwsHistogram.bucketIndex(Long.MAX_VALUE) < 256);
+    }
+
+    @Test
+    public void snapshot() {
+        AwsHistogram h = new AwsHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+
+        AwsHistogram.Snapshot s = h.snapshot();
+        assertEquals(1000, s.getCount());
+        assertEquals(1000, s.getMax());
+        assertEquals(500.5, s.getMean(), 0.001);
+
+        long p50 = s.getPercentile(0.5);
+        assertTrue(p50 >= 500 && p50 <= 625, "Unexpected p50: " + p50);
+
+        long p99 = s.getPercentile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "Unexpected p99: " + p99);
+    }
+
+    @Test
+    public void intervalSnapshot() {
+        AwsHistogram h = new AwsHistogram();
+        for (int i = 1; i <= 100; i++) {
+            h.record(1000);
+        }
+
+        AwsHistogram.Snapshot s1 = h.intervalSnapshot();
+        assertEquals(100, s1.getCount());
+        assertEquals(1000, s1.getMax());
+
+        for (int i = 1; i <= 10; i++) {
+            h.record(10);
+        }
+
+        // only the values recorded since the previous interval are included
+        AwsHistogram.Snapshot s2 = h.intervalSnapshot();
+        assertEquals(10, s2.getCount());
+        assertEquals(100, s2.getSum());
+        assertEquals(10, s2.getMax());
+        assertEquals(10, s2.getPercentile(0.99));
+
+        assertEquals(0, h.intervalSnapshot().getCount());
+
+        // cumulative snapshot is not affected
+        assertEquals(110, h.snapshot().getCount());
+        assertEquals(1000, h.snapshot().getMax());
+    }
+
+    @Test
+    public void snapshot_Empty() {
+        AwsHistogram.Snapshot s = new AwsHistogram().snapshot();
+        assertEquals(0, s.getCount());
+        assertEquals(0, s.getPercentile(0.99));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.metrics;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsMetricsPublisherTest {
+
+    @Test
+    public void publish() {
+        AwsMetricsRegistry registry = new AwsMetricsRegistry();
+        AwsMetricsPublisher publisher = new AwsMetricsPublisher(registry);
+
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.SERVICE_ID, "S3");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "GetObject");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, false);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(30));
+        apiCall.reportMetric(CoreMetric.RETRY_COUNT, 1);
+
+        for (int i = 0; i < 2; i++) {
+            MetricCollector attempt = apiCall.createChild("ApiCallAttempt");
+            attempt.reportMetric(CoreMetric.SERVICE_CALL_DURATION, Duration.ofMillis(10));
+
+            MetricCollector http = attempt.createChild("HttpClient");
+            http.reportMetric(HttpMetric.LEASED_CONCURRENCY, 5);
+            http.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 0);
+        }
+
+        publisher.publish(apiCall.collect());
+
+        AwsOperationMetrics metrics = registry.getOperationMetrics("S3", "GetObject").orElseThrow();
+        assertEquals(1, metrics.getCalls());
+        assertEquals(1, metrics.getFailedCalls());
+        assertEquals(30_000, metrics.getApiCallDuration().snapshot().getMax());
+        assertEquals(2, metrics.getServiceCallDuration().getCount());
+        assertEquals(1, metrics.getRetryCount().snapshot().getMax());
+        assertEquals(2, metrics.getLeasedConcurrency().getCount());
+        assertEquals(5, metrics.getLeasedConcurrency().snapshot().getMax());
+
+        assertTrue(registry.getOperationMetrics("S3", "PutObject").isEmpty());
+    }
+}
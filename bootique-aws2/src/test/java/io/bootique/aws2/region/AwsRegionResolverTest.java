@@ -0,0 +1,84 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.region;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsRegionResolverTest {
+
+    @Test
+    public void resolve_Once() {
+        TestResolver resolver = new TestResolver(Map.of(
+                "env", () -> {
+                    throw SdkClientException.create("no region");
+                },
+                "instance", () -> Region.EU_WEST_1));
+
+        assertEquals(Optional.of(Region.EU_WEST_1), resolver.resolve(List.of("env", "profile", "instance")));
+        assertEquals(Optional.of(Region.EU_WEST_1), resolver.resolve(List.of("env", "profile", "instance")));
+
+        assertEquals(1, resolver.calls("env"));
+        assertEquals(1, resolver.calls("profile"));
+        assertEquals(1, resolver.calls("instance"));
+    }
+
+    @Test
+    public void resolve_NotFound() {
+        TestResolver resolver = new TestResolver(Map.of());
+        assertEquals(Optional.empty(), resolver.resolve(List.of("env", "profile")));
+    }
+
+    @Test
+    public void createProvider_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new AwsRegionResolver().resolve(List.of("xyz")));
+    }
+
+    static class TestResolver extends AwsRegionResolver {
+
+        private final Map<String, AwsRegionProvider> providers;
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        TestResolver(Map<String, AwsRegionProvider> providers) {
+            this.providers = providers;
+        }
+
+        int calls(String name) {
+            AtomicInteger counter = calls.get(name);
+            return counter != null ? counter.get() : 0;
+        }
+
+        @Override
+        protected AwsRegionProvider createProvider(String name) {
+            calls.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+            return providers.getOrDefault(name, () -> null);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.retry;
+
+import io.bootique.value.Duration;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.retries.AdaptiveRetryStrategy;
+import software.amazon.awssdk.retries.LegacyRetryStrategy;
+import software.amazon.awssdk.retries.StandardRetryStrategy;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AwsRetryStrategyFactoryTest {
+
+    @Test
+    public void create_Modes() {
+        assertInstanceOf(StandardRetryStrategy.class, new AwsRetryStrategyFactory().setMode("standard").create());
+        assertInstanceOf(AdaptiveRetryStrategy.class, new AwsRetryStrategyFactory().setMode("adaptive").create());
+        assertInstanceOf(LegacyRetryStrategy.class, new AwsRetryStrategyFactory().setMode("legacy").create());
+    }
+
+    @Test
+    public void create_InvalidMode() {
+        assertThrows(IllegalArgumentException.class, () -> new AwsRetryStrategyFactory().setMode("xyz").create());
+    }
+
+    @Test
+    public void create_MaxAttempts() {
+        RetryStrategy strategy = new AwsRetryStrategyFactory()
+                .setMode("standard")
+                .setMaxAttempts(7)
+                .setBackoffBase(new Duration("50ms"))
+                .setThrottlingBackoffMax(new Duration("5s"))
+                .setCircuitBreakerEnabled(false)
+                .create();
+
+        assertEquals(7, strategy.maxAttempts());
+    }
+}
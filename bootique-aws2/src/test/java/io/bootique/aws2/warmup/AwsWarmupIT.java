@@ -0,0 +1,161 @@
+/*
+ * Licensed to ObjectStyle LLC under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ObjectStyle LLC licenses
+ * this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.bootique.aws2.warmup;
+
+import com.sun.net.httpserver.HttpServer;
+import io.bootique.BQRuntime;
+import io.bootique.aws2.AwsConfig;
+import io.bootique.aws2.AwsModule;
+import io.bootique.junit.BQTest;
+import io.bootique.junit.BQTestFactory;
+import io.bootique.junit.BQTestTool;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@BQTest
+public class AwsWarmupIT {
+
+    static final AtomicInteger requests = new AtomicInteger();
+    static HttpServer server;
+
+    @BQTestTool
+    final BQTestFactory testFactory = new BQTestFactory();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        requests.set(0);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", e -> {
+            requests.incrementAndGet();
+            e.sendResponseHeaders(403, -1);
+            e.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void noWarmup() throws Exception {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addWarmupTarget(LocalTarget.class))
+                .createRuntime();
+
+        List<AwsWarmupResult> results = runtime.getInstance(AwsWarmup.class).getResults().get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(), results);
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void warmup() throws Exception {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addWarmupTarget(LocalTarget.class))
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.warmup.targets[0]", "local")
+                .property("bq.aws.warmup.connections", "3")
+                .createRuntime();
+
+        List<AwsWarmupResult> results = runtime.getInstance(AwsWarmup.class).getResults().get(5, TimeUnit.SECONDS);
+        assertEquals(1, results.size());
+
+        AwsWarmupResult r = results.get(0);
+        assertEquals("local", r.target());
+        assertTrue(r.isSuccessful(), () -> String.valueOf(r.error()));
+        assertEquals(3, r.connections());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void warmup_Failure() throws Exception {
+        BQRuntime runtime = testFactory.app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addWarmupTarget(new FailingTarget()))
+                .property("bq.aws.credentials.accessKey", "xyz")
+                .property("bq.aws.credentials.secretKey", "abc")
+                .property("bq.aws.warmup.targets[0]", "failing")
+                .createRuntime();
+
+        List<AwsWarmupResult> results = runtime.getInstance(AwsWarmup.class).getResults().get(5, TimeUnit.SECONDS);
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).isSuccessful());
+        assertEquals("failing", results.get(0).target());
+    }
+
+    @Test
+    public void warmup_UnknownTarget() {
+        assertThrows(RuntimeException.class, () -> testFactory.app()
+                .autoLoadModules()
+                .module(b -> AwsModule.extend(b).addWarmupTarget(LocalTarget.class))
+                .property("bq.aws.warmup.targets[0]", "nosuchtarget")
+                .createRuntime()
+                .getInstance(AwsWarmup.class));
+    }
+
+    public static class LocalTarget implements AwsWarmupTarget {
+
+        private final AwsConfig config;
+
+        @Inject
+        public LocalTarget(AwsConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public String getName() {
+            return "local";
+        }
+
+        @Override
+        public List<AwsWarmupEndpoint> createClients() {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            return List.of(new AwsWarmupEndpoint(uri, config.getHttpClient()));
+        }
+    }
+
+    static class FailingTarget implements AwsWarmupTarget {
+
+        @Override
+        public String getName() {
+            return "failing";
+        }
+
+        @Override
+        public List<AwsWarmupEndpoint> createClients() {
+            throw new IllegalStateException("Expected failure");
+        }
+    }
+}